@@ -0,0 +1,71 @@
+package com.github.sem2mqtt.bluetooth.sem6000;
+
+import static java.util.Collections.emptyList;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.freedesktop.dbus.exceptions.DBusException;
+import org.freedesktop.dbus.interfaces.Properties.PropertiesChanged;
+import org.freedesktop.dbus.types.Variant;
+import org.magcode.sem6000.connector.send.Command;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Covers reassembling notifications into responses: a measurement arriving in a single notification and a day data
+ * response split into three notifications, as sent by the device.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class Sem6000DbusHandlerProxyBenchmark {
+
+  private static final String DBUS_PATH = "/org/bluez/hci0/dev_00_00_00_00_00_01/service000e/char0013";
+  private static final String MEASUREMENT = "0f11040001002cc8ea0059320000000000006f";
+  private static final String DATA_DAY =
+      "0f330a00000000000000000000000000000000000000000000000000005c04e200c9005f0000000000000000000000000000000075ffff";
+
+  private Sem6000DbusHandlerProxy proxy;
+  private PropertiesChanged measurement;
+  private PropertiesChanged[] dataDayParts;
+
+  @Setup
+  public void setUp(Blackhole blackhole) throws DBusException {
+    proxy = new Sem6000DbusHandlerProxy(blackhole::consume);
+    measurement = notificationOf(Command.hexStringToByteArray(MEASUREMENT));
+    byte[] dataDay = Command.hexStringToByteArray(DATA_DAY);
+    dataDayParts = new PropertiesChanged[]{notificationOf(Arrays.copyOfRange(dataDay, 0, 20)),
+        notificationOf(Arrays.copyOfRange(dataDay, 20, 40)),
+        notificationOf(Arrays.copyOfRange(dataDay, 40, dataDay.length))};
+  }
+
+  @Benchmark
+  public void completeNotification() {
+    proxy.handle(measurement);
+  }
+
+  @Benchmark
+  public void fragmentedNotifications() {
+    for (PropertiesChanged part : dataDayParts) {
+      proxy.handle(part);
+    }
+  }
+
+  private static PropertiesChanged notificationOf(byte[] value) throws DBusException {
+    return new PropertiesChanged(DBUS_PATH, "org.bluez.GattCharacteristic1", Map.of("Value", new Variant<>(value)),
+        emptyList());
+  }
+}
@@ -0,0 +1,42 @@
+package com.github.sem2mqtt.mqtt;
+
+import com.github.sem2mqtt.mqtt.Sem6000MqttTopic.Type;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class Sem6000MqttTopicBenchmark {
+
+  private static final String ROOT_TOPIC = "home/mysemdevices";
+  private static final String PLUG_NAME = "sem1";
+  private final String relayTopic = ROOT_TOPIC + "/" + PLUG_NAME + "/relay/set";
+
+  @Benchmark
+  public Type getType() {
+    return new Sem6000MqttTopic(ROOT_TOPIC, relayTopic, PLUG_NAME).getType();
+  }
+
+  @Benchmark
+  public boolean isValid() {
+    return new Sem6000MqttTopic(ROOT_TOPIC, relayTopic, PLUG_NAME).isValid();
+  }
+
+  @Benchmark
+  public Optional<Sem6000MqttTopic> parse() {
+    return Sem6000MqttTopic.parse(ROOT_TOPIC, relayTopic);
+  }
+}
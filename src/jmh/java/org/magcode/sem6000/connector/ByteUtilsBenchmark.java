@@ -0,0 +1,40 @@
+package org.magcode.sem6000.connector;
+
+import java.util.concurrent.TimeUnit;
+import org.magcode.sem6000.connector.send.Command;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ByteUtilsBenchmark {
+
+  @Param({"0f11040001002cc8ea0059320000000000006f",
+      "0f330a00000000000000000000000000000000000000000000000000005c04e200c9005f0000000000000000000000000000000075ffff"})
+  private String frameHex;
+
+  private byte[] frame;
+
+  @Setup
+  public void setUp() {
+    frame = Command.hexStringToByteArray(frameHex);
+  }
+
+  @Benchmark
+  public String byteArrayToHex() {
+    return ByteUtils.byteArrayToHex(frame);
+  }
+}
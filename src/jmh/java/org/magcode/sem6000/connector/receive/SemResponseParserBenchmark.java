@@ -0,0 +1,62 @@
+package org.magcode.sem6000.connector.receive;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+import org.magcode.sem6000.connector.send.Command;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SemResponseParserBenchmark {
+
+  @Param({"LOGIN", "MEASURE", "DATADAY", "SYNCTIME", "SWITCHRELAY", "LED", "UNKNOWN"})
+  private ResponseType responseType;
+
+  private final Clock clock = Clock.fixed(Instant.parse("2023-03-01T12:30:00Z"), ZoneOffset.UTC);
+  private byte[] frame;
+
+  @Setup
+  public void setUp() {
+    frame = Command.hexStringToByteArray(frameFor(responseType));
+  }
+
+  @Benchmark
+  public SemResponse parseMessage() {
+    return SemResponseParser.parseMessage(frame, 0, frame.length, clock);
+  }
+
+  private static String frameFor(ResponseType responseType) {
+    switch (responseType) {
+      case LOGIN:
+        return "0f0417000018ffff";
+      case MEASURE:
+        return "0f11040001002cc8ea0059320000000000006f";
+      case DATADAY:
+        return "0f330a00000000000000000000000000000000000000000000000000005c04e200c9005f0000000000000000000000000000000075ffff";
+      case SYNCTIME:
+        return "0f0401000002ffff";
+      case SWITCHRELAY:
+        return "0f0403000004ffff";
+      case LED:
+        return "0f040f000010ffff";
+      default:
+        return "0f05990000009affff";
+    }
+  }
+}
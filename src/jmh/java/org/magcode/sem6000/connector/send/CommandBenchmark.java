@@ -0,0 +1,59 @@
+package org.magcode.sem6000.connector.send;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Covers building frames of commands. Constant commands and encoding into a reused buffer are expected to report a
+ * gc.alloc.rate.norm of (close to) zero bytes per operation.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CommandBenchmark {
+
+  private final byte[] switchBody = {0x00, 0x01, 0x00, 0x00};
+  private final ByteBuffer buffer = ByteBuffer.allocate(64);
+  private final MeasureCommand measureCommand = new MeasureCommand();
+
+  @Benchmark
+  public ByteBuffer encodeIntoReusedBuffer() {
+    buffer.clear();
+    Sem6000FrameEncoder.encode(SwitchCommand.OPCODE, switchBody, 0, switchBody.length, buffer);
+    return buffer;
+  }
+
+  @Benchmark
+  public ByteBuffer writeConstantCommandIntoReusedBuffer() {
+    buffer.clear();
+    measureCommand.writeTo(buffer);
+    return buffer;
+  }
+
+  @Benchmark
+  public byte[] measureCommand() {
+    return new MeasureCommand().getMessage();
+  }
+
+  @Benchmark
+  public byte[] switchCommand() {
+    return new SwitchCommand(true).getMessage();
+  }
+
+  @Benchmark
+  public byte[] loginCommand() {
+    return new LoginCommand("1234").getMessage();
+  }
+}
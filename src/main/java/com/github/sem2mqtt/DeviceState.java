@@ -0,0 +1,88 @@
+package com.github.sem2mqtt;
+
+import java.time.Instant;
+import java.util.Optional;
+import org.magcode.sem6000.connector.receive.AvailabilityResponse.Availability;
+import org.magcode.sem6000.connector.receive.MeasurementResponse;
+
+/**
+ * Immutable state of a sem6000 device as last reported by the device. Values that have not been reported yet are
+ * empty.
+ */
+public class DeviceState {
+
+  private final String name;
+  private final MeasurementResponse measurement;
+  private final Instant measuredAt;
+  private final Integer energyToday;
+  private final Instant energyTodayAt;
+  private final Availability availability;
+  private final Instant updatedAt;
+
+  private DeviceState(String name, MeasurementResponse measurement, Instant measuredAt, Integer energyToday,
+      Instant energyTodayAt, Availability availability, Instant updatedAt) {
+    this.name = name;
+    this.measurement = measurement;
+    this.measuredAt = measuredAt;
+    this.energyToday = energyToday;
+    this.energyTodayAt = energyTodayAt;
+    this.availability = availability;
+    this.updatedAt = updatedAt;
+  }
+
+  static DeviceState unknown(String name) {
+    return new DeviceState(name, null, null, null, null, null, null);
+  }
+
+  DeviceState withMeasurement(MeasurementResponse measurement, Instant measuredAt) {
+    return new DeviceState(name, measurement, measuredAt, energyToday, energyTodayAt, availability, measuredAt);
+  }
+
+  DeviceState withEnergyToday(int energyToday, Instant updatedAt) {
+    return new DeviceState(name, measurement, measuredAt, energyToday, updatedAt, availability, updatedAt);
+  }
+
+  DeviceState withAvailability(Availability availability, Instant updatedAt) {
+    return new DeviceState(name, measurement, measuredAt, energyToday, energyTodayAt, availability, updatedAt);
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public Optional<MeasurementResponse> getMeasurement() {
+    return Optional.ofNullable(measurement);
+  }
+
+  public Optional<Instant> getMeasuredAt() {
+    return Optional.ofNullable(measuredAt);
+  }
+
+  /**
+   * @return consumed energy since midnight in watt hours
+   */
+  public Optional<Integer> getEnergyToday() {
+    return Optional.ofNullable(energyToday);
+  }
+
+  /**
+   * @return when the energy of today has been reported, the energy of a past day is outdated
+   */
+  public Optional<Instant> getEnergyTodayAt() {
+    return Optional.ofNullable(energyTodayAt);
+  }
+
+  public Optional<Availability> getAvailability() {
+    return Optional.ofNullable(availability);
+  }
+
+  public Optional<Instant> getUpdatedAt() {
+    return Optional.ofNullable(updatedAt);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("DeviceState{name='%s', measurement=%s, energyToday=%s, availability=%s, updatedAt=%s}",
+        name, measurement, energyToday, availability, updatedAt);
+  }
+}
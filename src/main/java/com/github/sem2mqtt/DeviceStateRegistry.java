@@ -0,0 +1,55 @@
+package com.github.sem2mqtt;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+import org.magcode.sem6000.connector.receive.AvailabilityResponse.Availability;
+import org.magcode.sem6000.connector.receive.MeasurementResponse;
+
+/**
+ * Latest known state of each device by the name of its config. An update replaces the immutable state of its device
+ * only, so updates of different devices do not contend and an update costs the same regardless of the count of
+ * devices. A snapshot copies the states, each of which is consistent on its own.
+ */
+public class DeviceStateRegistry {
+
+  private final Map<String, DeviceState> statesByName = new ConcurrentHashMap<>();
+
+  void register(String name) {
+    update(name, UnaryOperator.identity());
+  }
+
+  DeviceState updateMeasurement(String name, MeasurementResponse measurement, Instant measuredAt) {
+    return update(name, state -> state.withMeasurement(measurement, measuredAt));
+  }
+
+  DeviceState updateEnergyToday(String name, int energyToday, Instant updatedAt) {
+    return update(name, state -> state.withEnergyToday(energyToday, updatedAt));
+  }
+
+  DeviceState updateAvailability(String name, Availability availability, Instant updatedAt) {
+    return update(name, state -> state.withAvailability(availability, updatedAt));
+  }
+
+  private DeviceState update(String name, UnaryOperator<DeviceState> update) {
+    // blocks concurrent updates of the same device only
+    return statesByName.compute(name,
+        (ignored, state) -> update.apply(Objects.isNull(state) ? DeviceState.unknown(name) : state));
+  }
+
+  public Optional<DeviceState> get(String name) {
+    return Optional.ofNullable(statesByName.get(name));
+  }
+
+  /**
+   * @return unmodifiable copy of the states of all devices
+   */
+  public Map<String, DeviceState> snapshot() {
+    return Collections.unmodifiableMap(new HashMap<>(statesByName));
+  }
+}
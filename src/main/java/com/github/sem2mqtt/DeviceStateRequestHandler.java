@@ -0,0 +1,74 @@
+package com.github.sem2mqtt;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.github.sem2mqtt.mqtt.MqttConnection;
+import com.github.sem2mqtt.mqtt.MqttConnection.MessageCallback;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import org.eclipse.paho.client.mqttv3.MqttMessage;
+import org.magcode.sem6000.connector.receive.AvailabilityResponse.Availability;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Answers requests to '{@code <root topic>/bridge/get}' with the latest known state of the devices, published to
+ * '{@code <root topic>/bridge/state}'. The payload of a request is the name of a device, or empty for all devices. The
+ * states are served from the {@link DeviceStateRegistry}, so answering does not poll the devices.
+ */
+class DeviceStateRequestHandler implements MessageCallback {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(DeviceStateRequestHandler.class);
+  static final String REQUEST_TOPIC = "bridge/get";
+  static final String RESPONSE_TOPIC = "bridge/state";
+
+  private final String rootTopic;
+  private final DeviceStateRegistry deviceStateRegistry;
+  private final MqttConnection mqttConnection;
+
+  DeviceStateRequestHandler(String rootTopic, DeviceStateRegistry deviceStateRegistry,
+      MqttConnection mqttConnection) {
+    this.rootTopic = rootTopic;
+    this.deviceStateRegistry = deviceStateRegistry;
+    this.mqttConnection = mqttConnection;
+  }
+
+  String getRequestTopic() {
+    return rootTopic + "/" + REQUEST_TOPIC;
+  }
+
+  @Override
+  public void handleMqttMessage(String topic, MqttMessage message) {
+    String deviceName = new String(message.getPayload(), StandardCharsets.UTF_8).trim();
+    Map<String, DeviceState> snapshot = deviceStateRegistry.snapshot();
+    Collection<DeviceState> deviceStates = deviceName.isEmpty() ? snapshot.values()
+        : Optional.ofNullable(snapshot.get(deviceName)).map(Collections::singleton).orElse(Collections.emptySet());
+    LOGGER.debug("Answering request for state of '{}' with {} device states.", deviceName, deviceStates.size());
+    mqttConnection.publishPayload(rootTopic + "/" + RESPONSE_TOPIC, write(deviceStates));
+  }
+
+  private static byte[] write(Collection<DeviceState> deviceStates) {
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    try (JsonGenerator generator = Sem6000StatePayloadWriter.JSON_FACTORY.createGenerator(buffer)) {
+      generator.writeStartObject();
+      for (DeviceState deviceState : deviceStates) {
+        generator.writeObjectFieldStart(deviceState.getName());
+        if (deviceState.getAvailability().isPresent()) {
+          generator.writeStringField("state",
+              deviceState.getAvailability().get() == Availability.AVAILABLE ? "online" : "lost");
+        }
+        Sem6000StatePayloadWriter.writeValues(generator, deviceState);
+        generator.writeEndObject();
+      }
+      generator.writeEndObject();
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to serialize states of devices.", e);
+    }
+    return buffer.toByteArray();
+  }
+}
@@ -0,0 +1,95 @@
+package com.github.sem2mqtt;
+
+import static java.time.ZonedDateTime.now;
+import static java.time.temporal.ChronoUnit.SECONDS;
+
+import com.github.sem2mqtt.configuration.PublishFilterConfig;
+import com.github.sem2mqtt.configuration.PublishFilterConfig.Deadband;
+import com.github.sem2mqtt.configuration.Sem6000Config;
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import org.magcode.sem6000.connector.receive.AvailabilityResponse.Availability;
+
+/**
+ * State the bridge keeps for a single sem6000 device. Responses of a device are handled while holding its context, so
+ * they are processed in order, whereas responses of different devices are processed in parallel.
+ */
+class Sem6000DeviceContext {
+
+  private final Sem6000Config sem6000Config;
+  private final PublishFilterConfig publishFilterConfig;
+  private final Map<String, PublishedValue> lastPublishedValuesByMetric = new HashMap<>();
+  private ZonedDateTime lastNotifiedAboutOnlineAvailabilityAt;
+
+  Sem6000DeviceContext(Sem6000Config sem6000Config) {
+    this(sem6000Config, PublishFilterConfig.disabled());
+  }
+
+  Sem6000DeviceContext(Sem6000Config sem6000Config, PublishFilterConfig publishFilterConfig) {
+    this.sem6000Config = sem6000Config;
+    this.publishFilterConfig = publishFilterConfig;
+  }
+
+  Sem6000Config getSem6000Config() {
+    return sem6000Config;
+  }
+
+  PublishFilterConfig getPublishFilterConfig() {
+    return publishFilterConfig;
+  }
+
+  /**
+   * Avoids notifying about the online state more often than once per update interval. Other states are always
+   * notified.
+   *
+   * @return whether the availability shall be notified, in which case it is recorded as notified
+   */
+  synchronized boolean shouldNotifyAbout(Availability availability) {
+    if (availability != Availability.AVAILABLE) {
+      return true;
+    }
+    if (Objects.isNull(lastNotifiedAboutOnlineAvailabilityAt) || now().isAfter(
+        lastNotifiedAboutOnlineAvailabilityAt.plus(sem6000Config.getUpdateInterval().toSeconds(), SECONDS))) {
+      lastNotifiedAboutOnlineAvailabilityAt = now();
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Avoids publishing values that changed less than the deadband since they were published last, unless they were
+   * published longer than the max age ago.
+   *
+   * @return whether the value shall be published, in which case it is recorded as published
+   */
+  synchronized boolean shouldPublish(String metric, double value, Deadband deadband) {
+    long nowNanos = System.nanoTime();
+    PublishedValue lastPublishedValue = lastPublishedValuesByMetric.get(metric);
+    if (Objects.nonNull(lastPublishedValue) && !deadband.isExceededBy(lastPublishedValue.value, value)
+        && nowNanos - lastPublishedValue.publishedAtNanos < publishFilterConfig.getMaxAge().toNanos()) {
+      return false;
+    }
+    lastPublishedValuesByMetric.put(metric, new PublishedValue(value, nowNanos));
+    return true;
+  }
+
+  /**
+   * Publishes each value on the next measurement, e.g. after the device was lost.
+   */
+  synchronized void forgetPublishedValues() {
+    lastPublishedValuesByMetric.clear();
+  }
+
+  private static class PublishedValue {
+
+    private final double value;
+    private final long publishedAtNanos;
+
+    private PublishedValue(double value, long publishedAtNanos) {
+      this.value = value;
+      this.publishedAtNanos = publishedAtNanos;
+    }
+  }
+}
@@ -0,0 +1,56 @@
+package com.github.sem2mqtt;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import org.magcode.sem6000.connector.receive.MeasurementResponse;
+
+/**
+ * Serializes the values of a device to one compact json document, e.g.
+ * {@code {"power":12.5,"voltage":230,"relay":true,"energyToday":120,"ts":1651400130000}}. Each document is written to
+ * a new array, as it is queued or journaled until it is published.
+ */
+class Sem6000StatePayloadWriter {
+
+  static final JsonFactory JSON_FACTORY = new JsonFactory();
+  // fits a document with all values
+  private static final int EXPECTED_PAYLOAD_SIZE = 128;
+
+  private Sem6000StatePayloadWriter() {
+  }
+
+  /**
+   * Writes the measurement of the state, the energy of today is omitted if it is not known yet.
+   */
+  static byte[] write(DeviceState deviceState) {
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream(EXPECTED_PAYLOAD_SIZE);
+    try (JsonGenerator generator = JSON_FACTORY.createGenerator(buffer)) {
+      generator.writeStartObject();
+      writeValues(generator, deviceState);
+      generator.writeEndObject();
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to serialize state of device.", e);
+    }
+    return buffer.toByteArray();
+  }
+
+  /**
+   * Writes the known values of the state as fields of the current object.
+   */
+  static void writeValues(JsonGenerator generator, DeviceState deviceState) throws IOException {
+    if (deviceState.getMeasurement().isPresent()) {
+      MeasurementResponse measurement = deviceState.getMeasurement().get();
+      generator.writeNumberField("power", measurement.getPower());
+      generator.writeNumberField("voltage", measurement.getVoltage());
+      generator.writeBooleanField("relay", measurement.isPowerOn());
+    }
+    if (deviceState.getEnergyToday().isPresent()) {
+      generator.writeNumberField("energyToday", deviceState.getEnergyToday().get());
+    }
+    if (deviceState.getMeasuredAt().isPresent()) {
+      generator.writeNumberField("ts", deviceState.getMeasuredAt().get().toEpochMilli());
+    }
+  }
+}
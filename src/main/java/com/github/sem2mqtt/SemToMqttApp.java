@@ -6,11 +6,12 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 import com.github.hypfvieh.bluetooth.DeviceManager;
 import com.github.sem2mqtt.bluetooth.BluetoothConnectionManager;
+import com.github.sem2mqtt.configuration.BluetoothConfig;
 import com.github.sem2mqtt.configuration.BridgeConfiguration;
 import com.github.sem2mqtt.configuration.BridgeConfigurationLoader;
 import com.github.sem2mqtt.configuration.MqttConfig;
 import com.github.sem2mqtt.mqtt.MqttConnection;
-import org.eclipse.paho.client.mqttv3.MqttClient;
+import org.eclipse.paho.client.mqttv3.MqttAsyncClient;
 import org.eclipse.paho.client.mqttv3.MqttException;
 import org.eclipse.paho.client.mqttv3.persist.MemoryPersistence;
 import org.freedesktop.dbus.exceptions.DBusException;
@@ -28,18 +29,20 @@ public class SemToMqttApp {
     MqttConfig mqttConfig = bridgeConfiguration.getMqttConfig();
     mqttConnection = initializeMqttConnection(mqttConfig);
     Scheduler scheduler = new Scheduler(SchedulerConfig.builder().maxThreads(4).build());
-    BluetoothConnectionManager bluetoothConnectionManager = initializeBluetoothConnectionManager();
+    BluetoothConnectionManager bluetoothConnectionManager = initializeBluetoothConnectionManager(scheduler,
+        bridgeConfiguration.getBluetoothConfig());
     SemToMqttBridge semToMqttBridge = new SemToMqttBridge(mqttConfig.getRootTopic(),
-        bridgeConfiguration.getSemConfigs(), mqttConnection, bluetoothConnectionManager, scheduler);
+        bridgeConfiguration.getSemConfigs(), mqttConnection, bluetoothConnectionManager, scheduler,
+        bridgeConfiguration.getBluetoothConfig(), mqttConfig.getPublishFilterConfig(), mqttConfig.getOutputMode());
 
     semToMqttBridge.run();
   }
 
   private static MqttConnection initializeMqttConnection(MqttConfig mqttConfig) {
     MqttConnection mqttConnection;
-    MqttClient mqttClient;
+    MqttAsyncClient mqttClient;
     try {
-      mqttClient = new MqttClient(mqttConfig.getUrl(), mqttConfig.getClientId(), new MemoryPersistence());
+      mqttClient = new MqttAsyncClient(mqttConfig.getUrl(), mqttConfig.getClientId(), new MemoryPersistence());
       mqttConnection = new MqttConnection(mqttClient, mqttConfig);
     } catch (MqttException e) {
       throw new SemToMqttAppException("Failed to set up mqtt client: ", e);
@@ -47,11 +50,12 @@ public class SemToMqttApp {
     return mqttConnection;
   }
 
-  private static BluetoothConnectionManager initializeBluetoothConnectionManager() {
+  private static BluetoothConnectionManager initializeBluetoothConnectionManager(Scheduler scheduler,
+      BluetoothConfig bluetoothConfig) {
     BluetoothConnectionManager bluetoothConnectionManager;
     try {
       bluetoothConnectionManager = new BluetoothConnectionManager(
-          DeviceManager.createInstance(false));
+          DeviceManager.createInstance(false), scheduler, bluetoothConfig);
     } catch (DBusException e) {
       throw new SemToMqttAppException("Failed to set up bluetooth device: ", e);
     }
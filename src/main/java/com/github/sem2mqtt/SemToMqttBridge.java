@@ -1,28 +1,41 @@
 package com.github.sem2mqtt;
 
-import static java.time.ZonedDateTime.now;
-import static java.time.temporal.ChronoUnit.SECONDS;
-
 import com.coreoz.wisp.Scheduler;
 import com.github.sem2mqtt.bluetooth.BluetoothConnectionManager;
+import com.github.sem2mqtt.bluetooth.sem6000.ConnectionRotation;
+import com.github.sem2mqtt.bluetooth.sem6000.PollPlanner;
 import com.github.sem2mqtt.bluetooth.sem6000.Sem6000Connection;
-import com.github.sem2mqtt.bluetooth.sem6000.SendingException;
+import com.github.sem2mqtt.configuration.BluetoothConfig;
+import com.github.sem2mqtt.configuration.MqttConfig;
+import com.github.sem2mqtt.configuration.MqttConfig.OutputMode;
+import com.github.sem2mqtt.configuration.PublishFilterConfig;
+import com.github.sem2mqtt.configuration.PublishFilterConfig.Deadband;
 import com.github.sem2mqtt.configuration.Sem6000Config;
 import com.github.sem2mqtt.mqtt.MqttConnection;
 import com.github.sem2mqtt.mqtt.MqttConnection.MessageCallback;
 import com.github.sem2mqtt.mqtt.Sem6000MqttTopic;
-import java.time.ZonedDateTime;
+import com.github.sem2mqtt.mqtt.Sem6000MqttTopic.Type;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.eclipse.paho.client.mqttv3.MqttMessage;
 import org.magcode.sem6000.connector.receive.AvailabilityResponse;
 import org.magcode.sem6000.connector.receive.AvailabilityResponse.Availability;
 import org.magcode.sem6000.connector.receive.DataDayResponse;
 import org.magcode.sem6000.connector.receive.MeasurementResponse;
 import org.magcode.sem6000.connector.receive.SemResponse;
-import org.magcode.sem6000.connector.send.LedCommand;
-import org.magcode.sem6000.connector.send.MeasureCommand;
-import org.magcode.sem6000.connector.send.SwitchCommand;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -35,50 +48,187 @@ public class SemToMqttBridge {
   private final String rootTopic;
   private final BluetoothConnectionManager bluetoothConnectionManager;
   private final Scheduler scheduler;
-  private ZonedDateTime lastNotifiedAboutOnlineAvailabilityAt;
+  private final BluetoothConfig bluetoothConfig;
+  private final PublishFilterConfig publishFilterConfig;
+  private final OutputMode outputMode;
+  /* Devices that have been available at least once since the start. */
+  private final Set<String> connectedDevices = ConcurrentHashMap.newKeySet();
+  /* Handlers of mqtt setter messages by type by plug name, all setters share one subscription. */
+  private final Map<String, Map<Type, MessageCallback>> setterCallbacksByPlugName = new ConcurrentHashMap<>();
+  private final DeviceStateRegistry deviceStateRegistry = new DeviceStateRegistry();
+  /* Spreads the polls of all devices over their update interval. */
+  private final PollPlanner pollPlanner = new PollPlanner();
+  /* Shares the connection slots between the devices if there are more devices than slots, null otherwise. */
+  private final ConnectionRotation connectionRotation;
+  private final Map<String, Sem6000DeviceContext> deviceContextsByPlugName = new ConcurrentHashMap<>();
+  private long startedAtNanos;
+  private Duration timeToAllConnected;
 
   public SemToMqttBridge(String rootTopic, Set<Sem6000Config> sem6000Configs, MqttConnection mqttConnection,
       BluetoothConnectionManager bluetoothConnectionManager, Scheduler scheduler) {
+    this(rootTopic, sem6000Configs, mqttConnection, bluetoothConnectionManager, scheduler, BluetoothConfig.defaults());
+  }
+
+  public SemToMqttBridge(String rootTopic, Set<Sem6000Config> sem6000Configs, MqttConnection mqttConnection,
+      BluetoothConnectionManager bluetoothConnectionManager, Scheduler scheduler, BluetoothConfig bluetoothConfig) {
+    this(rootTopic, sem6000Configs, mqttConnection, bluetoothConnectionManager, scheduler, bluetoothConfig,
+        PublishFilterConfig.disabled(), MqttConfig.DEFAULT_OUTPUT_MODE);
+  }
+
+  public SemToMqttBridge(String rootTopic, Set<Sem6000Config> sem6000Configs, MqttConnection mqttConnection,
+      BluetoothConnectionManager bluetoothConnectionManager, Scheduler scheduler, BluetoothConfig bluetoothConfig,
+      PublishFilterConfig publishFilterConfig, OutputMode outputMode) {
 
     this.mqttConnection = mqttConnection;
     this.sem6000Configs = sem6000Configs;
     this.rootTopic = rootTopic;
     this.bluetoothConnectionManager = bluetoothConnectionManager;
     this.scheduler = scheduler;
+    this.bluetoothConfig = bluetoothConfig;
+    this.publishFilterConfig = publishFilterConfig;
+    this.outputMode = outputMode;
+    this.connectionRotation = bluetoothConfig.rotatesConnections(sem6000Configs.size()) ? new ConnectionRotation(
+        bluetoothConfig.getConnectionSlots()) : null;
+    sem6000Configs.forEach(sem6000Config -> deviceStateRegistry.register(sem6000Config.getName()));
   }
 
   public void run() {
     LOGGER.info("Starting bridge service.");
+    startedAtNanos = System.nanoTime();
     mqttConnection.establish();
     bluetoothConnectionManager.init();
-    sem6000Configs.forEach(sem6000Config -> {
-      Sem6000Connection sem6000Connection = bluetoothConnectionManager.setupConnection(
-          new Sem6000Connection(sem6000Config, bluetoothConnectionManager, scheduler));
-      sem6000Connection.establish();
-      sem6000Connection.subscribe(semResponse -> this.handleSem6000Response(semResponse, sem6000Config));
-      subscribeToSem6000MqttTopics(sem6000Config, sem6000Connection);
+    if (Objects.nonNull(connectionRotation)) {
+      connectionRotation.start();
+    }
+    establishConnections();
+    subscribeToSem6000MqttTopics();
+  }
+
+  /**
+   * Connects to the devices concurrently, but only to as many at the same time as configured. Returns when each device
+   * has been tried once. Devices that failed are reconnected by their connection.
+   */
+  private void establishConnections() {
+    int parallelism = Math.max(1, Math.min(bluetoothConfig.getConnectParallelism(), sem6000Configs.size()));
+    AtomicInteger threadCount = new AtomicInteger();
+    ExecutorService connectExecutor = Executors.newFixedThreadPool(parallelism, runnable -> {
+      Thread thread = new Thread(runnable, "sem6000-connect-" + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
     });
+    try {
+      CompletableFuture.allOf(sem6000Configs.stream()
+          .map(sem6000Config -> CompletableFuture.runAsync(() -> establishConnection(sem6000Config), connectExecutor))
+          .toArray(CompletableFuture[]::new)).join();
+    } finally {
+      connectExecutor.shutdown();
+    }
+    LOGGER.info("Tried to connect to {} devices with parallelism of {} in {} ms.", sem6000Configs.size(),
+        parallelism, Duration.ofNanos(System.nanoTime() - startedAtNanos).toMillis());
+  }
+
+  private void establishConnection(Sem6000Config sem6000Config) {
+    Sem6000Connection sem6000Connection = bluetoothConnectionManager.setupConnection(
+        new Sem6000Connection(sem6000Config, bluetoothConnectionManager, scheduler, pollPlanner, connectionRotation));
+    Sem6000DeviceContext deviceContext = new Sem6000DeviceContext(sem6000Config,
+        sem6000Config.getPublishFilter().orElse(publishFilterConfig));
+    deviceContextsByPlugName.put(sem6000Config.getName(), deviceContext);
+    // subscribe before establishing to notice the availability of the device
+    sem6000Connection.subscribe(semResponse -> this.handleSem6000Response(semResponse, deviceContext));
+    sem6000Connection.establish();
+    setterCallbacksByPlugName.put(sem6000Config.getName(),
+        createMessageCallbacksFor(sem6000Config, sem6000Connection));
   }
 
+  /**
+   * @return the latest known state of each device, updated while handling the responses of the devices
+   */
+  public DeviceStateRegistry getDeviceStateRegistry() {
+    return deviceStateRegistry;
+  }
+
+  /**
+   * @return the time from the start until each device has been available at least once, empty until then
+   */
+  public synchronized Optional<Duration> getTimeToAllConnected() {
+    return Optional.ofNullable(timeToAllConnected);
+  }
 
-  void subscribeToSem6000MqttTopics(Sem6000Config sem6000Config, Sem6000Connection sem6000Connection) {
-    mqttConnection.subscribe(Sem6000MqttTopic.createSetterSubscription(rootTopic, sem6000Config.getName()),
-        createMessageCallbackFor(sem6000Config, sem6000Connection));
+  /**
+   * Subscribes once to the setters of all devices after each device has been tried once, so retained messages reach
+   * the connections.
+   */
+  private void subscribeToSem6000MqttTopics() {
+    mqttConnection.subscribe(Sem6000MqttTopic.createSetterSubscription(rootTopic), this::routeMqttMessage);
+    DeviceStateRequestHandler deviceStateRequestHandler = new DeviceStateRequestHandler(rootTopic,
+        deviceStateRegistry, mqttConnection);
+    mqttConnection.subscribe(deviceStateRequestHandler.getRequestTopic(), deviceStateRequestHandler);
+  }
+
+  /**
+   * Splits the topic once and looks up the handler of its plug and type.
+   */
+  private void routeMqttMessage(String topic, MqttMessage message) {
+    Optional<Sem6000MqttTopic> setterTopic = Sem6000MqttTopic.parse(rootTopic, topic);
+    Map<Type, MessageCallback> setterCallbacks = setterTopic.map(Sem6000MqttTopic::getPlugName)
+        .map(setterCallbacksByPlugName::get).orElse(null);
+    if (Objects.isNull(setterCallbacks)) {
+      LOGGER.atDebug().log("Failed to process mqtt message '{}' to topic '{}' for unknown device.", message, topic);
+      return;
+    }
+    MessageCallback setterCallback = setterCallbacks.get(setterTopic.get().getType());
+    if (Objects.isNull(setterCallback)) {
+      LOGGER.warn("Failed to process mqtt message '{}' to topic '{}' for device '{}': unknown type", message, topic,
+          setterTopic.get().getPlugName());
+      return;
+    }
+    setterCallback.handleMqttMessage(topic, message);
   }
 
-  private MessageCallback createMessageCallbackFor(Sem6000Config sem6000Config, Sem6000Connection sem6000Connection) {
-    return (String topic, MqttMessage message) -> {
-      try {
-        handleMqttMessage(
-            new Sem6000MqttTopic(rootTopic, topic, sem6000Config.getName()), message, sem6000Config, sem6000Connection);
-      } catch (BridgeMessageHandlingException e) {
-        LOGGER.atDebug().log("Failed to process mqtt message '{}' to topic '{}' for device '{}': {}", topic,
-            message, sem6000Config.getName(), e.getMessage());
+  /**
+   * @return handlers of the setter messages by type, each forwarding to the device with its setter topic
+   */
+  private Map<Type, MessageCallback> createMessageCallbacksFor(Sem6000Config sem6000Config,
+      Sem6000Connection sem6000Connection) {
+    Map<Type, MessageCallback> callbacksByType = new EnumMap<>(Type.class);
+    for (Type type : Type.values()) {
+      if (type != Type.UNKNOWN) {
+        Sem6000MqttTopic setterTopic = Sem6000MqttTopic.setterOf(rootTopic, sem6000Config.getName(), type);
+        callbacksByType.put(type,
+            (topic, message) -> forwardMqttMessage(setterTopic, message, sem6000Config, sem6000Connection));
       }
-    };
+    }
+    return callbacksByType;
+  }
+
+  private void forwardMqttMessage(Sem6000MqttTopic topic, MqttMessage message, Sem6000Config sem6000Config,
+      Sem6000Connection sem6000Connection) {
+    try {
+      handleMqttMessage(topic, message, sem6000Config, sem6000Connection).whenComplete((ignored, e) -> {
+        if (Objects.nonNull(e)) {
+          logFailedMqttMessage(topic.toString(), message, sem6000Config,
+              e instanceof CompletionException ? e.getCause() : e);
+        }
+      });
+    } catch (BridgeMessageHandlingException e) {
+      logFailedMqttMessage(topic.toString(), message, sem6000Config, e);
+    }
+  }
+
+  private static void logFailedMqttMessage(String topic, MqttMessage message, Sem6000Config sem6000Config,
+      Throwable e) {
+    LOGGER.warn("Failed to process mqtt message '{}' to topic '{}' for device '{}': {}", message, topic,
+        sem6000Config.getName(), e.getMessage());
+    LOGGER.debug("Processing mqtt message errored with: ", e);
   }
 
-  void handleMqttMessage(Sem6000MqttTopic topic, MqttMessage message, Sem6000Config sem6000Config,
+  /**
+   * Forwards the message to the sem6000 device without waiting for the device.
+   *
+   * @return completes when the device answered, or exceptionally with a {@link BridgeMessageHandlingException}
+   * @throws BridgeMessageHandlingException if the topic is not valid
+   */
+  CompletableFuture<Void> handleMqttMessage(Sem6000MqttTopic topic, MqttMessage message, Sem6000Config sem6000Config,
       Sem6000Connection sem6000Connection) throws BridgeMessageHandlingException {
     LOGGER.atDebug()
         .log("Received mqtt message '{}' to topic {} for device {}", message, topic, sem6000Config.getName());
@@ -88,72 +238,149 @@ public class SemToMqttBridge {
 
     switch (topic.getType()) {
       case RELAY:
-        sendRelaySwitchCommandToSem6000(topic, message, sem6000Config, sem6000Connection);
-        break;
+        return sendRelaySwitchCommandToSem6000(topic, message, sem6000Config, sem6000Connection);
       case LED:
-        sendLedSwitchCommandToSem6000(topic, message, sem6000Config, sem6000Connection);
-        break;
+        return sendLedSwitchCommandToSem6000(topic, message, sem6000Config, sem6000Connection);
+      case MEASURE:
+        return requestMeasurementFromSem6000(topic, message, sem6000Config, sem6000Connection);
       default:
         LOGGER.warn("Ignoring mqtt message '{}' to topic '{}' for device '{}' and unknown type {}", message, topic,
             sem6000Config.getName(), topic.getType());
-        break;
+        return CompletableFuture.completedFuture(null);
     }
   }
 
-  private void sendLedSwitchCommandToSem6000(Sem6000MqttTopic topic, MqttMessage message, Sem6000Config sem6000Config,
-      Sem6000Connection sem6000Connection) throws BridgeMessageHandlingException {
+  private CompletableFuture<Void> sendLedSwitchCommandToSem6000(Sem6000MqttTopic topic, MqttMessage message,
+      Sem6000Config sem6000Config, Sem6000Connection sem6000Connection) {
     boolean ledOnOff = Boolean.parseBoolean(message.toString());
-    try {
-      sem6000Connection.safeSend(new LedCommand(ledOnOff));
-      LOGGER.info("Forwarded 'switch led {}' to {}", sem6000Config.getName(), ledOnOff ? "on" : "off");
-    } catch (SendingException e) {
-      throw new BridgeMessageHandlingException(message, topic, sem6000Config, e);
-    }
+    return failForwardOnError(sem6000Connection.switchLed(ledOnOff).thenAccept(
+            response -> LOGGER.info("Forwarded 'switch led {}' to {}", ledOnOff ? "on" : "off", sem6000Config.getName())),
+        topic, message, sem6000Config);
   }
 
-  private void sendRelaySwitchCommandToSem6000(Sem6000MqttTopic topic, MqttMessage message, Sem6000Config sem6000Config,
-      Sem6000Connection sem6000Connection) throws BridgeMessageHandlingException {
+  /**
+   * Requests a measurement and the energy of today that are published regardless of the publish filter. Concurrent
+   * requests share a single measurement and a single request of the energy of today.
+   */
+  private CompletableFuture<Void> requestMeasurementFromSem6000(Sem6000MqttTopic topic, MqttMessage message,
+      Sem6000Config sem6000Config, Sem6000Connection sem6000Connection) {
+    Optional.ofNullable(deviceContextsByPlugName.get(sem6000Config.getName()))
+        .ifPresent(Sem6000DeviceContext::forgetPublishedValues);
+    return failForwardOnError(
+        CompletableFuture.allOf(sem6000Connection.requestMeasurement(), sem6000Connection.requestDataDay())
+            .thenAccept(response -> LOGGER.info("Forwarded 'measure' to {}", sem6000Config.getName())),
+        topic, message, sem6000Config);
+  }
+
+  private CompletableFuture<Void> sendRelaySwitchCommandToSem6000(Sem6000MqttTopic topic, MqttMessage message,
+      Sem6000Config sem6000Config, Sem6000Connection sem6000Connection) {
     boolean plugOnOff = Boolean.parseBoolean(message.toString());
-    try {
-      sem6000Connection.safeSend(new SwitchCommand(plugOnOff));
+    return failForwardOnError(sem6000Connection.switchRelay(plugOnOff).thenCompose(response -> {
+      LOGGER.info("Forwarded 'switch relay {}' to {}", plugOnOff ? "on" : "off", sem6000Config.getName());
       // request measurement as switching probably influences the plugs consumption
-      sem6000Connection.safeSend(new MeasureCommand());
-      LOGGER.info("Forwarded 'switch relay {}' to {}", sem6000Config.getName(), plugOnOff ? "on" : "off");
-    } catch (SendingException e) {
-      throw new BridgeMessageHandlingException(message, topic, sem6000Config, e);
+      return sem6000Connection.measure();
+    }).thenApply(response -> null), topic, message, sem6000Config);
+  }
+
+  private static CompletableFuture<Void> failForwardOnError(CompletableFuture<Void> forward, Sem6000MqttTopic topic,
+      MqttMessage message, Sem6000Config sem6000Config) {
+    return forward.handle((ignored, e) -> {
+      if (Objects.nonNull(e)) {
+        throw new CompletionException(new BridgeMessageHandlingException(message, topic, sem6000Config,
+            e instanceof CompletionException ? e.getCause() : e));
+      }
+      return null;
+    });
+  }
+
+  /**
+   * Holds the context of the device only, so responses of other devices are handled in parallel.
+   */
+  private void handleSem6000Response(SemResponse response, Sem6000DeviceContext deviceContext) {
+    Sem6000Config sem6000Config = deviceContext.getSem6000Config();
+    synchronized (deviceContext) {
+      switch (response.getType()) {
+        case MEASURE:
+          MeasurementResponse mr = (MeasurementResponse) response;
+          LOGGER.info("Forwarding sem6000 measurement '{}' to mqtt for device '{}'", mr, sem6000Config.getName());
+          DeviceState deviceState = deviceStateRegistry.updateMeasurement(sem6000Config.getName(), mr, Instant.now());
+          // evaluates each filter, so each changed value is recorded as published
+          PublishFilterConfig publishFilter = deviceContext.getPublishFilterConfig();
+          boolean changed = publishIfChanged(deviceContext, "voltage", mr.getVoltage(), mr.getVoltage(),
+              publishFilter.getVoltage())
+              | publishIfChanged(deviceContext, "power", mr.getPower(), mr.getPower(), publishFilter.getPower())
+              | publishIfChanged(deviceContext, "relay", mr.isPowerOn(), mr.isPowerOn() ? 1 : 0, Deadband.NONE)
+              | energyTodayOf(deviceState).map(energyToday -> publishIfChanged(deviceContext, "energytoday",
+              energyToday, energyToday, Deadband.NONE)).orElse(false);
+          if (changed && outputMode.publishesJson()) {
+            mqttConnection.publishPayload(rootTopic + "/" + sem6000Config.getName() + "/json",
+                Sem6000StatePayloadWriter.write(deviceState));
+          }
+          break;
+        case DATADAY:
+          DataDayResponse dr = (DataDayResponse) response;
+          LOGGER.info("Forwarding daily data response '{}' to mqtt for device '{}'", dr, sem6000Config.getName());
+          deviceStateRegistry.updateEnergyToday(sem6000Config.getName(), dr.getToday(), Instant.now());
+          publishIfChanged(deviceContext, "energytoday", dr.getToday(), dr.getToday(), Deadband.NONE);
+          break;
+        case AVAILABILITY:
+          AvailabilityResponse ar = (AvailabilityResponse) response;
+          deviceStateRegistry.updateAvailability(sem6000Config.getName(), ar.getAvailability(), Instant.now());
+          if (ar.getAvailability() == Availability.AVAILABLE) {
+            recordConnected(sem6000Config);
+          } else {
+            deviceContext.forgetPublishedValues();
+          }
+          if (deviceContext.shouldNotifyAbout(ar.getAvailability())) {
+            LOGGER.info("Forwarding sem6000 availability '{}' to mqtt for device '{}'", ar, sem6000Config.getName());
+            String payload = ar.getAvailability() == Availability.AVAILABLE ? "online" : "lost";
+            mqttConnection.publish(rootTopic + "/" + sem6000Config.getName() + "/state", payload);
+          }
+          break;
+        default:
+          break;
+      }
     }
   }
 
-  private synchronized void handleSem6000Response(SemResponse response, Sem6000Config sem6000Config) {
-    switch (response.getType()) {
-      case MEASURE:
-        MeasurementResponse mr = (MeasurementResponse) response;
-        LOGGER.info("Forwarding sem6000 measurement '{}' to mqtt for device '{}'", mr, sem6000Config.getName());
-        mqttConnection.publish(rootTopic + "/" + sem6000Config.getName() + "/voltage", mr.getVoltage());
-        mqttConnection.publish(rootTopic + "/" + sem6000Config.getName() + "/power", mr.getPower());
-        mqttConnection.publish(rootTopic + "/" + sem6000Config.getName() + "/relay", mr.isPowerOn());
-        break;
-      case DATADAY:
-        DataDayResponse dr = (DataDayResponse) response;
-        LOGGER.info("Forwarding daily data response '{}' to mqtt for device '{}'", dr, sem6000Config.getName());
-        mqttConnection.publish(rootTopic + "/" + sem6000Config.getName() + "/energytoday", dr.getToday());
-        break;
-      case AVAILABILITY:
-        AvailabilityResponse ar = (AvailabilityResponse) response;
-        // avoid notifying about online state too often
-        if (ar.getAvailability() != Availability.AVAILABLE || Objects.isNull(lastNotifiedAboutOnlineAvailabilityAt)
-            || now().isAfter(
-            lastNotifiedAboutOnlineAvailabilityAt.plus(sem6000Config.getUpdateInterval().toSeconds(), SECONDS))) {
-          LOGGER.info("Forwarding sem6000 availability '{}' to mqtt for device '{}'", ar, sem6000Config.getName());
-          String payload = ar.getAvailability() == Availability.AVAILABLE ? "online" : "lost";
-          mqttConnection.publish(rootTopic + "/" + sem6000Config.getName() + "/state", payload);
-          // when notifying about online state, update last notification time
-          lastNotifiedAboutOnlineAvailabilityAt =
-              ar.getAvailability() == Availability.AVAILABLE ? now() : lastNotifiedAboutOnlineAvailabilityAt;
-        }
-        break;
-      default:
-        break;
+  /**
+   * The energy of today is requested less often than measurements and republished from memory in between, unless it
+   * has been reported on a past day.
+   */
+  private static Optional<Integer> energyTodayOf(DeviceState deviceState) {
+    LocalDate today = LocalDate.now();
+    return deviceState.getEnergyToday().filter(energyToday -> deviceState.getEnergyTodayAt()
+        .map(energyTodayAt -> energyTodayAt.atZone(ZoneId.systemDefault()).toLocalDate().equals(today))
+        .orElse(false));
+  }
+
+  /**
+   * Publishes the value to the topic of the metric if it changed and topics are an output.
+   *
+   * @return whether the value changed
+   */
+  private boolean publishIfChanged(Sem6000DeviceContext deviceContext, String metric, Object payload, double value,
+      Deadband deadband) {
+    if (!deviceContext.shouldPublish(metric, value, deadband)) {
+      return false;
+    }
+    if (outputMode.publishesTopics()) {
+      mqttConnection.publish(rootTopic + "/" + deviceContext.getSem6000Config().getName() + "/" + metric, payload);
+    }
+    return true;
+  }
+
+  private void recordConnected(Sem6000Config sem6000Config) {
+    if (connectedDevices.add(sem6000Config.getName()) && connectedDevices.size() == sem6000Configs.size()) {
+      recordAllConnected();
+    }
+  }
+
+  private synchronized void recordAllConnected() {
+    if (Objects.isNull(timeToAllConnected)) {
+      timeToAllConnected = Duration.ofNanos(System.nanoTime() - startedAtNanos);
+      LOGGER.info("All {} devices connected {} ms after start.", sem6000Configs.size(),
+          timeToAllConnected.toMillis());
     }
   }
 }
@@ -0,0 +1,124 @@
+package com.github.sem2mqtt.bluetooth;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Assigns each device to one of the bluetooth adapters that have seen it. A device stays on its adapter as long as the
+ * adapter is healthy and not saturated, otherwise it moves to the adapter with the fewest devices and the better signal
+ * decides between equally loaded adapters. An adapter is saturated when more devices are assigned to it than it should
+ * keep connected and failing after consecutive failed connects. A device whose connect failed tries another adapter
+ * next. A failing adapter is probed again after a cooldown, e.g. as the failures were caused by a plug out of reach,
+ * and is failing again right away if the probe fails as well.
+ */
+class AdapterBalancer {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(AdapterBalancer.class);
+  static final int FAILURES_UNTIL_FAILING = 3;
+  static final Duration FAILING_COOLDOWN = Duration.ofMinutes(10);
+  // devices whose signal has not been observed come last
+  private static final short UNKNOWN_RSSI = Short.MIN_VALUE;
+
+  private final int devicesPerAdapter;
+  private final Duration failingCooldown;
+  /* Adapter dbus path by mac address, consecutive failed connects by adapter, the end of the cooldown by failing or
+   * probed adapter and the adapter of the latest failed connect by mac address. Guarded by this. */
+  private final Map<String, String> adaptersByMac = new HashMap<>();
+  private final Map<String, Integer> failuresByAdapter = new HashMap<>();
+  private final Map<String, Long> cooldownEndNanosByAdapter = new HashMap<>();
+  private final Map<String, String> failedAdaptersByMac = new HashMap<>();
+
+  AdapterBalancer(int devicesPerAdapter) {
+    this(devicesPerAdapter, FAILING_COOLDOWN);
+  }
+
+  AdapterBalancer(int devicesPerAdapter, Duration failingCooldown) {
+    this.devicesPerAdapter = devicesPerAdapter;
+    this.failingCooldown = failingCooldown;
+  }
+
+  /**
+   * Assigns the device to an adapter.
+   *
+   * @param rssiByAdapter the last observed signal strength of the device by dbus path of the adapters that have seen
+   *                      it, null if not observed
+   * @return dbus path of the assigned adapter
+   */
+  synchronized String assign(String macAddress, Map<String, Short> rssiByAdapter) {
+    if (rssiByAdapter.isEmpty()) {
+      throw new NoSuchElementException("No adapter has seen device " + macAddress + ".");
+    }
+    String current = adaptersByMac.get(macAddress);
+    if (Objects.nonNull(current) && rssiByAdapter.containsKey(current) && !isFailing(current)
+        && !current.equals(failedAdaptersByMac.get(macAddress)) && countDevicesOn(current) <= devicesPerAdapter) {
+      return current;
+    }
+    Comparator<String> preference = Comparator.comparing(this::isFailing)
+        .thenComparing(adapter -> adapter.equals(failedAdaptersByMac.get(macAddress)))
+        .thenComparingLong(adapter -> countDevicesOn(adapter) - (adapter.equals(current) ? 1 : 0))
+        .thenComparing(adapter -> -Objects.requireNonNullElse(rssiByAdapter.get(adapter), UNKNOWN_RSSI));
+    String chosen = rssiByAdapter.keySet().stream().min(preference.thenComparing(Comparator.naturalOrder())).get();
+    if (Objects.isNull(current)) {
+      LOGGER.info("Assigned device {} to bluetooth adapter '{}'.", macAddress, chosen);
+    } else if (!chosen.equals(current)) {
+      LOGGER.info("Moving device {} from bluetooth adapter '{}' to '{}'.", macAddress, current, chosen);
+    }
+    adaptersByMac.put(macAddress, chosen);
+    return chosen;
+  }
+
+  synchronized void handleConnected(String macAddress) {
+    failedAdaptersByMac.remove(macAddress);
+    String adapter = adaptersByMac.get(macAddress);
+    if (Objects.isNull(adapter)) {
+      return;
+    }
+    Integer failures = failuresByAdapter.remove(adapter);
+    Long cooldownEndNanos = cooldownEndNanosByAdapter.remove(adapter);
+    if (Objects.nonNull(failures) || Objects.nonNull(cooldownEndNanos)) {
+      LOGGER.debug("Bluetooth adapter '{}' connects again.", adapter);
+    }
+  }
+
+  synchronized void handleConnectFailed(String macAddress) {
+    String adapter = adaptersByMac.get(macAddress);
+    if (Objects.isNull(adapter)) {
+      return;
+    }
+    failedAdaptersByMac.put(macAddress, adapter);
+    int failures = failuresByAdapter.merge(adapter, 1, Integer::sum);
+    // a probe after the cooldown fails on its own
+    if (failures == FAILURES_UNTIL_FAILING || (failures < FAILURES_UNTIL_FAILING && cooldownEndNanosByAdapter
+        .containsKey(adapter))) {
+      LOGGER.warn("Bluetooth adapter '{}' failed to connect {} times in a row, moving its devices to other adapters "
+          + "for {}.", adapter, failures, failingCooldown);
+      failuresByAdapter.remove(adapter);
+      cooldownEndNanosByAdapter.put(adapter, System.nanoTime() + failingCooldown.toNanos());
+    }
+  }
+
+  /**
+   * @return dbus path of the assigned adapter by mac address
+   */
+  synchronized Map<String, String> assignments() {
+    return new HashMap<>(adaptersByMac);
+  }
+
+  /**
+   * @return whether the adapter failed and is still cooling down, afterwards it is probed by the next connect
+   */
+  private boolean isFailing(String adapter) {
+    Long cooldownEndNanos = cooldownEndNanosByAdapter.get(adapter);
+    return Objects.nonNull(cooldownEndNanos) && cooldownEndNanos - System.nanoTime() > 0;
+  }
+
+  private long countDevicesOn(String adapter) {
+    return adaptersByMac.values().stream().filter(adapter::equals).count();
+  }
+}
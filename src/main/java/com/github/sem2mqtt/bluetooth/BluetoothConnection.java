@@ -13,4 +13,10 @@ public abstract class BluetoothConnection {
     this.connectionManager = bluetoothConnectionManager;
     this.scheduler = scheduler;
   }
+
+  /**
+   * Called when the device of this connection has been discovered, e.g. to connect without waiting for a reconnect.
+   */
+  public void handleDeviceAppeared() {
+  }
 }
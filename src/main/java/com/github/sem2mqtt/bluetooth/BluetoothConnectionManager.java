@@ -1,9 +1,20 @@
 package com.github.sem2mqtt.bluetooth;
 
+import com.coreoz.wisp.Scheduler;
 import com.github.hypfvieh.bluetooth.DeviceManager;
 import com.github.hypfvieh.bluetooth.wrapper.BluetoothDevice;
 import com.github.sem2mqtt.SemToMqttAppException;
 import com.github.sem2mqtt.bluetooth.DevicePropertiesChangedHandler.DbusListener;
+import com.github.sem2mqtt.configuration.BluetoothConfig;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import org.freedesktop.dbus.exceptions.DBusException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -11,32 +22,127 @@ import org.slf4j.LoggerFactory;
 public class BluetoothConnectionManager {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(BluetoothConnectionManager.class);
+  // each thread blocks while writing a command, the commands of a device are written one at a time
+  private static final int COMMAND_EXECUTOR_THREADS = 4;
   private final DeviceManager deviceManager;
   private final DevicePropertiesChangedHandler dbusPathHandler;
+  private final DeviceSignalDispatcher signalDispatcher;
+  private final BluetoothDeviceIndex deviceIndex;
+  private final BluetoothDiscovery discovery;
+  private final AdapterBalancer adapterBalancer;
+  private final Scheduler scheduler;
+  private final Map<String, BluetoothConnection> connectionsByMac = new ConcurrentHashMap<>();
+  private final ScheduledExecutorService commandExecutor = createCommandExecutor();
 
-  public BluetoothConnectionManager(DeviceManager deviceManager) {
+  private static ScheduledExecutorService createCommandExecutor() {
+    ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(COMMAND_EXECUTOR_THREADS, runnable -> {
+      Thread thread = new Thread(runnable, "bluetooth-command");
+      thread.setDaemon(true);
+      return thread;
+    });
+    // answered commands cancel their timeout, which would stay queued until it is due otherwise
+    executor.setRemoveOnCancelPolicy(true);
+    return executor;
+  }
+
+  public BluetoothConnectionManager(DeviceManager deviceManager, Scheduler scheduler) {
+    this(deviceManager, scheduler, BluetoothConfig.defaults());
+  }
+
+  public BluetoothConnectionManager(DeviceManager deviceManager, Scheduler scheduler, BluetoothConfig bluetoothConfig) {
+    this(deviceManager, scheduler, DeviceSignalDispatcher.withDaemonWorkers(bluetoothConfig),
+        new AdapterBalancer(bluetoothConfig.getDevicesPerAdapter()));
+  }
+
+  BluetoothConnectionManager(DeviceManager deviceManager, Scheduler scheduler, DeviceSignalDispatcher dispatcher) {
+    this(deviceManager, scheduler, dispatcher, new AdapterBalancer(BluetoothConfig.DEFAULT_DEVICES_PER_ADAPTER));
+  }
+
+  BluetoothConnectionManager(DeviceManager deviceManager, Scheduler scheduler, DeviceSignalDispatcher dispatcher,
+      AdapterBalancer adapterBalancer) {
     this.deviceManager = deviceManager;
-    this.dbusPathHandler = new DevicePropertiesChangedHandler();
+    this.adapterBalancer = adapterBalancer;
+    this.scheduler = scheduler;
+    this.signalDispatcher = dispatcher;
+    this.dbusPathHandler = new DevicePropertiesChangedHandler(dispatcher);
+    this.deviceIndex = new BluetoothDeviceIndex(deviceManager, BluetoothDeviceIndex.DEFAULT_REFRESH_INTERVAL);
+    this.discovery = new BluetoothDiscovery(deviceManager, deviceIndex);
+    this.deviceIndex.onWantedDeviceAppeared(this::handleWantedDeviceAppeared);
   }
 
   public void init() {
 
     try {
       deviceManager.registerPropertyHandler(dbusPathHandler);
+      deviceManager.registerSignalHandler(deviceIndex.interfacesAddedHandler());
+      deviceManager.registerSignalHandler(deviceIndex.interfacesRemovedHandler());
     } catch (DBusException e) {
       throw new SemToMqttAppException("Failed to initialize bluetooth device manager", e);
     }
-    deviceManager.scanForBluetoothDevices(10 * 1000);
+    // devices bluez already knows are available right away, missing ones are picked up by the discovery
+    deviceIndex.refresh();
+    discovery.start(scheduler, BluetoothDiscovery.DEFAULT_CHECK_INTERVAL);
   }
 
   public <T extends BluetoothConnection> T setupConnection(T bluetoothConnection) {
     LOGGER.debug("Registered bluetooth connection for mac address '{}'", bluetoothConnection.getMacAddress());
+    if (Objects.nonNull(bluetoothConnection.getMacAddress())) {
+      deviceIndex.want(bluetoothConnection.getMacAddress());
+      connectionsByMac.put(bluetoothConnection.getMacAddress().toUpperCase(Locale.ROOT), bluetoothConnection);
+    }
     return bluetoothConnection;
   }
 
+  /**
+   * Finds the device on the adapter it is assigned to. The device is assigned to another adapter if its adapter is
+   * saturated or failing, so it is connected with another adapter than before.
+   */
   public <T extends Exception> BluetoothDevice findDeviceOrFail(String macAddress, T e) throws T {
-    return deviceManager.getDevices().stream()
-        .filter(bluetoothDevice -> macAddress.equals(bluetoothDevice.getAddress())).findFirst().orElseThrow(() -> e);
+    Map<String, BluetoothDevice> devicesByAdapter = deviceIndex.find(macAddress);
+    if (devicesByAdapter.isEmpty()) {
+      discovery.check();
+      throw e;
+    }
+    String mac = macAddress.toUpperCase(Locale.ROOT);
+    return devicesByAdapter.get(adapterBalancer.assign(mac, lastObservedRssiOf(devicesByAdapter)));
+  }
+
+  private static Map<String, Short> lastObservedRssiOf(Map<String, BluetoothDevice> devicesByAdapter) {
+    Map<String, Short> rssiByAdapter = new HashMap<>();
+    for (Entry<String, BluetoothDevice> deviceOfAdapter : devicesByAdapter.entrySet()) {
+      // reading the signal strength is a dbus call, which is of no use with a single adapter
+      rssiByAdapter.put(deviceOfAdapter.getKey(),
+          devicesByAdapter.size() > 1 ? readRssi(deviceOfAdapter.getValue()) : null);
+    }
+    return rssiByAdapter;
+  }
+
+  private static Short readRssi(BluetoothDevice device) {
+    try {
+      return device.getRssi();
+    } catch (RuntimeException e) {
+      LOGGER.debug("Failed to read signal strength of device at '{}'.", device.getDbusPath(), e);
+      return null;
+    }
+  }
+
+  /**
+   * Keeps the device on its adapter, which is healthy again.
+   */
+  public void handleConnected(String macAddress) {
+    adapterBalancer.handleConnected(macAddress.toUpperCase(Locale.ROOT));
+  }
+
+  /**
+   * Makes the device try another adapter at its next connect and counts the failure against its adapter.
+   */
+  public void handleConnectFailed(String macAddress) {
+    adapterBalancer.handleConnectFailed(macAddress.toUpperCase(Locale.ROOT));
+  }
+
+  private void handleWantedDeviceAppeared(String macAddress) {
+    discovery.check();
+    Optional.ofNullable(connectionsByMac.get(macAddress)).ifPresent(BluetoothConnection::handleDeviceAppeared);
   }
 
   public void subscribeToDbusPath(String dbusPath, DbusListener listener) {
@@ -46,4 +152,32 @@ public class BluetoothConnectionManager {
   public void ignoreDbusPath(String dbusPath) {
     dbusPathHandler.ignore(dbusPath);
   }
+
+  /**
+   * @return executor of the command writes, timeouts and retries of all devices, which may block on dbus
+   */
+  public ScheduledExecutorService getCommandExecutor() {
+    return commandExecutor;
+  }
+
+  /**
+   * @return count of dbus signals waiting to be handled by device dbus path
+   */
+  public Map<String, Integer> getSignalQueueDepths() {
+    return signalDispatcher.queueDepths();
+  }
+
+  /**
+   * @return count of dbus signals dropped due to a full queue by device dbus path
+   */
+  public Map<String, Long> getDroppedSignals() {
+    return signalDispatcher.droppedSignals();
+  }
+
+  /**
+   * @return dbus path of the assigned bluetooth adapter by device mac address
+   */
+  public Map<String, String> getAdapterAssignments() {
+    return adapterBalancer.assignments();
+  }
 }
@@ -0,0 +1,226 @@
+package com.github.sem2mqtt.bluetooth;
+
+import com.github.hypfvieh.bluetooth.DeviceManager;
+import com.github.hypfvieh.bluetooth.wrapper.BluetoothAdapter;
+import com.github.hypfvieh.bluetooth.wrapper.BluetoothDevice;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import org.bluez.Device1;
+import org.freedesktop.dbus.DBusPath;
+import org.freedesktop.dbus.connections.impl.DBusConnection;
+import org.freedesktop.dbus.exceptions.DBusException;
+import org.freedesktop.dbus.handlers.AbstractInterfacesAddedHandler;
+import org.freedesktop.dbus.handlers.AbstractInterfacesRemovedHandler;
+import org.freedesktop.dbus.interfaces.ObjectManager.InterfacesAdded;
+import org.freedesktop.dbus.interfaces.ObjectManager.InterfacesRemoved;
+import org.freedesktop.dbus.types.Variant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bluetooth devices by mac address and adapter, as bluez creates a device object for each adapter that has seen the
+ * device. The index is kept up to date by the interfaces added and removed signals of bluez,
+ * so looking up a device does not enumerate the dbus objects. Added devices are only indexed if a connection asked for
+ * their mac address, because there may be hundreds of unrelated advertisers around.
+ * <p>
+ * If a device is missing, all devices are enumerated again, but not more often than the refresh interval.
+ */
+class BluetoothDeviceIndex {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(BluetoothDeviceIndex.class);
+  static final Duration DEFAULT_REFRESH_INTERVAL = Duration.ofSeconds(10);
+  static final String DEVICE_INTERFACE = "org.bluez.Device1";
+  private static final String BLUEZ_BUS_NAME = "org.bluez";
+  private static final String UNKNOWN_ADAPTER_PATH = "";
+
+  private final DeviceManager deviceManager;
+  private final Duration refreshInterval;
+  private final Map<String, Map<String, BluetoothDevice>> devicesByMac = new ConcurrentHashMap<>();
+  private final Map<String, String> macsByDbusPath = new ConcurrentHashMap<>();
+  private final Set<String> wantedMacs = ConcurrentHashMap.newKeySet();
+  private boolean refreshed;
+  private long lastRefreshNanos;
+  private volatile Consumer<String> wantedDeviceAppearedListener = mac -> {
+  };
+
+  BluetoothDeviceIndex(DeviceManager deviceManager, Duration refreshInterval) {
+    this.deviceManager = deviceManager;
+    this.refreshInterval = refreshInterval;
+  }
+
+  /**
+   * Makes the index pick up the device as soon as bluez announces it.
+   */
+  void want(String macAddress) {
+    wantedMacs.add(normalize(macAddress));
+  }
+
+  /**
+   * @return the device by dbus path of the adapters that have seen it, empty if no adapter has seen it
+   */
+  Map<String, BluetoothDevice> find(String macAddress) {
+    String mac = normalize(macAddress);
+    Map<String, BluetoothDevice> devices = devicesByMac.get(mac);
+    if (Objects.isNull(devices) && isRefreshDue()) {
+      refresh();
+      devices = devicesByMac.get(mac);
+    }
+    return Objects.isNull(devices) ? Map.of() : new HashMap<>(devices);
+  }
+
+  /**
+   * Replaces the index with all devices the adapters know, without scanning.
+   */
+  void refresh() {
+    // the device manager is not thread safe
+    synchronized (deviceManager) {
+      List<BluetoothAdapter> adapters = deviceManager.getAdapters();
+      replaceAll(adapters.stream().flatMap(adapter -> deviceManager.getDevices(adapter.getAddress(), true).stream())
+          .collect(Collectors.toList()));
+    }
+  }
+
+  synchronized void replaceAll(Collection<BluetoothDevice> devices) {
+    LOGGER.debug("Indexing {} bluetooth devices.", devices.size());
+    refreshed = true;
+    lastRefreshNanos = System.nanoTime();
+    devicesByMac.clear();
+    macsByDbusPath.clear();
+    devices.forEach(this::add);
+  }
+
+  int size() {
+    return devicesByMac.size();
+  }
+
+  /**
+   * @return the wanted mac addresses which are not indexed, without enumerating the devices
+   */
+  Set<String> missingWantedMacs() {
+    return wantedMacs.stream().filter(mac -> !devicesByMac.containsKey(mac)).collect(Collectors.toSet());
+  }
+
+  void onWantedDeviceAppeared(Consumer<String> listener) {
+    this.wantedDeviceAppearedListener = listener;
+  }
+
+  private synchronized boolean isRefreshDue() {
+    return !refreshed || System.nanoTime() - lastRefreshNanos >= refreshInterval.toNanos();
+  }
+
+  private void add(BluetoothDevice device) {
+    // reading the address is a dbus call, so it is only done when enumerating
+    add(device.getAddress(), device.getDbusPath(), device);
+  }
+
+  private void add(String address, String dbusPath, BluetoothDevice device) {
+    if (Objects.isNull(address)) {
+      return;
+    }
+    String mac = normalize(address);
+    devicesByMac.computeIfAbsent(mac, key -> new ConcurrentHashMap<>()).put(adapterPathOf(dbusPath), device);
+    if (Objects.nonNull(dbusPath)) {
+      macsByDbusPath.put(dbusPath, mac);
+    }
+  }
+
+  void handleInterfacesAdded(InterfacesAdded interfacesAdded) {
+    Map<String, Variant<?>> properties = interfacesAdded.getInterfaces().get(DEVICE_INTERFACE);
+    if (Objects.isNull(properties)) {
+      return;
+    }
+    Object address = Optional.ofNullable(properties.get("Address")).map(Variant::getValue).orElse(null);
+    if (!(address instanceof String) || !wantedMacs.contains(normalize((String) address))) {
+      return;
+    }
+    // the signal source is the added object, whereas the object path is the object manager
+    String dbusPath = interfacesAdded.getSignalSource().getPath();
+    LOGGER.debug("Wanted device {} appeared at '{}'.", address, dbusPath);
+    try {
+      add((String) address, dbusPath, createDevice(dbusPath, properties));
+    } catch (DBusException | RuntimeException e) {
+      LOGGER.debug("Failed to index device {}, enumerating devices at next lookup.", address, e);
+      markStale();
+    }
+    wantedDeviceAppearedListener.accept(normalize((String) address));
+  }
+
+  void handleInterfacesRemoved(InterfacesRemoved interfacesRemoved) {
+    if (!interfacesRemoved.getInterfaces().contains(DEVICE_INTERFACE)) {
+      return;
+    }
+    String dbusPath = interfacesRemoved.getSignalSource().getPath();
+    String mac = macsByDbusPath.remove(dbusPath);
+    if (Objects.nonNull(mac)) {
+      LOGGER.debug("Device {} disappeared from '{}'.", mac, dbusPath);
+      devicesByMac.computeIfPresent(mac, (key, devices) -> {
+        devices.remove(adapterPathOf(dbusPath));
+        return devices.isEmpty() ? null : devices;
+      });
+    }
+  }
+
+  private BluetoothDevice createDevice(String dbusPath, Map<String, Variant<?>> properties) throws DBusException {
+    DBusConnection dbusConnection = deviceManager.getDbusConnection();
+    Device1 rawDevice = dbusConnection.getRemoteObject(BLUEZ_BUS_NAME, dbusPath, Device1.class);
+    return new BluetoothDevice(rawDevice, findAdapter(properties), dbusPath, dbusConnection);
+  }
+
+  private BluetoothAdapter findAdapter(Map<String, Variant<?>> properties) {
+    Object adapterPath = Optional.ofNullable(properties.get("Adapter")).map(Variant::getValue).orElse(null);
+    if (!(adapterPath instanceof DBusPath)) {
+      throw new IllegalArgumentException("Device has no adapter.");
+    }
+    synchronized (deviceManager) {
+      return deviceManager.getAdapters().stream()
+          .filter(adapter -> ((DBusPath) adapterPath).getPath().equals(adapter.getDbusPath())).findFirst()
+          .orElseThrow(() -> new IllegalArgumentException("Adapter of device is unknown."));
+    }
+  }
+
+  private synchronized void markStale() {
+    refreshed = false;
+  }
+
+  /**
+   * The device object of bluez is a child of its adapter, e.g. '/org/bluez/hci1/dev_AA_BB_CC_DD_EE_01'.
+   */
+  private static String adapterPathOf(String deviceDbusPath) {
+    if (Objects.isNull(deviceDbusPath) || deviceDbusPath.lastIndexOf('/') < 1) {
+      return UNKNOWN_ADAPTER_PATH;
+    }
+    return deviceDbusPath.substring(0, deviceDbusPath.lastIndexOf('/'));
+  }
+
+  private static String normalize(String macAddress) {
+    return macAddress.toUpperCase(Locale.ROOT);
+  }
+
+  AbstractInterfacesAddedHandler interfacesAddedHandler() {
+    return new AbstractInterfacesAddedHandler() {
+      @Override
+      public void handle(InterfacesAdded interfacesAdded) {
+        handleInterfacesAdded(interfacesAdded);
+      }
+    };
+  }
+
+  AbstractInterfacesRemovedHandler interfacesRemovedHandler() {
+    return new AbstractInterfacesRemovedHandler() {
+      @Override
+      public void handle(InterfacesRemoved interfacesRemoved) {
+        handleInterfacesRemoved(interfacesRemoved);
+      }
+    };
+  }
+}
@@ -0,0 +1,63 @@
+package com.github.sem2mqtt.bluetooth;
+
+import com.coreoz.wisp.Scheduler;
+import com.coreoz.wisp.schedule.Schedules;
+import com.github.hypfvieh.bluetooth.DeviceManager;
+import com.github.hypfvieh.bluetooth.wrapper.BluetoothAdapter;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Discovers bluetooth devices in the background on all adapters as long as a wanted device is missing, so that each
+ * adapter in reach of a device may be assigned to it. Discovery stops as soon as all
+ * wanted devices are known to save radio time, and it is checked regularly whether a device went missing again.
+ */
+class BluetoothDiscovery {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(BluetoothDiscovery.class);
+  static final Duration DEFAULT_CHECK_INTERVAL = Duration.ofSeconds(30);
+
+  private final DeviceManager deviceManager;
+  private final BluetoothDeviceIndex deviceIndex;
+
+  BluetoothDiscovery(DeviceManager deviceManager, BluetoothDeviceIndex deviceIndex) {
+    this.deviceManager = deviceManager;
+    this.deviceIndex = deviceIndex;
+  }
+
+  void start(Scheduler scheduler, Duration checkInterval) {
+    check();
+    scheduler.schedule("bluetooth-discovery", this::check, Schedules.fixedDelaySchedule(checkInterval));
+  }
+
+  /**
+   * Starts discovery on each adapter if a wanted device is missing, stops it otherwise.
+   */
+  synchronized void check() {
+    List<BluetoothAdapter> adapters;
+    // the device manager is not thread safe
+    synchronized (deviceManager) {
+      adapters = deviceManager.getAdapters();
+    }
+    if (adapters.isEmpty()) {
+      LOGGER.warn("No bluetooth adapter available for discovery.");
+      return;
+    }
+    Set<String> missingMacs = deviceIndex.missingWantedMacs();
+    for (BluetoothAdapter adapter : adapters) {
+      boolean discovering = Boolean.TRUE.equals(adapter.isDiscovering());
+      if (!missingMacs.isEmpty() && !discovering) {
+        LOGGER.info("Discovering bluetooth devices with adapter '{}', because {} are missing.", adapter.getDbusPath(),
+            missingMacs);
+        adapter.startDiscovery();
+      } else if (missingMacs.isEmpty() && discovering) {
+        LOGGER.info("Stopping bluetooth discovery with adapter '{}', because all devices are present.",
+            adapter.getDbusPath());
+        adapter.stopDiscovery();
+      }
+    }
+  }
+}
@@ -15,8 +15,14 @@ import org.slf4j.LoggerFactory;
 public class DevicePropertiesChangedHandler extends AbstractPropertiesChangedHandler {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(DevicePropertiesChangedHandler.class);
+  private static final String CONNECTED_PROPERTY = "Connected";
 
   private final Map<String, Set<DbusListener>> dbusListenerMap = new ConcurrentHashMap<>();
+  private final DeviceSignalDispatcher dispatcher;
+
+  DevicePropertiesChangedHandler(DeviceSignalDispatcher dispatcher) {
+    this.dispatcher = dispatcher;
+  }
 
   void subscribe(String dbusPath, DbusListener listener) {
     LOGGER.debug("Subscribed listener for dbus path '{}'.", dbusPath);
@@ -28,6 +34,16 @@ public class DevicePropertiesChangedHandler extends AbstractPropertiesChangedHan
   public void handle(PropertiesChanged propertiesChanged) {
     Objects.requireNonNull(propertiesChanged);
     LOGGER.debug("Received properties changed ({}) for path '{}'.", propertiesChanged, propertiesChanged.getPath());
+    // listeners are looked up when handling, so a signal queued before ignoring the path is not forwarded
+    if (propertiesChanged.getPropertiesChanged().containsKey(CONNECTED_PROPERTY)) {
+      // a lost connection must not be dropped from a full queue, as it would never be reconnected
+      dispatcher.dispatchUnbounded(propertiesChanged.getPath(), () -> forward(propertiesChanged));
+    } else {
+      dispatcher.dispatch(propertiesChanged.getPath(), () -> forward(propertiesChanged));
+    }
+  }
+
+  private void forward(PropertiesChanged propertiesChanged) {
     dbusListenerMap.getOrDefault(propertiesChanged.getPath(), emptySet())
         .forEach(dbusListener -> dbusListener.handle(propertiesChanged));
   }
@@ -0,0 +1,175 @@
+package com.github.sem2mqtt.bluetooth;
+
+import com.github.sem2mqtt.configuration.BluetoothConfig;
+import com.github.sem2mqtt.configuration.BluetoothConfig.SignalOverflowPolicy;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Hands dbus signals over to worker threads, so a slow listener of one device does not stall the signals of the
+ * others. Each device has a bounded queue which is drained by at most one worker at a time, which keeps the signals of a
+ * device in order. Signals of a device's gatt characteristics are queued together with the ones of the device itself.
+ * Signals that must not get lost, like the loss of the connection, bypass the bounded queue and are handled before the
+ * signals queued there.
+ */
+class DeviceSignalDispatcher {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(DeviceSignalDispatcher.class);
+  private static final String DEVICE_PATH_SEGMENT = "/dev_";
+
+  private final Executor executor;
+  private final int capacity;
+  private final SignalOverflowPolicy overflowPolicy;
+  private final Map<String, DeviceQueue> queuesByDevice = new ConcurrentHashMap<>();
+
+  DeviceSignalDispatcher(Executor executor, int capacity, SignalOverflowPolicy overflowPolicy) {
+    this.executor = executor;
+    this.capacity = capacity;
+    this.overflowPolicy = overflowPolicy;
+  }
+
+  static DeviceSignalDispatcher withDaemonWorkers(BluetoothConfig bluetoothConfig) {
+    AtomicInteger threadCount = new AtomicInteger();
+    // at most one worker per device is busy, devices beyond the count of workers wait for a free one
+    Executor executor = Executors.newFixedThreadPool(bluetoothConfig.getSignalWorkers(), runnable -> {
+      Thread thread = new Thread(runnable, "dbus-signal-" + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+    return new DeviceSignalDispatcher(executor, bluetoothConfig.getSignalQueueCapacity(),
+        bluetoothConfig.getSignalOverflowPolicy());
+  }
+
+  void dispatch(String dbusPath, Runnable signalHandling) {
+    queuesByDevice.computeIfAbsent(deviceOf(dbusPath), DeviceQueue::new).add(signalHandling);
+  }
+
+  /**
+   * Dispatches a signal which is never dropped nor blocks, regardless of the overflow policy.
+   */
+  void dispatchUnbounded(String dbusPath, Runnable signalHandling) {
+    queuesByDevice.computeIfAbsent(deviceOf(dbusPath), DeviceQueue::new).addUnbounded(signalHandling);
+  }
+
+  /**
+   * @return count of queued signals by device dbus path
+   */
+  Map<String, Integer> queueDepths() {
+    return queuesByDevice.entrySet().stream()
+        .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().size()));
+  }
+
+  /**
+   * @return count of signals dropped due to a full queue by device dbus path
+   */
+  Map<String, Long> droppedSignals() {
+    return queuesByDevice.entrySet().stream()
+        .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().dropped.get()));
+  }
+
+  /**
+   * Cuts a dbus path like '/org/bluez/hci0/dev_00_11_22_33_44_55/service000c/char000d' down to the device.
+   */
+  static String deviceOf(String dbusPath) {
+    int deviceStart = dbusPath.indexOf(DEVICE_PATH_SEGMENT);
+    if (deviceStart < 0) {
+      return dbusPath;
+    }
+    int deviceEnd = dbusPath.indexOf('/', deviceStart + DEVICE_PATH_SEGMENT.length());
+    return deviceEnd < 0 ? dbusPath : dbusPath.substring(0, deviceEnd);
+  }
+
+  private class DeviceQueue {
+
+    private final String device;
+    private final BlockingQueue<Runnable> signals = new ArrayBlockingQueue<>(capacity);
+    private final Queue<Runnable> unboundedSignals = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicLong dropped = new AtomicLong();
+
+    DeviceQueue(String device) {
+      this.device = device;
+    }
+
+    void add(Runnable signal) {
+      switch (overflowPolicy) {
+        case BLOCK:
+          try {
+            signals.put(signal);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            drop();
+          }
+          break;
+        case DROP_NEWEST:
+          if (!signals.offer(signal)) {
+            drop();
+          }
+          break;
+        case DROP_OLDEST:
+        default:
+          while (!signals.offer(signal)) {
+            if (signals.poll() != null) {
+              drop();
+            }
+          }
+      }
+      scheduleDrain();
+    }
+
+    void addUnbounded(Runnable signal) {
+      unboundedSignals.add(signal);
+      scheduleDrain();
+    }
+
+    int size() {
+      return signals.size() + unboundedSignals.size();
+    }
+
+    private void drop() {
+      long droppedCount = dropped.incrementAndGet();
+      if (droppedCount == 1 || droppedCount % 100 == 0) {
+        LOGGER.warn("Signal queue of device '{}' is full, dropped {} signals so far.", device, droppedCount);
+      }
+    }
+
+    private void scheduleDrain() {
+      if (draining.compareAndSet(false, true)) {
+        executor.execute(this::drain);
+      }
+    }
+
+    private void drain() {
+      Runnable signal;
+      while ((signal = poll()) != null) {
+        try {
+          signal.run();
+        } catch (RuntimeException e) {
+          LOGGER.warn("Failed to handle signal of device '{}'.", device, e);
+        }
+      }
+      draining.set(false);
+      // a signal may have been added after polling the last one but before resetting the flag
+      if (size() > 0) {
+        scheduleDrain();
+      }
+    }
+
+    private Runnable poll() {
+      Runnable signal = unboundedSignals.poll();
+      return signal != null ? signal : signals.poll();
+    }
+  }
+}
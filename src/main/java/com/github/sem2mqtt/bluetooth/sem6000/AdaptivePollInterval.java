@@ -0,0 +1,59 @@
+package com.github.sem2mqtt.bluetooth.sem6000;
+
+import com.github.sem2mqtt.configuration.AdaptivePollingConfig;
+import com.github.sem2mqtt.configuration.PublishFilterConfig.Deadband;
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Interval between the polls of a device that follows the dynamics of its power. The interval drops to the minimum
+ * while the power changes or after the relay has been switched and doubles with each stable measurement up to the
+ * maximum.
+ */
+class AdaptivePollInterval {
+
+  private final Duration minInterval;
+  private final Duration maxInterval;
+  private final Deadband powerChange;
+  /* Current interval and the power of the latest measurement. Guarded by this. */
+  private Duration interval;
+  private Float lastPower;
+
+  AdaptivePollInterval(AdaptivePollingConfig config, Duration updateInterval) {
+    this.minInterval = config.getMinInterval();
+    Duration configuredMaxInterval = config.getMaxInterval().orElse(updateInterval);
+    this.maxInterval = configuredMaxInterval.compareTo(minInterval) < 0 ? minInterval : configuredMaxInterval;
+    this.powerChange = config.getPowerChange();
+    this.interval = minInterval;
+  }
+
+  synchronized Duration get() {
+    return interval;
+  }
+
+  /**
+   * Adapts the interval to the measured power.
+   *
+   * @return whether the interval dropped, so the next poll should be rescheduled
+   */
+  synchronized boolean handleMeasuredPower(float power) {
+    boolean changing = Objects.nonNull(lastPower) && powerChange.isExceededBy(lastPower, power);
+    lastPower = power;
+    if (changing) {
+      return reset();
+    }
+    interval = interval.multipliedBy(2).compareTo(maxInterval) < 0 ? interval.multipliedBy(2) : maxInterval;
+    return false;
+  }
+
+  /**
+   * Drops the interval to the minimum, e.g. after switching the relay.
+   *
+   * @return whether the interval dropped, so the next poll should be rescheduled
+   */
+  synchronized boolean reset() {
+    boolean dropped = interval.compareTo(minInterval) > 0;
+    interval = minInterval;
+    return dropped;
+  }
+}
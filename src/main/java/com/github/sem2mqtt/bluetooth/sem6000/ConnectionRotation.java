@@ -0,0 +1,127 @@
+package com.github.sem2mqtt.bluetooth.sem6000;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Shares a bounded count of connection slots between more devices than the bluetooth adapter can keep connected. Each
+ * slot visits one device after another: it connects, polls and disconnects again. The device whose poll is due the
+ * longest is visited first, devices with commands waiting for a visit are visited before any poll.
+ */
+public class ConnectionRotation {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ConnectionRotation.class);
+  private static final Comparator<Visit> VISIT_ORDER = Comparator.comparing((Visit visit) -> !visit.prioritized)
+      .thenComparingLong(visit -> visit.dueAtNanos);
+
+  private final int slots;
+  /* Visits of all devices of the rotation and whether the slots visit them. Guarded by this. */
+  private final List<Visit> visits = new ArrayList<>();
+  private boolean started;
+
+  public ConnectionRotation(int slots) {
+    this.slots = slots;
+  }
+
+  /**
+   * Starts a thread per slot that visits the devices, devices added before are visited right away.
+   */
+  public synchronized void start() {
+    if (started) {
+      return;
+    }
+    started = true;
+    for (int slot = 1; slot <= slots; slot++) {
+      Thread thread = new Thread(this::visitDevices, "sem6000-rotation-" + slot);
+      thread.setDaemon(true);
+      thread.start();
+    }
+  }
+
+  public int getSlots() {
+    return slots;
+  }
+
+  /**
+   * Adds the device to the rotation, it is due for its first visit right away.
+   */
+  synchronized void add(Sem6000Connection connection, Duration updateInterval) {
+    visits.add(new Visit(connection, updateInterval, System.nanoTime()));
+    notifyAll();
+  }
+
+  /**
+   * Visits the device with the next free slot, e.g. because a command is waiting for the visit.
+   */
+  synchronized void prioritize(Sem6000Connection connection) {
+    visits.stream().filter(visit -> visit.connection == connection).findFirst().ifPresent(visit -> {
+      visit.prioritized = true;
+      notifyAll();
+    });
+  }
+
+  private void visitDevices() {
+    try {
+      while (!Thread.currentThread().isInterrupted()) {
+        Visit visit = takeNextVisit();
+        try {
+          visit.connection.visit();
+        } catch (RuntimeException e) {
+          LOGGER.warn("Visit of device {} failed unexpectedly.", visit.connection.getMacAddress(), e);
+        } finally {
+          returnVisit(visit);
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private synchronized Visit takeNextVisit() throws InterruptedException {
+    while (true) {
+      Visit next = visits.stream().filter(visit -> !visit.active).min(VISIT_ORDER).orElse(null);
+      long waitNanos = Objects.isNull(next) || next.prioritized ? 0 : next.dueAtNanos - System.nanoTime();
+      if (Objects.nonNull(next) && waitNanos <= 0) {
+        next.active = true;
+        next.prioritized = false;
+        return next;
+      }
+      if (Objects.isNull(next)) {
+        wait();
+      } else {
+        TimeUnit.NANOSECONDS.timedWait(this, waitNanos);
+      }
+    }
+  }
+
+  /**
+   * Makes the device due again after its update interval, whether the visit succeeded or not. A device that has been
+   * prioritized during the visit is visited again with the next free slot.
+   */
+  private synchronized void returnVisit(Visit visit) {
+    visit.active = false;
+    visit.dueAtNanos = System.nanoTime() + visit.updateInterval.toNanos();
+    notifyAll();
+  }
+
+  private static class Visit {
+
+    private final Sem6000Connection connection;
+    private final Duration updateInterval;
+    private long dueAtNanos;
+    private boolean prioritized;
+    private boolean active;
+
+    private Visit(Sem6000Connection connection, Duration updateInterval, long dueAtNanos) {
+      this.connection = connection;
+      this.updateInterval = updateInterval;
+      this.dueAtNanos = dueAtNanos;
+    }
+  }
+}
@@ -0,0 +1,44 @@
+package com.github.sem2mqtt.bluetooth.sem6000;
+
+import com.coreoz.wisp.schedule.Schedule;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+/**
+ * Schedules the requests of the energy of today. The energy is requested shortly after connecting and after each
+ * boundary of the interval counted from local midnight, e.g. half a minute after each full hour, because the device
+ * stores the energy in hourly buckets. A request shortly after midnight is always made, so the energy of the new day
+ * replaces the one of the previous day.
+ */
+class EnergyPollSchedule implements Schedule {
+
+  // gives the device time to close its bucket of the past hour
+  static final Duration MAX_DELAY_AFTER_BOUNDARY = Duration.ofSeconds(30);
+
+  private final long intervalMillis;
+  private final long delayMillis;
+  private final ZoneId zoneId;
+
+  EnergyPollSchedule(Duration interval, ZoneId zoneId) {
+    this.intervalMillis = Math.max(1, interval.toMillis());
+    this.delayMillis = Math.min(MAX_DELAY_AFTER_BOUNDARY.toMillis(), intervalMillis / 10);
+    this.zoneId = zoneId;
+  }
+
+  @Override
+  public long nextExecutionInMillis(long currentTimeInMillis, int executionsCount,
+      Long lastExecutionEndedTimeInMillis) {
+    if (executionsCount == 0) {
+      // lets the device answer the first measurement after connecting
+      return currentTimeInMillis + delayMillis;
+    }
+    LocalDate today = Instant.ofEpochMilli(currentTimeInMillis).atZone(zoneId).toLocalDate();
+    long startOfToday = today.atStartOfDay(zoneId).toInstant().toEpochMilli();
+    long startOfTomorrow = today.plusDays(1).atStartOfDay(zoneId).toInstant().toEpochMilli();
+    long nextBoundary = startOfToday
+        + (Math.floorDiv(currentTimeInMillis - startOfToday - delayMillis, intervalMillis) + 1) * intervalMillis;
+    return Math.min(nextBoundary, startOfTomorrow) + delayMillis;
+  }
+}
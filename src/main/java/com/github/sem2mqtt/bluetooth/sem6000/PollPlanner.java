@@ -0,0 +1,97 @@
+package com.github.sem2mqtt.bluetooth.sem6000;
+
+import com.coreoz.wisp.schedule.Schedule;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Plans the polls of the devices of the bridge, so they are spread over the update interval instead of hitting the
+ * bluetooth adapter in bursts. Each device is polled on a grid of its update interval, shifted by a phase. The phases
+ * spread the devices evenly and are rebalanced whenever a device joins or leaves. A small random jitter keeps devices
+ * from lining up with other periodic traffic.
+ */
+public class PollPlanner {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(PollPlanner.class);
+  public static final Duration DEFAULT_MAX_JITTER = Duration.ofMillis(500);
+
+  private final Duration maxJitter;
+  /* Update intervals of the polled devices by name, ordered by name to keep the phases stable. Guarded by this. */
+  private final Map<String, Duration> intervalsByDevice = new TreeMap<>();
+  /* Offset of the polls of each device within its update interval. Guarded by this. */
+  private final Map<String, Duration> offsetsByDevice = new LinkedHashMap<>();
+
+  public PollPlanner() {
+    this(DEFAULT_MAX_JITTER);
+  }
+
+  public PollPlanner(Duration maxJitter) {
+    this.maxJitter = maxJitter;
+  }
+
+  /**
+   * Adds the device to the plan and rebalances the slots of all devices.
+   *
+   * @return the schedule of the polls of the device
+   */
+  public synchronized Schedule join(String deviceName, Duration updateInterval) {
+    intervalsByDevice.put(deviceName, updateInterval);
+    rebalance();
+    return (currentTimeInMillis, executionsCount, lastExecutionEndedTimeInMillis) -> nextPollAt(deviceName,
+        currentTimeInMillis, lastExecutionEndedTimeInMillis);
+  }
+
+  /**
+   * Removes the device from the plan and rebalances the slots of the other devices.
+   */
+  public synchronized void leave(String deviceName) {
+    if (Objects.nonNull(intervalsByDevice.remove(deviceName))) {
+      rebalance();
+    }
+  }
+
+  private void rebalance() {
+    offsetsByDevice.clear();
+    List<String> deviceNames = new ArrayList<>(intervalsByDevice.keySet());
+    for (int slot = 0; slot < deviceNames.size(); slot++) {
+      String deviceName = deviceNames.get(slot);
+      offsetsByDevice.put(deviceName,
+          intervalsByDevice.get(deviceName).multipliedBy(slot).dividedBy(deviceNames.size()));
+    }
+    LOGGER.debug("Rebalanced poll slots of {} devices: {}", offsetsByDevice.size(), offsetsByDevice);
+  }
+
+  /**
+   * @return the offset of the polls of each device within its update interval, by device name
+   */
+  public synchronized Map<String, Duration> getSlots() {
+    return Collections.unmodifiableMap(new LinkedHashMap<>(offsetsByDevice));
+  }
+
+  synchronized long nextPollAt(String deviceName, long currentTimeInMillis, Long lastPollEndedAtMillis) {
+    Duration updateInterval = intervalsByDevice.get(deviceName);
+    if (Objects.isNull(updateInterval)) {
+      return Schedule.WILL_NOT_BE_EXECUTED_AGAIN;
+    }
+    long intervalMillis = Math.max(1, updateInterval.toMillis());
+    long offsetMillis = offsetsByDevice.get(deviceName).toMillis();
+    long nextPollAt = offsetMillis + (Math.floorDiv(currentTimeInMillis - offsetMillis, intervalMillis) + 1)
+        * intervalMillis;
+    // neither a new device nor a rebalanced slot polls shortly after connecting or the last poll
+    long previousPollAt = Objects.isNull(lastPollEndedAtMillis) ? currentTimeInMillis : lastPollEndedAtMillis;
+    if (nextPollAt - previousPollAt < intervalMillis / 2) {
+      nextPollAt += intervalMillis;
+    }
+    long jitterBoundMillis = Math.min(maxJitter.toMillis(), intervalMillis / intervalsByDevice.size() / 10);
+    return jitterBoundMillis > 0 ? nextPollAt + ThreadLocalRandom.current().nextLong(jitterBoundMillis) : nextPollAt;
+  }
+}
@@ -0,0 +1,197 @@
+package com.github.sem2mqtt.bluetooth.sem6000;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import org.magcode.sem6000.connector.receive.SemResponse;
+import org.magcode.sem6000.connector.send.Command;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Outbound commands of a single sem6000 device. Only one command is in flight at a time and the next one is written
+ * as soon as the response to the previous one arrived. Responses are correlated with the command in flight by their
+ * type. A command without response in time is written again and fails after the configured count of retries.
+ * <p>
+ * Commands are never written while holding the lock of the queue, so responses may arrive on any thread, even while
+ * the command is still being written. All writes and timeouts run on the given executor, as writing blocks on dbus.
+ * This keeps neither the thread submitting a command nor the one handling a response waiting for dbus.
+ */
+class Sem6000CommandQueue {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(Sem6000CommandQueue.class);
+  static final Duration DEFAULT_RESPONSE_TIMEOUT = Duration.ofSeconds(2);
+  static final int DEFAULT_MAX_RETRIES = 2;
+
+  private final String deviceName;
+  private final CommandWriter writer;
+  private final ScheduledExecutorService commandExecutor;
+  private final Deque<PendingCommand> queue = new ArrayDeque<>();
+  private PendingCommand inFlight;
+  private Duration responseTimeout = DEFAULT_RESPONSE_TIMEOUT;
+  private int maxRetries = DEFAULT_MAX_RETRIES;
+
+  Sem6000CommandQueue(String deviceName, CommandWriter writer, ScheduledExecutorService commandExecutor) {
+    this.deviceName = deviceName;
+    this.writer = writer;
+    this.commandExecutor = commandExecutor;
+  }
+
+  /**
+   * Queues the command and returns without writing it. The returned future completes with the correlated response or
+   * exceptionally with a {@link SendingException} if the command could not be written or was not answered.
+   */
+  CompletableFuture<SemResponse> submit(Command command) {
+    PendingCommand pendingCommand = new PendingCommand(command);
+    synchronized (this) {
+      queue.add(pendingCommand);
+    }
+    commandExecutor.execute(this::writeNext);
+    return pendingCommand.future;
+  }
+
+  /**
+   * @return whether the response answered the command in flight
+   */
+  boolean handleResponse(SemResponse response) {
+    PendingCommand answered;
+    synchronized (this) {
+      if (Objects.isNull(inFlight) || inFlight.command.getResponseType() != response.getType()) {
+        return false;
+      }
+      answered = inFlight;
+      inFlight = null;
+    }
+    answered.cancelTimeout();
+    answered.future.complete(response);
+    commandExecutor.execute(this::writeNext);
+    return true;
+  }
+
+  /**
+   * Fails the command in flight and all queued commands, e.g. because the connection is lost.
+   */
+  void failAll(String reason) {
+    List<PendingCommand> failed;
+    synchronized (this) {
+      failed = new ArrayList<>(queue);
+      if (Objects.nonNull(inFlight)) {
+        failed.add(0, inFlight);
+        inFlight = null;
+      }
+      queue.clear();
+    }
+    failed.forEach(pendingCommand -> {
+      pendingCommand.cancelTimeout();
+      pendingCommand.future.completeExceptionally(new SendingException(
+          String.format("Command '%s' to %s was dismissed: %s", pendingCommand.command, deviceName, reason)));
+    });
+  }
+
+  synchronized int size() {
+    return queue.size() + (Objects.isNull(inFlight) ? 0 : 1);
+  }
+
+  void setResponseTimeout(Duration responseTimeout) {
+    this.responseTimeout = responseTimeout;
+  }
+
+  void setMaxRetries(int maxRetries) {
+    this.maxRetries = maxRetries;
+  }
+
+  private void writeNext() {
+    PendingCommand next;
+    synchronized (this) {
+      if (Objects.nonNull(inFlight) || queue.isEmpty()) {
+        return;
+      }
+      next = queue.poll();
+      inFlight = next;
+    }
+    write(next, 0);
+  }
+
+  private void write(PendingCommand pendingCommand, int attempt) {
+    pendingCommand.setTimeout(commandExecutor.schedule(() -> handleTimeout(pendingCommand, attempt),
+        responseTimeout.toMillis(), TimeUnit.MILLISECONDS));
+    try {
+      writer.write(pendingCommand.command);
+    } catch (SendingException e) {
+      if (release(pendingCommand)) {
+        pendingCommand.cancelTimeout();
+        pendingCommand.future.completeExceptionally(e);
+        writeNext();
+      }
+    }
+  }
+
+  private void handleTimeout(PendingCommand pendingCommand, int attempt) {
+    boolean retry;
+    synchronized (this) {
+      if (inFlight != pendingCommand || pendingCommand.attempt != attempt) {
+        // answered or already retried
+        return;
+      }
+      retry = attempt < maxRetries;
+      if (retry) {
+        pendingCommand.attempt = attempt + 1;
+      } else {
+        inFlight = null;
+      }
+    }
+    if (retry) {
+      LOGGER.debug("No response of {} to '{}' in time, retrying (attempt {}).", deviceName, pendingCommand.command,
+          attempt + 1);
+      write(pendingCommand, attempt + 1);
+    } else {
+      pendingCommand.future.completeExceptionally(new SendingException(
+          String.format("No response of %s to command '%s' after %d attempts.", deviceName, pendingCommand.command,
+              attempt + 1)));
+      writeNext();
+    }
+  }
+
+  private synchronized boolean release(PendingCommand pendingCommand) {
+    if (inFlight != pendingCommand) {
+      return false;
+    }
+    inFlight = null;
+    return true;
+  }
+
+  private static class PendingCommand {
+
+    private final Command command;
+    private final CompletableFuture<SemResponse> future = new CompletableFuture<>();
+    private int attempt;
+    /* Timeout of the latest attempt, cancelled once the command is no longer in flight. Guarded by this. */
+    private ScheduledFuture<?> timeout;
+
+    private PendingCommand(Command command) {
+      this.command = command;
+    }
+
+    private synchronized void setTimeout(ScheduledFuture<?> timeout) {
+      this.timeout = timeout;
+    }
+
+    private synchronized void cancelTimeout() {
+      if (Objects.nonNull(timeout)) {
+        timeout.cancel(false);
+      }
+    }
+  }
+
+  interface CommandWriter {
+
+    void write(Command command) throws SendingException;
+  }
+}
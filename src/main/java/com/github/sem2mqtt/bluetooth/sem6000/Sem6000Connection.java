@@ -4,32 +4,49 @@ import static com.coreoz.wisp.schedule.Schedules.executeOnce;
 import static com.coreoz.wisp.schedule.Schedules.fixedDelaySchedule;
 import static java.util.Collections.emptyMap;
 
+import com.coreoz.wisp.JobStatus;
 import com.coreoz.wisp.Scheduler;
-import com.coreoz.wisp.schedule.Schedules;
 import com.github.hypfvieh.bluetooth.wrapper.BluetoothDevice;
 import com.github.hypfvieh.bluetooth.wrapper.BluetoothGattCharacteristic;
 import com.github.hypfvieh.bluetooth.wrapper.BluetoothGattService;
 import com.github.sem2mqtt.bluetooth.BluetoothConnection;
 import com.github.sem2mqtt.bluetooth.BluetoothConnectionManager;
+import com.github.sem2mqtt.bluetooth.DevicePropertiesChangedHandler.DbusListener;
 import com.github.sem2mqtt.bluetooth.sem6000.Sem6000DbusHandlerProxy.Sem6000ResponseHandler;
 import com.github.sem2mqtt.configuration.Sem6000Config;
 import java.time.Duration;
+import java.time.ZoneId;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutionException;
 import org.bluez.exceptions.BluezFailedException;
 import org.bluez.exceptions.BluezInProgressException;
 import org.bluez.exceptions.BluezInvalidValueLengthException;
 import org.bluez.exceptions.BluezNotAuthorizedException;
 import org.bluez.exceptions.BluezNotPermittedException;
 import org.bluez.exceptions.BluezNotSupportedException;
+import org.freedesktop.dbus.interfaces.Properties.PropertiesChanged;
+import org.freedesktop.dbus.types.Variant;
 import org.magcode.sem6000.connector.receive.AvailabilityResponse;
 import org.magcode.sem6000.connector.receive.AvailabilityResponse.Availability;
+import org.magcode.sem6000.connector.receive.DataDayResponse;
+import org.magcode.sem6000.connector.receive.LedResponse;
+import org.magcode.sem6000.connector.receive.LoginResponse;
+import org.magcode.sem6000.connector.receive.MeasurementResponse;
+import org.magcode.sem6000.connector.receive.ResponseType;
 import org.magcode.sem6000.connector.receive.SemResponse;
+import org.magcode.sem6000.connector.receive.SwitchResponse;
+import org.magcode.sem6000.connector.receive.SyncTimeResponse;
 import org.magcode.sem6000.connector.send.Command;
 import org.magcode.sem6000.connector.send.DataDayCommand;
+import org.magcode.sem6000.connector.send.LedCommand;
 import org.magcode.sem6000.connector.send.LoginCommand;
 import org.magcode.sem6000.connector.send.MeasureCommand;
+import org.magcode.sem6000.connector.send.SwitchCommand;
 import org.magcode.sem6000.connector.send.SyncTimeCommand;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -38,8 +55,27 @@ public class Sem6000Connection extends BluetoothConnection {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(Sem6000Connection.class);
   private static final Duration RECONNECT_DELAY = Duration.ofSeconds(60);
+  private static final String CONNECTED_PROPERTY = "Connected";
+  private static final MeasureCommand MEASURE_COMMAND = new MeasureCommand();
+  private static final DataDayCommand DATA_DAY_COMMAND = new DataDayCommand();
+  // keeps a visit open for commands that follow the answer of a previous one, e.g. a measurement after switching
+  private static final Duration VISIT_LINGER = Duration.ofSeconds(1);
+  private static final Duration MAX_VISIT_DURATION = Duration.ofSeconds(30);
+  private static final long VISIT_IDLE_CHECK_MILLIS = 50;
   private Duration reconnectDelay = RECONNECT_DELAY;
+  private Duration visitLinger = VISIT_LINGER;
   private final Sem6000Config sem6000Config;
+  private final PollPlanner pollPlanner;
+  /* Interval of the polls if polling adapts to the power of the device, null otherwise. */
+  private final AdaptivePollInterval adaptivePollInterval;
+  /* Rotation that connects the device for visits only, null if the device stays connected. */
+  private final ConnectionRotation rotation;
+  private final EnergyPollSchedule energyPollSchedule;
+  /* Whether a visit of the rotation is connected and accepts commands. Guarded by this. */
+  private boolean visiting;
+  /* Completes when the next visit starts, null if no command is waiting for a visit. Guarded by this. */
+  private CompletableFuture<Void> nextVisit;
+  private long nextEnergyRequestAtMillis;
   private BluetoothDevice device;
   private BluetoothGattCharacteristic writeService;
   private BluetoothGattCharacteristic notifyService;
@@ -47,12 +83,45 @@ public class Sem6000Connection extends BluetoothConnection {
   private String reconnectScheduleName;
   /* Name of schedule for measurements if connected, null otherwise. */
   private String measurementSchedulerName;
+  /* Name of schedule for the energy of today if connected, null otherwise. */
+  private String energySchedulerName;
   private final Set<Sem6000ResponseHandler> subscribers = new CopyOnWriteArraySet<>();
+  private final Sem6000CommandQueue commandQueue;
+  private final DbusListener devicePropertiesListener = this::handleDevicePropertiesChanged;
+  /* Serializes the writes to the device without holding the lock of the connection, as writing blocks on dbus. */
+  private final Object writeLock = new Object();
+  /* Whether the setup of the connection succeeded and the device did not disconnect since. Guarded by this. */
+  private boolean deviceConnected;
+  /* Completes when the response to the latest scheduled measurement request arrived. */
+  private CompletableFuture<MeasurementResponse> pendingMeasurementRequest = CompletableFuture.completedFuture(null);
+  /* Measurement shared by concurrent requests until it is answered. Guarded by itself. */
+  private final Object pendingMeasurementLock = new Object();
+  private CompletableFuture<MeasurementResponse> pendingMeasurement = CompletableFuture.completedFuture(null);
+  /* Energy of today shared by concurrent requests until it is answered. Guarded by itself. */
+  private final Object pendingDataDayLock = new Object();
+  private CompletableFuture<DataDayResponse> pendingDataDay = CompletableFuture.completedFuture(null);
 
   public Sem6000Connection(Sem6000Config sem6000Config, BluetoothConnectionManager connectionManager,
       Scheduler scheduler) {
+    this(sem6000Config, connectionManager, scheduler, new PollPlanner());
+  }
+
+  public Sem6000Connection(Sem6000Config sem6000Config, BluetoothConnectionManager connectionManager,
+      Scheduler scheduler, PollPlanner pollPlanner) {
+    this(sem6000Config, connectionManager, scheduler, pollPlanner, null);
+  }
+
+  public Sem6000Connection(Sem6000Config sem6000Config, BluetoothConnectionManager connectionManager,
+      Scheduler scheduler, PollPlanner pollPlanner, ConnectionRotation rotation) {
     super(connectionManager, scheduler);
     this.sem6000Config = sem6000Config;
+    this.pollPlanner = pollPlanner;
+    this.rotation = rotation;
+    this.energyPollSchedule = new EnergyPollSchedule(sem6000Config.getEnergyUpdateInterval(), ZoneId.systemDefault());
+    this.adaptivePollInterval = sem6000Config.getAdaptivePolling().isEnabled() ? new AdaptivePollInterval(
+        sem6000Config.getAdaptivePolling(), sem6000Config.getUpdateInterval()) : null;
+    this.commandQueue = new Sem6000CommandQueue(sem6000Config.getName(), this::write,
+        connectionManager.getCommandExecutor());
   }
 
 
@@ -62,6 +131,11 @@ public class Sem6000Connection extends BluetoothConnection {
   }
 
   public void establish() {
+    if (Objects.nonNull(rotation)) {
+      LOGGER.info("Adding {} ({}) to the rotation of connections", sem6000Config.getName(), sem6000Config.getMac());
+      rotation.add(this, sem6000Config.getUpdateInterval());
+      return;
+    }
     LOGGER.info("Establishing connection to {} ({})", sem6000Config.getName(), sem6000Config.getMac());
     try {
       connectToDevice();
@@ -78,30 +152,114 @@ public class Sem6000Connection extends BluetoothConnection {
     }
   }
 
+  /**
+   * Connects and sets up the connection. The connection is established only after the setup succeeded, so commands
+   * sent in the meantime fail or are written after the characteristics are loaded, but never tear down the setup.
+   */
   private void connectToDevice() throws ConnectException, InterruptedException {
-    device = connectionManager.findDeviceOrFail(sem6000Config.getMac(), new ConnectException("Could not find device."));
-    if (!device.connect()) {
+    BluetoothDevice connectingDevice = connectionManager.findDeviceOrFail(sem6000Config.getMac(),
+        new ConnectException("Could not find device."));
+    // subscribe before connecting to not miss a disconnect
+    connectionManager.subscribeToDbusPath(connectingDevice.getDbusPath(), devicePropertiesListener);
+    synchronized (this) {
+      device = connectingDevice;
+    }
+    if (!connectingDevice.connect()) {
+      connectionManager.handleConnectFailed(sem6000Config.getMac());
       throw new ConnectException("Could not connect to device.");
     }
+    connectionManager.handleConnected(sem6000Config.getMac());
 
-    loadGattCharacteristicsAndSubscribeChanges();
+    try {
+      loadGattCharacteristicsAndSubscribeChanges(connectingDevice);
+      handshake();
+    } catch (ConnectException | InterruptedException | RuntimeException e) {
+      // e.g. the gatt service is not resolved yet
+      releaseConnection("setup of connection failed");
+      throw e;
+    }
+    synchronized (this) {
+      if (device != connectingDevice) {
+        // the disconnect during the setup has been handled already
+        throw new ConnectException("Lost connection during setup.");
+      }
+      deviceConnected = true;
+    }
+    handleConnected();
+  }
 
+  /**
+   * Logs in and synchronizes the time. Each step proceeds as soon as the device answered the previous one.
+   */
+  private void handshake() throws ConnectException, InterruptedException {
+    LoginResponse loginResponse = awaitHandshakeResponse(
+        commandQueue.submit(new LoginCommand(this.sem6000Config.getPin())).thenApply(LoginResponse.class::cast));
+    if (!loginResponse.isSuccess()) {
+      LOGGER.error("Device {} rejected the login, please check the configured pin.", sem6000Config.getName());
+      throw new ConnectException("Login was rejected.");
+    }
+    SyncTimeResponse syncTimeResponse = awaitHandshakeResponse(
+        commandQueue.submit(new SyncTimeCommand()).thenApply(SyncTimeResponse.class::cast));
+    if (!syncTimeResponse.isSuccess()) {
+      LOGGER.warn("Device {} failed to synchronize its time.", sem6000Config.getName());
+    }
+  }
+
+  private static <T extends SemResponse> T awaitHandshakeResponse(CompletableFuture<T> response)
+      throws ConnectException, InterruptedException {
     try {
-      this.safeSend(new LoginCommand(this.sem6000Config.getPin()));
-      // add some delay so that device can handle login properly
-      Thread.sleep(200);
-      this.safeSend(new SyncTimeCommand());
-      handleConnected();
-    } catch (SendingException e) {
-      throw new ConnectException(e);
+      return response.get();
+    } catch (ExecutionException e) {
+      Throwable cause = unwrap(e);
+      throw new ConnectException(cause instanceof Exception ? (Exception) cause : e);
+    }
+  }
+
+  /**
+   * Releases a connection whose setup failed or whose visit ended, so that it is not mistaken for an established
+   * one and its disconnect is not handled as lost connection. Waiting commands are failed and the device is
+   * disconnected after leaving the lock, as both may take a while.
+   */
+  private void releaseConnection(String reason) {
+    BluetoothDevice releasedDevice;
+    synchronized (this) {
+      releasedDevice = device;
+      clearConnection();
+    }
+    commandQueue.failAll(reason);
+    if (Objects.nonNull(releasedDevice)) {
+      try {
+        releasedDevice.disconnect();
+      } catch (RuntimeException e) {
+        LOGGER.debug("Failed to disconnect from device {}.", sem6000Config.getName(), e);
+      }
+    }
+  }
+
+  /**
+   * Forgets the connected device and its characteristics. Must be called while holding the lock.
+   */
+  private void clearConnection() {
+    if (Objects.nonNull(notifyService)) {
+      connectionManager.ignoreDbusPath(notifyService.getDbusPath());
     }
+    if (Objects.nonNull(device)) {
+      connectionManager.ignoreDbusPath(device.getDbusPath());
+    }
+    device = null;
+    writeService = null;
+    notifyService = null;
+    deviceConnected = false;
   }
 
-  private void loadGattCharacteristicsAndSubscribeChanges() throws ConnectException {
-    BluetoothGattService gattService = device.getGattServiceByUuid(Sem6000GattCharacteristic.SERVICE.uuid);
-    writeService = gattService.getGattCharacteristicByUuid(Sem6000GattCharacteristic.WRITE.uuid);
-    notifyService = gattService.getGattCharacteristicByUuid(
-        Sem6000GattCharacteristic.NOTIFY.uuid);
+  private void loadGattCharacteristicsAndSubscribeChanges(BluetoothDevice connectingDevice) throws ConnectException {
+    BluetoothGattService gattService = connectingDevice.getGattServiceByUuid(Sem6000GattCharacteristic.SERVICE.uuid);
+    BluetoothGattCharacteristic notifyService;
+    synchronized (this) {
+      writeService = gattService.getGattCharacteristicByUuid(Sem6000GattCharacteristic.WRITE.uuid);
+      this.notifyService = gattService.getGattCharacteristicByUuid(Sem6000GattCharacteristic.NOTIFY.uuid);
+      notifyService = this.notifyService;
+    }
     try {
       notifyService.startNotify();
       connectionManager.subscribeToDbusPath(notifyService.getDbusPath(),
@@ -116,35 +274,208 @@ public class Sem6000Connection extends BluetoothConnection {
     LOGGER.info("Successfully connected to device {} ('{}')", sem6000Config.getName(), sem6000Config.getMac());
     reconnectScheduleName = null;
     subscribers.forEach(handler -> handler.handleSem6000Response(new AvailabilityResponse(Availability.AVAILABLE)));
-    measurementSchedulerName = scheduler.schedule(this::requestMeasurements,
-        Schedules.fixedDelaySchedule(this.sem6000Config.getUpdateInterval())).name();
+    if (Objects.nonNull(rotation)) {
+      // the rotation polls during its visits
+      return;
+    }
+    if (Objects.isNull(adaptivePollInterval)) {
+      measurementSchedulerName = scheduler.schedule(this::requestMeasurements,
+          pollPlanner.join(sem6000Config.getName(), sem6000Config.getUpdateInterval())).name();
+    } else {
+      // adaptive polls do not fit into the slots of the planner
+      adaptivePollInterval.reset();
+      measurementSchedulerName = scheduleAdaptiveMeasurements();
+    }
+    energySchedulerName = scheduler.schedule(this::requestEnergyToday, energyPollSchedule).name();
   }
 
-  private void requestMeasurements() {
+  /**
+   * Connects, polls and disconnects again, so the connection slot can be used for other devices. Commands that wait
+   * for the visit are sent first. Blocks until no command has been sent for a moment.
+   *
+   * @return whether the device could be visited
+   */
+  boolean visit() {
     try {
-      safeSend(new MeasureCommand());
-      safeSend(new DataDayCommand());
-    } catch (SendingException e) {
-      LOGGER.warn("Could not request measurement from device {}: {}", sem6000Config.getName(), e.getMessage());
-      LOGGER.debug("Requesting measurement errored with: ", e);
+      connectToDevice();
+    } catch (ConnectException | RuntimeException e) {
+      LOGGER.warn("Failed to visit device {} with reason '{}'.", sem6000Config.getName(), e.getMessage());
+      LOGGER.debug("Reason:", e);
+      failVisit(e);
+      return false;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      failVisit(e);
+      return false;
+    }
+    CompletableFuture<Void> waitingCommands;
+    synchronized (this) {
+      visiting = true;
+      waitingCommands = nextVisit;
+      nextVisit = null;
+    }
+    if (Objects.nonNull(waitingCommands)) {
+      waitingCommands.complete(null);
+    }
+    requestMeasurements();
+    long now = System.currentTimeMillis();
+    if (now >= nextEnergyRequestAtMillis) {
+      requestEnergyToday();
+      nextEnergyRequestAtMillis = energyPollSchedule.nextExecutionInMillis(now, 1, now);
+    }
+    try {
+      awaitEndOfVisit();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    synchronized (this) {
+      visiting = false;
+    }
+    if (isEstablished()) {
+      releaseConnection("visit ended");
+    }
+    return true;
+  }
+
+  private void awaitEndOfVisit() throws InterruptedException {
+    long visitEndsAt = System.nanoTime() + MAX_VISIT_DURATION.toNanos();
+    long idleSince = System.nanoTime();
+    while (isEstablished() && System.nanoTime() < visitEndsAt) {
+      Thread.sleep(VISIT_IDLE_CHECK_MILLIS);
+      synchronized (this) {
+        if (commandQueue.size() > 0 || Objects.nonNull(nextVisit)) {
+          idleSince = System.nanoTime();
+        } else if (System.nanoTime() - idleSince >= visitLinger.toNanos()) {
+          // ends the visit while holding the lock, so no command is sent in between
+          visiting = false;
+          return;
+        }
+      }
+    }
+  }
+
+  private void failVisit(Exception reason) {
+    releaseConnection("visit failed");
+    CompletableFuture<Void> waitingCommands;
+    synchronized (this) {
+      waitingCommands = nextVisit;
+      nextVisit = null;
+    }
+    if (Objects.nonNull(waitingCommands)) {
+      waitingCommands.completeExceptionally(new SendingException(
+          String.format("Failed to visit device %s.", sem6000Config.getName()), reason));
+    }
+    subscribers.forEach(handler -> handler.handleSem6000Response(new AvailabilityResponse(Availability.LOST)));
+  }
+
+  private void requestMeasurements() {
+    if (!pendingMeasurementRequest.isDone()) {
+      LOGGER.debug("Skipping measurement request for device {}, because the previous one is not answered yet.",
+          sem6000Config.getName());
+      return;
     }
+    pendingMeasurementRequest = requestMeasurement().whenComplete((ignored, e) -> {
+      if (Objects.nonNull(e)) {
+        LOGGER.warn("Could not request measurement from device {}: {}", sem6000Config.getName(),
+            unwrap(e).getMessage());
+        LOGGER.debug("Requesting measurement errored with: ", e);
+      }
+    });
+  }
+
+  private String scheduleAdaptiveMeasurements() {
+    return scheduler.schedule(this::requestMeasurements,
+        (currentTimeInMillis, executionsCount, lastExecutionEndedTimeInMillis) -> currentTimeInMillis
+            + adaptivePollInterval.get().toMillis()).name();
+  }
+
+  /**
+   * Replaces the scheduled poll by one after the dropped interval, unless the device is not connected.
+   */
+  private synchronized void pollSooner() {
+    if (Objects.isNull(measurementSchedulerName)) {
+      return;
+    }
+    LOGGER.debug("Polling device {} every {} now.", sem6000Config.getName(), adaptivePollInterval.get());
+    scheduler.cancel(measurementSchedulerName);
+    measurementSchedulerName = scheduleAdaptiveMeasurements();
+  }
+
+  private void requestEnergyToday() {
+    requestDataDay().whenComplete((ignored, e) -> {
+      if (Objects.nonNull(e)) {
+        LOGGER.warn("Could not request energy of today from device {}: {}", sem6000Config.getName(),
+            unwrap(e).getMessage());
+        LOGGER.debug("Requesting energy of today errored with: ", e);
+      }
+    });
   }
 
   private void handleResponse(SemResponse semResponse) {
+    commandQueue.handleResponse(semResponse);
+    if (Objects.nonNull(adaptivePollInterval) && semResponse.getType() == ResponseType.MEASURE
+        && adaptivePollInterval.handleMeasuredPower(((MeasurementResponse) semResponse).getPower())) {
+      pollSooner();
+    }
     subscribers.forEach(handler -> handler.handleSem6000Response(semResponse));
     subscribers.forEach(handler -> handler.handleSem6000Response(new AvailabilityResponse(Availability.AVAILABLE)));
   }
 
+  private void handleDevicePropertiesChanged(PropertiesChanged propertiesChanged) {
+    Optional.ofNullable(propertiesChanged.getPropertiesChanged().get(CONNECTED_PROPERTY)).map(Variant::getValue)
+        .filter(Boolean.class::isInstance).map(Boolean.class::cast).ifPresent(connected -> {
+          LOGGER.debug("Device {} changed its connected state to {}.", sem6000Config.getName(), connected);
+          // the connection is established by its setup, not by the signal
+          if (!connected) {
+            handleDisconnected();
+          }
+        });
+  }
+
+  /**
+   * Clears the connection while holding the lock, but fails waiting commands and notifies the subscribers after
+   * leaving it, as their callbacks may do anything, e.g. publish to mqtt.
+   */
   private void handleDisconnected() {
-    LOGGER.info("Lost connection to device {} ('{}')", sem6000Config.getName(), sem6000Config.getMac());
-    scheduler.cancel(measurementSchedulerName);
-    measurementSchedulerName = null;
+    synchronized (this) {
+      if (Objects.isNull(device)) {
+        // disconnect has already been handled
+        return;
+      }
+      LOGGER.info("Lost connection to device {} ('{}')", sem6000Config.getName(), sem6000Config.getMac());
+      if (Objects.nonNull(measurementSchedulerName)) {
+        scheduler.cancel(measurementSchedulerName);
+        measurementSchedulerName = null;
+        scheduler.cancel(energySchedulerName);
+        energySchedulerName = null;
+      }
+      pollPlanner.leave(sem6000Config.getName());
+      clearConnection();
+      if (Objects.isNull(rotation)) {
+        scheduleReconnect();
+      }
+    }
+    commandQueue.failAll("device is not connected");
     subscribers.forEach(handler -> handler.handleSem6000Response(new AvailabilityResponse(Availability.LOST)));
-    connectionManager.ignoreDbusPath(notifyService.getDbusPath());
-    device = null;
-    writeService = null;
-    notifyService = null;
-    scheduleReconnect();
+  }
+
+  /**
+   * Connects right away instead of waiting for the scheduled reconnect, as the device is in reach again.
+   */
+  @Override
+  public synchronized void handleDeviceAppeared() {
+    String scheduledReconnect = reconnectScheduleName;
+    if (isEstablished() || Objects.isNull(scheduledReconnect)) {
+      return;
+    }
+    boolean waitingForReconnect = scheduler.findJob(scheduledReconnect)
+        .map(job -> job.status() == JobStatus.SCHEDULED).orElse(false);
+    if (waitingForReconnect) {
+      LOGGER.info("Device {} appeared, reconnecting now.", sem6000Config.getName());
+      scheduler.cancel(scheduledReconnect);
+      reconnectScheduleName = scheduler.schedule(() -> reconnect(0), executeOnce(fixedDelaySchedule(Duration.ZERO)))
+          .name();
+    }
   }
 
   private void reconnect(int attempt) {
@@ -165,12 +496,117 @@ public class Sem6000Connection extends BluetoothConnection {
     }
   }
 
-  public synchronized void safeSend(Command command) throws SendingException {
-    ensureConnectionIsEstablishedOrThrow(new SendingException(
-        String.format("Failed to send message because device %s is not connected.", this.sem6000Config.getName())));
-    LOGGER.debug("Sending command to {} ('{}')", this.sem6000Config.getName(), command.getReadableMessage());
+  /**
+   * Queues the command behind previously sent ones. The future completes with the response of the device, or
+   * exceptionally with a {@link SendingException} if the command could not be sent or was not answered in time. A
+   * rotating device that is not visited right now is visited next, ahead of the devices that are due for polling.
+   */
+  public CompletableFuture<SemResponse> send(Command command) {
+    if (Objects.isNull(rotation)) {
+      return commandQueue.submit(command);
+    }
+    synchronized (this) {
+      if (visiting) {
+        return commandQueue.submit(command);
+      }
+      if (Objects.isNull(nextVisit)) {
+        nextVisit = new CompletableFuture<>();
+        rotation.prioritize(this);
+      }
+      return nextVisit.thenCompose(ignored -> send(command));
+    }
+  }
+
+  public CompletableFuture<SwitchResponse> switchRelay(boolean on) {
+    if (Objects.nonNull(adaptivePollInterval) && adaptivePollInterval.reset()) {
+      pollSooner();
+    }
+    return send(new SwitchCommand(on), SwitchResponse.class);
+  }
+
+  public CompletableFuture<LedResponse> switchLed(boolean on) {
+    return send(new LedCommand(on), LedResponse.class);
+  }
+
+  public CompletableFuture<MeasurementResponse> measure() {
+    return send(MEASURE_COMMAND, MeasurementResponse.class);
+  }
+
+  /**
+   * Measures like {@link #measure()}, but joins a measurement that has not been answered yet, so concurrent requests
+   * cost a single command. Use {@link #measure()} if the measurement must be newer than a preceding command.
+   */
+  public CompletableFuture<MeasurementResponse> requestMeasurement() {
+    synchronized (pendingMeasurementLock) {
+      if (pendingMeasurement.isDone()) {
+        pendingMeasurement = measure();
+      }
+      // a copy, so a caller completing its future does not complete the measurement of the others
+      return pendingMeasurement.copy();
+    }
+  }
+
+  /**
+   * Requests the energy of today, but joins a request that has not been answered yet like
+   * {@link #requestMeasurement()}.
+   */
+  public CompletableFuture<DataDayResponse> requestDataDay() {
+    synchronized (pendingDataDayLock) {
+      if (pendingDataDay.isDone()) {
+        pendingDataDay = send(DATA_DAY_COMMAND, DataDayResponse.class);
+      }
+      return pendingDataDay.copy();
+    }
+  }
+
+  private <T extends SemResponse> CompletableFuture<T> send(Command command, Class<T> responseClass) {
+    // the queue correlates by response type, so the response is always of the expected class
+    return send(command).thenApply(responseClass::cast);
+  }
+
+  /**
+   * Sends the command like {@link #send(Command)} and blocks until it is answered.
+   */
+  public void safeSend(Command command) throws SendingException {
     try {
-      writeService.writeValue(command.getMessage(), emptyMap());
+      send(command).get();
+    } catch (ExecutionException e) {
+      Throwable cause = unwrap(e);
+      if (cause instanceof SendingException) {
+        throw (SendingException) cause;
+      }
+      throw new SendingException(String.format("Failed to send message to %s", this.sem6000Config.getName()), e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SendingException(
+          String.format("Interrupted while sending message to %s", this.sem6000Config.getName()), e);
+    }
+  }
+
+  private static Throwable unwrap(Throwable throwable) {
+    return (throwable instanceof CompletionException || throwable instanceof ExecutionException) && Objects.nonNull(
+        throwable.getCause()) ? throwable.getCause() : throwable;
+  }
+
+  /**
+   * Writes the command if the characteristics of the device are loaded. A lost connection is torn down by its
+   * disconnect signal or by releasing it, never by a write.
+   */
+  private void write(Command command) throws SendingException {
+    BluetoothGattCharacteristic characteristic;
+    synchronized (this) {
+      characteristic = writeService;
+    }
+    if (Objects.isNull(characteristic)) {
+      throw new SendingException(
+          String.format("Failed to send message because device %s is not connected.", this.sem6000Config.getName()));
+    }
+    LOGGER.atDebug().setMessage("Sending command to {} ('{}')").addArgument(this.sem6000Config.getName())
+        .addArgument(command::getReadableMessage).log();
+    try {
+      synchronized (writeLock) {
+        characteristic.writeValue(command.getMessage(), emptyMap());
+      }
     } catch (BluezFailedException | BluezNotAuthorizedException | BluezInvalidValueLengthException |
              BluezNotSupportedException | BluezInProgressException | BluezNotPermittedException |
              RuntimeException e) {
@@ -179,16 +615,12 @@ public class Sem6000Connection extends BluetoothConnection {
     }
   }
 
-  private <T extends Throwable> void ensureConnectionIsEstablishedOrThrow(T exception) throws T {
-    if (!isEstablished()) {
-      handleDisconnected();
-      throw exception;
-    }
-  }
-
-  public boolean isEstablished() {
-    return Objects.nonNull(this.device) && Objects.nonNull(this.writeService) && Objects.nonNull(this.notifyService)
-        && this.device.isConnected();
+  /**
+   * Uses the cached connected state instead of asking the device via dbus.
+   */
+  public synchronized boolean isEstablished() {
+    return deviceConnected && Objects.nonNull(this.device) && Objects.nonNull(this.writeService) && Objects.nonNull(
+        this.notifyService);
   }
 
   private void scheduleReconnect() {
@@ -207,4 +639,15 @@ public class Sem6000Connection extends BluetoothConnection {
   public void setReconnectDelay(Duration reconnectDelay) {
     this.reconnectDelay = reconnectDelay;
   }
+
+  public void setResponseTimeout(Duration responseTimeout) {
+    commandQueue.setResponseTimeout(responseTimeout);
+  }
+
+  /**
+   * Sets how long a visit stays connected after the last command has been answered.
+   */
+  public void setVisitLinger(Duration visitLinger) {
+    this.visitLinger = visitLinger;
+  }
 }
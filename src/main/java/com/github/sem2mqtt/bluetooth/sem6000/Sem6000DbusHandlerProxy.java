@@ -1,32 +1,35 @@
 package com.github.sem2mqtt.bluetooth.sem6000;
 
 import com.github.sem2mqtt.bluetooth.DevicePropertiesChangedHandler.DbusListener;
-import java.util.Arrays;
-import java.util.Objects;
+import java.time.Clock;
 import java.util.Optional;
 import org.freedesktop.dbus.interfaces.Properties.PropertiesChanged;
 import org.freedesktop.dbus.types.Variant;
 import org.magcode.sem6000.connector.ByteUtils;
-import org.magcode.sem6000.connector.receive.ResponseType;
 import org.magcode.sem6000.connector.receive.SemResponse;
 import org.magcode.sem6000.connector.receive.SemResponseParser;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Responses of the sem6000 device may be split into multiple parts. The proxy transparently handles this issue and
- * responds with a single Sem6000Response.
+ * Responses of the sem6000 device may be split into multiple parts and multiple responses may arrive in one part. The
+ * proxy transparently handles this issue and responds with a single Sem6000Response per frame.
  */
 public class Sem6000DbusHandlerProxy implements DbusListener {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(Sem6000DbusHandlerProxy.class);
-  private static final int MAX_EXPECTED_RESPONSE_LENGTH = 60;
   private final Sem6000ResponseHandler responseHandler;
-  private byte[] buffer;
+  private final Sem6000FrameReassembler reassembler;
+  private final Clock clock;
 
   public Sem6000DbusHandlerProxy(Sem6000ResponseHandler responseHandler) {
+    this(responseHandler, Clock.systemDefaultZone());
+  }
 
+  public Sem6000DbusHandlerProxy(Sem6000ResponseHandler responseHandler, Clock clock) {
     this.responseHandler = responseHandler;
+    this.clock = clock;
+    this.reassembler = new Sem6000FrameReassembler(this::handleFrame);
   }
 
   @Override
@@ -34,40 +37,17 @@ public class Sem6000DbusHandlerProxy implements DbusListener {
     LOGGER.debug("Received message for path '{}'.", propertiesChanged.getPath());
     Optional.ofNullable(propertiesChanged.getPropertiesChanged().get("Value")).map(Variant::getValue).filter(
         byte[].class::isInstance).map(byte[].class::cast).ifPresent(data -> {
-      SemResponse responseFromData = SemResponseParser.parseMessage(data);
-      boolean isResponseComplete = responseFromData.getType() != ResponseType.INCOMPLETE;
-      if (isResponseComplete) {
-        LOGGER.debug("Received message for dbus path '{}': '{}'.", propertiesChanged.getPath(),
-            ByteUtils.byteArrayToHex(data));
-        responseHandler.handleSem6000Response(responseFromData);
-        buffer = null;
-      } else if (Objects.nonNull(buffer)) {
-        handleIncompleteConsecutiveResponse(data, propertiesChanged.getPath());
-      } else {
-        LOGGER.debug("Part of sem 6000 response for path '{}' buffered.", propertiesChanged.getPath());
-        buffer = data;
+      LOGGER.atDebug().log(() -> String.format("Received part of message for dbus path '%s': '%s'.",
+          propertiesChanged.getPath(), ByteUtils.byteArrayToHex(data)));
+      synchronized (reassembler) {
+        reassembler.append(data);
       }
     });
   }
 
-  private void handleIncompleteConsecutiveResponse(byte[] data, String path) {
-    byte[] combinedData = Arrays.copyOf(buffer, buffer.length + data.length);
-    if (combinedData.length > MAX_EXPECTED_RESPONSE_LENGTH) {
-      LOGGER.debug("Previous response for dbus path '{}' is dismissed, because a new response arrived.", path);
-      buffer = data;
-    } else {
-      System.arraycopy(data, 0, combinedData, buffer.length, data.length);
-      SemResponse response = SemResponseParser.parseMessage(data);
-      if (response.getType() != ResponseType.INCOMPLETE) {
-        LOGGER.atDebug().log(() -> String.format("Received last part of message for  dbus path '%s': '%s'.", path,
-            ByteUtils.byteArrayToHex(combinedData)));
-        responseHandler.handleSem6000Response(response);
-        buffer = null;
-      } else {
-        LOGGER.debug("Part of sem 6000 response for dbus path '{}' is buffered.", path);
-        buffer = combinedData;
-      }
-    }
+  private void handleFrame(byte[] buffer, int offset, int length) {
+    SemResponse response = SemResponseParser.parseMessage(buffer, offset, length, clock);
+    responseHandler.handleSem6000Response(response);
   }
 
   public interface Sem6000ResponseHandler {
@@ -25,6 +25,10 @@ public class Sem6000DbusMessageTestHelper {
     return new PropertiesChanged(dbusPath, "bt_interface1", createMeasurementPropertyChange(), emptyList());
   }
 
+  public static PropertiesChanged createValuePropertyChange(String dbusPath, byte[] value) throws DBusException {
+    return new PropertiesChanged(dbusPath, "bt_interface1", Map.of("Value", new Variant<>(value)), emptyList());
+  }
+
   public static Map<String, Variant<?>> createMeasurementPropertyChange() {
     return Map.of("Value", new Variant<>(Command.hexStringToByteArray("0f11040001002cc8ea0059320000000000006f")));
   }
@@ -0,0 +1,165 @@
+package com.github.sem2mqtt.bluetooth.sem6000;
+
+import org.magcode.sem6000.connector.send.Sem6000FrameEncoder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Cuts the byte stream of sem6000 notifications into frames. Notifications are appended to a fixed size ring buffer,
+ * which is scanned for the start byte. The length field tells where a frame ends, so a notification may carry several
+ * frames and a frame may span several notifications. A frame is only handed out if its checksum matches, otherwise
+ * the scan continues after its supposed start byte.
+ * <p>
+ * Frames are handed out as a view on the ring buffer. Only frames wrapping around the end of the ring are copied into
+ * a reused scratch array.
+ */
+class Sem6000FrameReassembler {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(Sem6000FrameReassembler.class);
+  static final int CAPACITY = 512;
+  private static final int MASK = CAPACITY - 1;
+  /* start byte and length field */
+  private static final int HEADER_LENGTH = 2;
+  private static final int TRAILER_LENGTH = 2;
+  /* the length field counts at least opcode and checksum */
+  private static final int MIN_LENGTH_FIELD = 2;
+  private static final int MAX_FRAME_LENGTH = 0xFF + HEADER_LENGTH + TRAILER_LENGTH;
+
+  private final byte[] ring = new byte[CAPACITY];
+  private final byte[] scratch = new byte[MAX_FRAME_LENGTH];
+  private final FrameConsumer consumer;
+  private int head;
+  private int size;
+  private long discardedBytes;
+
+  Sem6000FrameReassembler(FrameConsumer consumer) {
+    this.consumer = consumer;
+  }
+
+  void append(byte[] data) {
+    append(data, 0, data.length);
+  }
+
+  void append(byte[] data, int offset, int length) {
+    if (size > 0 && startsWithCompleteFrame(data, offset, length)) {
+      LOGGER.debug("Dismissing {} buffered bytes, because a new response arrived.", size);
+      discard(size);
+    }
+    int from = offset;
+    int count = length;
+    if (count > CAPACITY) {
+      discardedBytes += count - CAPACITY;
+      from += count - CAPACITY;
+      count = CAPACITY;
+    }
+    int overflow = size + count - CAPACITY;
+    if (overflow > 0) {
+      LOGGER.debug("Buffer is full, dismissing {} buffered bytes.", overflow);
+      discard(overflow);
+    }
+    int tail = (head + size) & MASK;
+    int firstPart = Math.min(count, CAPACITY - tail);
+    System.arraycopy(data, from, ring, tail, firstPart);
+    System.arraycopy(data, from + firstPart, ring, 0, count - firstPart);
+    size += count;
+    cutFrames();
+  }
+
+  private void cutFrames() {
+    while (size > 0) {
+      if (ring[head] != Sem6000FrameEncoder.START) {
+        discard(1);
+        continue;
+      }
+      if (size < HEADER_LENGTH) {
+        return;
+      }
+      int lengthField = at(1) & 0xFF;
+      if (lengthField < MIN_LENGTH_FIELD) {
+        discard(1);
+        continue;
+      }
+      int coreLength = HEADER_LENGTH + lengthField;
+      if (size < coreLength) {
+        // wait for the remaining parts of the frame
+        return;
+      }
+      if (!checksumMatches(lengthField)) {
+        discard(1);
+        continue;
+      }
+      int frameLength = coreLength + countTrailerBytes(coreLength);
+      int start = head;
+      // advance first, so that handing out the frame may safely append further notifications
+      head = (head + frameLength) & MASK;
+      size -= frameLength;
+      handOut(start, frameLength);
+    }
+  }
+
+  private void handOut(int start, int frameLength) {
+    if (start + frameLength <= CAPACITY) {
+      consumer.handleFrame(ring, start, frameLength);
+    } else {
+      int firstPart = CAPACITY - start;
+      System.arraycopy(ring, start, scratch, 0, firstPart);
+      System.arraycopy(ring, 0, scratch, firstPart, frameLength - firstPart);
+      consumer.handleFrame(scratch, 0, frameLength);
+    }
+  }
+
+  private boolean checksumMatches(int lengthField) {
+    int checksum = 1;
+    for (int i = HEADER_LENGTH; i <= lengthField; i++) {
+      checksum += at(i);
+    }
+    return (byte) checksum == at(lengthField + 1);
+  }
+
+  private int countTrailerBytes(int coreLength) {
+    int count = 0;
+    while (count < TRAILER_LENGTH && coreLength + count < size
+        && at(coreLength + count) == Sem6000FrameEncoder.TRAILER) {
+      count++;
+    }
+    return count;
+  }
+
+  private static boolean startsWithCompleteFrame(byte[] data, int offset, int length) {
+    if (length < HEADER_LENGTH + MIN_LENGTH_FIELD || data[offset] != Sem6000FrameEncoder.START) {
+      return false;
+    }
+    int lengthField = data[offset + 1] & 0xFF;
+    if (lengthField < MIN_LENGTH_FIELD || HEADER_LENGTH + lengthField > length) {
+      return false;
+    }
+    int checksum = 1;
+    for (int i = HEADER_LENGTH; i <= lengthField; i++) {
+      checksum += data[offset + i];
+    }
+    return (byte) checksum == data[offset + lengthField + 1];
+  }
+
+  private byte at(int index) {
+    return ring[(head + index) & MASK];
+  }
+
+  private void discard(int count) {
+    head = (head + count) & MASK;
+    size -= count;
+    discardedBytes += count;
+  }
+
+  int bufferedBytes() {
+    return size;
+  }
+
+  long discardedBytes() {
+    return discardedBytes;
+  }
+
+  interface FrameConsumer {
+
+    void handleFrame(byte[] buffer, int offset, int length);
+  }
+}
@@ -0,0 +1,57 @@
+package com.github.sem2mqtt.configuration;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.github.sem2mqtt.configuration.PublishFilterConfig.Deadband;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+
+public class AdaptivePollingConfig {
+
+  // ignores the noise of idle plugs and chargers
+  public static final Deadband DEFAULT_POWER_CHANGE = new Deadband(2d, 0.05);
+
+  private final Duration minInterval;
+  private final Duration maxInterval;
+  private final Deadband powerChange;
+
+  @JsonCreator
+  public AdaptivePollingConfig(@JsonProperty(value = "minInterval") Duration minInterval,
+      @JsonProperty(value = "maxInterval") Duration maxInterval,
+      @JsonProperty(value = "powerChange") Deadband powerChange) {
+    this.minInterval = Optional.ofNullable(minInterval).filter(interval -> !interval.isNegative() && !interval.isZero())
+        .orElse(null);
+    this.maxInterval = maxInterval;
+    this.powerChange = Optional.ofNullable(powerChange).orElse(DEFAULT_POWER_CHANGE);
+  }
+
+  public static AdaptivePollingConfig disabled() {
+    return new AdaptivePollingConfig(null, null, null);
+  }
+
+  public boolean isEnabled() {
+    return Objects.nonNull(minInterval);
+  }
+
+  /**
+   * @return interval between polls while the power is changing or right after switching the relay
+   */
+  public Duration getMinInterval() {
+    return minInterval;
+  }
+
+  /**
+   * @return interval between polls while the power is stable, empty to back off up to the update interval
+   */
+  public Optional<Duration> getMaxInterval() {
+    return Optional.ofNullable(maxInterval);
+  }
+
+  /**
+   * @return change of the power between two measurements that is still considered stable
+   */
+  public Deadband getPowerChange() {
+    return powerChange;
+  }
+}
@@ -0,0 +1,104 @@
+package com.github.sem2mqtt.configuration;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.Optional;
+
+public class BluetoothConfig {
+
+  // bluez handles only a few simultaneous connects per adapter
+  public static final int DEFAULT_CONNECT_PARALLELISM = 3;
+  public static final int DEFAULT_SIGNAL_QUEUE_CAPACITY = 64;
+  // signal handlers mostly hand over to futures, so a few workers keep up with many devices
+  public static final int DEFAULT_SIGNAL_WORKERS = 4;
+  // only the latest measurement is of interest, so old signals are dropped first
+  public static final SignalOverflowPolicy DEFAULT_SIGNAL_OVERFLOW_POLICY = SignalOverflowPolicy.DROP_OLDEST;
+  // keeps every device connected
+  public static final int NO_CONNECTION_SLOTS = 0;
+  // most controllers keep only about seven low energy connections
+  public static final int DEFAULT_DEVICES_PER_ADAPTER = 7;
+
+  private final int connectParallelism;
+  private final int signalQueueCapacity;
+  private final SignalOverflowPolicy signalOverflowPolicy;
+  private final int connectionSlots;
+  private final int devicesPerAdapter;
+  private final int signalWorkers;
+
+  public BluetoothConfig(Integer connectParallelism) {
+    this(connectParallelism, null, null, null, null, null);
+  }
+
+  @JsonCreator
+  public BluetoothConfig(@JsonProperty(value = "connectParallelism") Integer connectParallelism,
+      @JsonProperty(value = "signalQueueCapacity") Integer signalQueueCapacity,
+      @JsonProperty(value = "signalOverflowPolicy") SignalOverflowPolicy signalOverflowPolicy,
+      @JsonProperty(value = "connectionSlots") Integer connectionSlots,
+      @JsonProperty(value = "devicesPerAdapter") Integer devicesPerAdapter,
+      @JsonProperty(value = "signalWorkers") Integer signalWorkers) {
+    this.connectParallelism = Optional.ofNullable(connectParallelism).filter(parallelism -> parallelism > 0)
+        .orElse(DEFAULT_CONNECT_PARALLELISM);
+    this.signalQueueCapacity = Optional.ofNullable(signalQueueCapacity).filter(capacity -> capacity > 0)
+        .orElse(DEFAULT_SIGNAL_QUEUE_CAPACITY);
+    this.signalOverflowPolicy = Optional.ofNullable(signalOverflowPolicy).orElse(DEFAULT_SIGNAL_OVERFLOW_POLICY);
+    this.connectionSlots = Optional.ofNullable(connectionSlots).filter(slots -> slots > 0)
+        .orElse(NO_CONNECTION_SLOTS);
+    this.devicesPerAdapter = Optional.ofNullable(devicesPerAdapter).filter(devices -> devices > 0)
+        .orElse(DEFAULT_DEVICES_PER_ADAPTER);
+    this.signalWorkers = Optional.ofNullable(signalWorkers).filter(workers -> workers > 0)
+        .orElse(DEFAULT_SIGNAL_WORKERS);
+  }
+
+  public static BluetoothConfig defaults() {
+    return new BluetoothConfig(DEFAULT_CONNECT_PARALLELISM);
+  }
+
+  public int getConnectParallelism() {
+    return connectParallelism;
+  }
+
+  public int getSignalQueueCapacity() {
+    return signalQueueCapacity;
+  }
+
+  public SignalOverflowPolicy getSignalOverflowPolicy() {
+    return signalOverflowPolicy;
+  }
+
+  /**
+   * @return count of devices connected at the same time, more devices are connected in rotation for each poll only
+   */
+  public int getConnectionSlots() {
+    return connectionSlots;
+  }
+
+  /**
+   * @return count of devices assigned to one bluetooth adapter before further devices are moved to other adapters
+   */
+  public int getDevicesPerAdapter() {
+    return devicesPerAdapter;
+  }
+
+  /**
+   * @return count of threads handling the dbus signals, each handles the signals of one device at a time
+   */
+  public int getSignalWorkers() {
+    return signalWorkers;
+  }
+
+  public boolean rotatesConnections(int countOfDevices) {
+    return connectionSlots != NO_CONNECTION_SLOTS && countOfDevices > connectionSlots;
+  }
+
+  /**
+   * What to do with a dbus signal of a device whose signal queue is full.
+   */
+  public enum SignalOverflowPolicy {
+    /* discards the oldest queued signal to make room for the new one */
+    DROP_OLDEST,
+    /* discards the new signal */
+    DROP_NEWEST,
+    /* waits on the dbus thread until there is room, stalling signals of all devices */
+    BLOCK
+  }
+}
@@ -1,5 +1,6 @@
 package com.github.sem2mqtt.configuration;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.util.Optional;
 import java.util.Set;
@@ -8,11 +9,19 @@ public class BridgeConfiguration {
 
   private final MqttConfig mqttConfig;
   private final Set<Sem6000Config> semConfigs;
+  private final BluetoothConfig bluetoothConfig;
 
+  public BridgeConfiguration(MqttConfig mqttConfig, Set<Sem6000Config> semConfigs) {
+    this(mqttConfig, semConfigs, null);
+  }
+
+  @JsonCreator
   public BridgeConfiguration(@JsonProperty(value = "mqtt", defaultValue = "") MqttConfig mqttConfig,
-      @JsonProperty(value = "sem", defaultValue = "") Set<Sem6000Config> semConfigs) {
+      @JsonProperty(value = "sem", defaultValue = "") Set<Sem6000Config> semConfigs,
+      @JsonProperty(value = "bluetooth", defaultValue = "") BluetoothConfig bluetoothConfig) {
     this.mqttConfig = Optional.ofNullable(mqttConfig).orElse(MqttConfig.defaults());
     this.semConfigs = semConfigs;
+    this.bluetoothConfig = Optional.ofNullable(bluetoothConfig).orElse(BluetoothConfig.defaults());
   }
 
   public MqttConfig getMqttConfig() {
@@ -22,4 +31,8 @@ public class BridgeConfiguration {
   public Set<Sem6000Config> getSemConfigs() {
     return semConfigs;
   }
+
+  public BluetoothConfig getBluetoothConfig() {
+    return bluetoothConfig;
+  }
 }
@@ -2,13 +2,21 @@ package com.github.sem2mqtt.configuration;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.sem2mqtt.SemToMqttAppException;
+import com.github.sem2mqtt.configuration.BluetoothConfig.SignalOverflowPolicy;
+import com.github.sem2mqtt.configuration.MqttConfig.OutputMode;
+import com.github.sem2mqtt.configuration.MqttConfig.PublishPolicy;
+import com.github.sem2mqtt.configuration.PublishFilterConfig.Deadband;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.nio.file.Files;
 import java.time.Duration;
+import java.util.Comparator;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
@@ -20,6 +28,8 @@ public class BridgeConfigurationLoader {
   private static final Logger LOGGER = LoggerFactory.getLogger(BridgeConfigurationLoader.class);
   public static final String DEFAULT_PROPERTY_FILENAME = "sem6.properties";
   public static final String DEFAULT_YAML_FILENAME = "sem2mqtt_bridge.yaml";
+  private static final String PUBLISH_POLICY_PREFIX = "publishPolicy.";
+  private static final String PUBLISH_FILTER_PREFIX = "publishFilter.";
 
   private final ObjectMapper yamlMapper;
 
@@ -75,7 +85,13 @@ public class BridgeConfigurationLoader {
       props.load(inputStream);
       MqttConfig mqttConfig = new MqttConfig(props.getProperty("rootTopic"),
           props.getProperty("mqttServer"), props.getProperty("mqttClientId"),
-          props.getProperty("mqttUsername"), props.getProperty("mqttPassword"));
+          props.getProperty("mqttUsername"), props.getProperty("mqttPassword"),
+          Optional.ofNullable(props.getProperty("publishQueueCapacity")).map(Integer::valueOf).orElse(null),
+          createPublishPoliciesFromProperties(props),
+          new JournalConfig(props.getProperty("journalFile"),
+              Optional.ofNullable(props.getProperty("journalMaxSize")).map(Long::valueOf).orElse(null)),
+          createPublishFilterFromProperties(props, PUBLISH_FILTER_PREFIX),
+          Optional.ofNullable(props.getProperty("outputMode")).map(OutputMode::valueOf).orElse(null));
       Set<Sem6000Config> semConfigs = new HashSet<>();
       for (int i = 1; i < 11; i++) {
         if (props.containsKey("sem" + i + ".mac")) {
@@ -83,23 +99,84 @@ public class BridgeConfigurationLoader {
         }
       }
 
+      BluetoothConfig bluetoothConfig = new BluetoothConfig(
+          Optional.ofNullable(props.getProperty("connectParallelism")).map(Integer::valueOf).orElse(null),
+          Optional.ofNullable(props.getProperty("signalQueueCapacity")).map(Integer::valueOf).orElse(null),
+          Optional.ofNullable(props.getProperty("signalOverflowPolicy")).map(SignalOverflowPolicy::valueOf)
+              .orElse(null),
+          Optional.ofNullable(props.getProperty("connectionSlots")).map(Integer::valueOf).orElse(null),
+          Optional.ofNullable(props.getProperty("devicesPerAdapter")).map(Integer::valueOf).orElse(null),
+          Optional.ofNullable(props.getProperty("signalWorkers")).map(Integer::valueOf).orElse(null));
+
       LOGGER.info("Successfully loaded properties config.");
-      return new BridgeConfiguration(mqttConfig, semConfigs);
+      return new BridgeConfiguration(mqttConfig, semConfigs, bluetoothConfig);
     } catch (IOException e) {
       failOnReadError(e, propertiesFile.getName());
       throw new SemToMqttAppException("Unable to read properties file", e);
+    } catch (IllegalArgumentException e) {
+      failOnReadError(e, propertiesFile.getName());
+      throw new SemToMqttAppException("Invalid properties file", e);
     } finally {
       safelyCloseFileInputStream(inputStream);
     }
   }
 
+  private Map<String, PublishPolicy> createPublishPoliciesFromProperties(Properties props) {
+    Map<String, PublishPolicy> publishPolicies = new LinkedHashMap<>();
+    // properties have no order, so the most specific topic filters are matched first
+    props.stringPropertyNames().stream().filter(key -> key.startsWith(PUBLISH_POLICY_PREFIX))
+        .sorted(Comparator.comparing(String::length).reversed())
+        .forEach(key -> publishPolicies.put(key.substring(PUBLISH_POLICY_PREFIX.length()),
+            PublishPolicy.valueOf(props.getProperty(key))));
+    return publishPolicies;
+  }
+
+  /**
+   * @return the publish filter of the properties with the prefix, null if none of its properties is set
+   */
+  private PublishFilterConfig createPublishFilterFromProperties(Properties props, String prefix) {
+    Optional<Duration> maxAge = Optional.ofNullable(props.getProperty(prefix + "maxAge")).map(Integer::valueOf)
+        .map(Duration::ofSeconds);
+    Deadband power = createDeadbandFromProperties(props, prefix + "power");
+    Deadband voltage = createDeadbandFromProperties(props, prefix + "voltage");
+    if (!maxAge.isPresent() && Objects.isNull(power) && Objects.isNull(voltage)) {
+      return null;
+    }
+    return new PublishFilterConfig(maxAge.orElse(null), power, voltage);
+  }
+
+  /**
+   * @return the deadband of the properties with the prefix, null if neither of its properties is set
+   */
+  private Deadband createDeadbandFromProperties(Properties props, String prefix) {
+    Optional<Double> absolute = Optional.ofNullable(props.getProperty(prefix + ".absolute")).map(Double::valueOf);
+    Optional<Double> relative = Optional.ofNullable(props.getProperty(prefix + ".relative")).map(Double::valueOf);
+    if (!absolute.isPresent() && !relative.isPresent()) {
+      return null;
+    }
+    return new Deadband(absolute.orElse(null), relative.orElse(null));
+  }
+
   private Sem6000Config createConfigFromProperties(Properties props, int i) {
     return new Sem6000Config(props.getProperty("sem" + i + ".mac"),
         props.getProperty("sem" + i + ".pin"),
         props.getProperty("sem" + i + ".name"),
         Optional.ofNullable(props.getProperty("sem" + i + ".refresh"))
             .map(Integer::valueOf).map(
-                Duration::ofSeconds).orElse(null));
+                Duration::ofSeconds).orElse(null),
+        Optional.ofNullable(props.getProperty("sem" + i + ".energyRefresh"))
+            .map(Integer::valueOf).map(Duration::ofSeconds).orElse(null),
+        createAdaptivePollingFromProperties(props, "sem" + i + "."),
+        createPublishFilterFromProperties(props, "sem" + i + "." + PUBLISH_FILTER_PREFIX));
+  }
+
+  private AdaptivePollingConfig createAdaptivePollingFromProperties(Properties props, String prefix) {
+    return new AdaptivePollingConfig(
+        Optional.ofNullable(props.getProperty(prefix + "minRefresh")).map(Integer::valueOf).map(Duration::ofSeconds)
+            .orElse(null),
+        Optional.ofNullable(props.getProperty(prefix + "maxRefresh")).map(Integer::valueOf).map(Duration::ofSeconds)
+            .orElse(null),
+        createDeadbandFromProperties(props, prefix + "powerChange"));
   }
 
   private void safelyCloseFileInputStream(InputStream inputStream) {
@@ -0,0 +1,42 @@
+package com.github.sem2mqtt.configuration;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Objects;
+import java.util.Optional;
+
+public class JournalConfig {
+
+  // a day of measurements of a few dozen devices
+  public static final long DEFAULT_MAX_SIZE = 16L * 1024 * 1024;
+
+  private final String file;
+  private final long maxSize;
+
+  @JsonCreator
+  public JournalConfig(@JsonProperty(value = "file") String file, @JsonProperty(value = "maxSize") Long maxSize) {
+    this.file = file;
+    this.maxSize = Optional.ofNullable(maxSize).filter(size -> size > 0).orElse(DEFAULT_MAX_SIZE);
+  }
+
+  public static JournalConfig disabled() {
+    return new JournalConfig(null, null);
+  }
+
+  public boolean isEnabled() {
+    return Objects.nonNull(file);
+  }
+
+  public Path getFile() {
+    return Paths.get(file);
+  }
+
+  /**
+   * @return size of the journal file in bytes, the oldest messages are evicted when it is full
+   */
+  public long getMaxSize() {
+    return maxSize;
+  }
+}
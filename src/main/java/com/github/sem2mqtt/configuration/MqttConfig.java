@@ -2,6 +2,9 @@ package com.github.sem2mqtt.configuration;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -10,23 +13,49 @@ public class MqttConfig {
   public static final String DEFAULT_ROOT_TOPIC = "home";
   public static final String DEFAULT_URL = "tcp://localhost";
   public static final String DEFAULT_CLIENT_ID = "semtomqttbridge";
+  public static final int DEFAULT_PUBLISH_QUEUE_CAPACITY = 1000;
+  // the published values are states, so only the latest value of a topic matters
+  public static final PublishPolicy DEFAULT_PUBLISH_POLICY = PublishPolicy.COALESCE;
+  public static final OutputMode DEFAULT_OUTPUT_MODE = OutputMode.TOPICS;
 
   private final String rootTopic;
   private final String url;
   private final String clientId;
   private final String username;
   private final String password;
+  private final int publishQueueCapacity;
+  private final Map<String, PublishPolicy> publishPolicies;
+  private final JournalConfig journalConfig;
+  private final PublishFilterConfig publishFilterConfig;
+  private final OutputMode outputMode;
+
+  public MqttConfig(String rootTopic, String url, String clientId, String username, String password) {
+    this(rootTopic, url, clientId, username, password, null, null, null, null, null);
+  }
 
   @JsonCreator
   public MqttConfig(@JsonProperty(value = "rootTopic") String rootTopic,
       @JsonProperty(value = "url") String url,
       @JsonProperty(value = "clientId") String clientId,
-      @JsonProperty(value = "username") String username, @JsonProperty(value = "password") String password) {
+      @JsonProperty(value = "username") String username, @JsonProperty(value = "password") String password,
+      @JsonProperty(value = "publishQueueCapacity") Integer publishQueueCapacity,
+      @JsonProperty(value = "publishPolicies") Map<String, PublishPolicy> publishPolicies,
+      @JsonProperty(value = "journal") JournalConfig journalConfig,
+      @JsonProperty(value = "publishFilter") PublishFilterConfig publishFilterConfig,
+      @JsonProperty(value = "outputMode") OutputMode outputMode) {
     this.rootTopic = Optional.ofNullable(rootTopic).orElse(DEFAULT_ROOT_TOPIC);
     this.url = Optional.ofNullable(url).orElse(DEFAULT_URL);
     this.clientId = Optional.ofNullable(clientId).orElse(DEFAULT_CLIENT_ID);
     this.username = username;
     this.password = password;
+    this.publishQueueCapacity = Optional.ofNullable(publishQueueCapacity).filter(capacity -> capacity > 0)
+        .orElse(DEFAULT_PUBLISH_QUEUE_CAPACITY);
+    // keeps the configured order, as the first matching topic filter wins
+    this.publishPolicies = Collections.unmodifiableMap(
+        new LinkedHashMap<>(Optional.ofNullable(publishPolicies).orElse(Collections.emptyMap())));
+    this.journalConfig = Optional.ofNullable(journalConfig).orElse(JournalConfig.disabled());
+    this.publishFilterConfig = Optional.ofNullable(publishFilterConfig).orElse(PublishFilterConfig.disabled());
+    this.outputMode = Optional.ofNullable(outputMode).orElse(DEFAULT_OUTPUT_MODE);
   }
 
   public static MqttConfig defaults() {
@@ -57,4 +86,59 @@ public class MqttConfig {
   public boolean hasCredentials() {
     return Objects.nonNull(username) || Objects.nonNull(password);
   }
+
+  public int getPublishQueueCapacity() {
+    return publishQueueCapacity;
+  }
+
+  /**
+   * @return publish policies by mqtt topic filter relative to the root topic, e.g. '+/state'
+   */
+  public Map<String, PublishPolicy> getPublishPolicies() {
+    return publishPolicies;
+  }
+
+  public JournalConfig getJournalConfig() {
+    return journalConfig;
+  }
+
+  public PublishFilterConfig getPublishFilterConfig() {
+    return publishFilterConfig;
+  }
+
+  public OutputMode getOutputMode() {
+    return outputMode;
+  }
+
+  /**
+   * How to queue a message that waits to be published.
+   */
+  public enum PublishPolicy {
+    /* replaces a queued message of the same topic, so only the latest message of a topic is published */
+    COALESCE,
+    /* queues each message and drops the oldest queued message if the queue is full */
+    DROP_OLDEST,
+    /* queues each message and drops the message if the queue is full */
+    DROP_NEWEST
+  }
+
+  /**
+   * How to publish the measurements of a device.
+   */
+  public enum OutputMode {
+    /* publishes each value to its own topic, e.g. '<root topic>/<name>/power' */
+    TOPICS,
+    /* publishes all values of a measurement as one json document to '<root topic>/<name>/json' */
+    JSON,
+    /* publishes both */
+    TOPICS_AND_JSON;
+
+    public boolean publishesTopics() {
+      return this != JSON;
+    }
+
+    public boolean publishesJson() {
+      return this != TOPICS;
+    }
+  }
 }
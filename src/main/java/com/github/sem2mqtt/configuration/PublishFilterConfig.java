@@ -0,0 +1,86 @@
+package com.github.sem2mqtt.configuration;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Publishing of changed measurements only. Filtering is opt-in, without a max age or a deadband each value is
+ * published.
+ */
+public class PublishFilterConfig {
+
+  // republishes unchanged values often enough for dashboards to notice a stale plug
+  public static final Duration DEFAULT_MAX_AGE = Duration.ofMinutes(10);
+  private static final Duration NO_MAX_AGE = Duration.ZERO;
+
+  private final Duration maxAge;
+  private final Deadband power;
+  private final Deadband voltage;
+
+  @JsonCreator
+  public PublishFilterConfig(@JsonProperty(value = "maxAge") Duration maxAge,
+      @JsonProperty(value = "power") Deadband power, @JsonProperty(value = "voltage") Deadband voltage) {
+    boolean filtered = Objects.nonNull(maxAge) || Objects.nonNull(power) || Objects.nonNull(voltage);
+    this.maxAge = Optional.ofNullable(maxAge).filter(age -> !age.isNegative())
+        .orElse(filtered ? DEFAULT_MAX_AGE : NO_MAX_AGE);
+    this.power = Optional.ofNullable(power).orElse(Deadband.NONE);
+    this.voltage = Optional.ofNullable(voltage).orElse(Deadband.NONE);
+  }
+
+  public static PublishFilterConfig disabled() {
+    return new PublishFilterConfig(null, null, null);
+  }
+
+  /**
+   * @return time after which an unchanged value is published again, zero publishes each value, which is the default
+   * unless a deadband is configured
+   */
+  public Duration getMaxAge() {
+    return maxAge;
+  }
+
+  public Deadband getPower() {
+    return power;
+  }
+
+  public Deadband getVoltage() {
+    return voltage;
+  }
+
+  /**
+   * Change of a value that is too small to be published. A change is published if it exceeds the absolute deadband and
+   * the deadband relative to the last published value.
+   */
+  public static class Deadband {
+
+    public static final Deadband NONE = new Deadband(null, null);
+
+    private final double absolute;
+    private final double relative;
+
+    @JsonCreator
+    public Deadband(@JsonProperty(value = "absolute") Double absolute,
+        @JsonProperty(value = "relative") Double relative) {
+      this.absolute = Optional.ofNullable(absolute).map(Math::abs).orElse(0d);
+      this.relative = Optional.ofNullable(relative).map(Math::abs).orElse(0d);
+    }
+
+    public double getAbsolute() {
+      return absolute;
+    }
+
+    /**
+     * @return fraction of the last published value, e.g. 0.05 for 5%
+     */
+    public double getRelative() {
+      return relative;
+    }
+
+    public boolean isExceededBy(double lastPublishedValue, double value) {
+      return Math.abs(value - lastPublishedValue) > Math.max(absolute, relative * Math.abs(lastPublishedValue));
+    }
+  }
+}
@@ -4,24 +4,48 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.time.Duration;
 import java.util.Optional;
+import java.util.regex.Pattern;
 
 public class Sem6000Config {
 
   public static final String DEFAULT_PIN = "0000"; // default pin after factory reset
+  private static final Pattern PIN_PATTERN = Pattern.compile("[0-9]{4}");
   private static final Duration DEFAULT_UPDATE_INTERVAL = Duration.ofMinutes(1);
+  // the energy of today is stored in hourly buckets by the device
+  public static final Duration DEFAULT_ENERGY_UPDATE_INTERVAL = Duration.ofHours(1);
   private final String mac;
   private final String pin;
   private final String name;
   private final Duration updateInterval;
+  private final Duration energyUpdateInterval;
+  private final AdaptivePollingConfig adaptivePolling;
+  private final PublishFilterConfig publishFilter;
 
+  public Sem6000Config(String mac, String pin, String name, Duration updateInterval) {
+    this(mac, pin, name, updateInterval, null, null, null);
+  }
+
+  /**
+   * @throws IllegalArgumentException if the pin does not consist of exactly 4 digits
+   */
   @JsonCreator
   public Sem6000Config(@JsonProperty("mac") String mac, @JsonProperty(value = "pin") String pin,
       @JsonProperty("name") String name,
-      @JsonProperty(value = "updateInterval") Duration updateInterval) {
+      @JsonProperty(value = "updateInterval") Duration updateInterval,
+      @JsonProperty(value = "energyUpdateInterval") Duration energyUpdateInterval,
+      @JsonProperty(value = "adaptivePolling") AdaptivePollingConfig adaptivePolling,
+      @JsonProperty(value = "publishFilter") PublishFilterConfig publishFilter) {
     this.mac = mac;
     this.pin = Optional.ofNullable(pin).orElse(DEFAULT_PIN);
+    if (!PIN_PATTERN.matcher(this.pin).matches()) {
+      throw new IllegalArgumentException(String.format("The pin of sem6000 '%s' must consist of exactly 4 digits.", mac));
+    }
     this.name = name;
     this.updateInterval = Optional.ofNullable(updateInterval).orElse(DEFAULT_UPDATE_INTERVAL);
+    this.energyUpdateInterval = Optional.ofNullable(energyUpdateInterval)
+        .filter(interval -> !interval.isNegative() && !interval.isZero()).orElse(DEFAULT_ENERGY_UPDATE_INTERVAL);
+    this.adaptivePolling = Optional.ofNullable(adaptivePolling).orElse(AdaptivePollingConfig.disabled());
+    this.publishFilter = publishFilter;
   }
 
 
@@ -40,4 +64,25 @@ public class Sem6000Config {
   public Duration getUpdateInterval() {
     return updateInterval;
   }
+
+  /**
+   * @return how often the energy of today is requested, counted from midnight, e.g. shortly after each full hour
+   */
+  public Duration getEnergyUpdateInterval() {
+    return energyUpdateInterval;
+  }
+
+  /**
+   * @return polling faster than the update interval while the power changes, disabled by default
+   */
+  public AdaptivePollingConfig getAdaptivePolling() {
+    return adaptivePolling;
+  }
+
+  /**
+   * @return publishing of changed measurements of this device only, the filter of the mqtt config if empty
+   */
+  public Optional<PublishFilterConfig> getPublishFilter() {
+    return Optional.ofNullable(publishFilter);
+  }
 }
@@ -1,10 +1,27 @@
 package com.github.sem2mqtt.mqtt;
 
 import com.github.sem2mqtt.SemToMqttAppException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.sem2mqtt.configuration.JournalConfig;
 import com.github.sem2mqtt.configuration.MqttConfig;
+import com.github.sem2mqtt.configuration.MqttConfig.PublishPolicy;
+import com.github.sem2mqtt.mqtt.MqttJournal.JournalEntry;
+import com.github.sem2mqtt.mqtt.MqttPublishQueue.PendingMessage;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.eclipse.paho.client.mqttv3.IMqttActionListener;
+import org.eclipse.paho.client.mqttv3.IMqttAsyncClient;
 import org.eclipse.paho.client.mqttv3.IMqttDeliveryToken;
-import org.eclipse.paho.client.mqttv3.MqttCallback;
-import org.eclipse.paho.client.mqttv3.MqttClient;
+import org.eclipse.paho.client.mqttv3.IMqttToken;
+import org.eclipse.paho.client.mqttv3.MqttCallbackExtended;
 import org.eclipse.paho.client.mqttv3.MqttConnectOptions;
 import org.eclipse.paho.client.mqttv3.MqttException;
 import org.eclipse.paho.client.mqttv3.MqttMessage;
@@ -12,29 +29,43 @@ import org.eclipse.paho.client.mqttv3.MqttSecurityException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class MqttConnection implements MqttCallback {
+public class MqttConnection implements MqttCallbackExtended {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(MqttConnection.class);
   private static final boolean DEFAULT_RETAINED = false;
   private static final int DEFAULT_QOS = 0;
 
-  private final MqttClient mqttClient;
+  private static final Duration PUBLISH_RETRY_DELAY = Duration.ofMillis(500);
+  /* Journaled messages are replayed to a sub topic, as they are outdated for the topic itself. */
+  static final String JOURNAL_TOPIC_SUFFIX = "/journal";
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+  private final IMqttAsyncClient mqttClient;
   private final MqttConfig mqttConfig;
   // a higher number of messages "in flight" is expected, as it increases with every sem6000.
   // their data is processed in parallel
   private static final int MAX_INFLIGHT = 200;
+  private final MqttPublishQueue publishQueue;
+  private final Semaphore inflightPermits = new Semaphore(MAX_INFLIGHT);
+  private Thread publisher;
+  /* Journal of messages published while disconnected, null if journaling is disabled. */
+  private volatile MqttJournal journal;
+  private final AtomicBoolean replayingJournal = new AtomicBoolean();
 
-  public MqttConnection(MqttClient mqttClient, MqttConfig mqttConfig) {
+  public MqttConnection(IMqttAsyncClient mqttClient, MqttConfig mqttConfig) {
     this.mqttClient = mqttClient;
     this.mqttConfig = mqttConfig;
+    this.publishQueue = new MqttPublishQueue(mqttConfig);
   }
 
   public void establish() {
+    openJournal();
     mqttClient.setCallback(this);
     try {
       MqttConnectOptions mqttConnectOptions = getMqttConnectOptions();
-      mqttClient.connect(mqttConnectOptions);
+      mqttClient.connect(mqttConnectOptions).waitForCompletion();
       LOGGER.info("Established connection to mqtt server");
+      startPublisher();
     } catch (MqttSecurityException e) {
       throw new SemToMqttAppException(
           "Could not connect, probably because client is not authorized to access mqtt server: ", e);
@@ -43,6 +74,21 @@ public class MqttConnection implements MqttCallback {
     }
   }
 
+  private synchronized void openJournal() {
+    JournalConfig journalConfig = mqttConfig.getJournalConfig();
+    if (!journalConfig.isEnabled() || Objects.nonNull(journal)) {
+      return;
+    }
+    try {
+      journal = MqttJournal.open(journalConfig.getFile(), journalConfig.getMaxSize(),
+          MqttJournal.DEFAULT_FORCE_INTERVAL);
+      LOGGER.info("Journaling messages while disconnected to '{}'", journalConfig.getFile());
+    } catch (IOException | RuntimeException e) {
+      throw new SemToMqttAppException(String.format("Failed to open mqtt journal '%s': ", journalConfig.getFile()),
+          e);
+    }
+  }
+
   private MqttConnectOptions getMqttConnectOptions() {
     MqttConnectOptions connOpt = new MqttConnectOptions();
     connOpt.setCleanSession(true);
@@ -55,6 +101,12 @@ public class MqttConnection implements MqttCallback {
     return connOpt;
   }
 
+  @Override
+  public void connectComplete(boolean reconnect, String serverUri) {
+    LOGGER.info("Connected to mqtt server '{}'", serverUri);
+    replayJournal();
+  }
+
   @Override
   public void connectionLost(Throwable cause) {
     LOGGER.warn("Connection to mqtt server is lost. Reconnecting...");
@@ -73,19 +125,185 @@ public class MqttConnection implements MqttCallback {
 
   public void subscribe(String topic, MessageCallback callback) {
     try {
-      mqttClient.subscribe(topic, callback::handleMqttMessage);
+      mqttClient.subscribe(topic, DEFAULT_QOS, callback::handleMqttMessage).waitForCompletion();
       LOGGER.info("Subscribed to topic '{}'", topic);
     } catch (MqttException e) {
       throw new SemToMqttAppException(String.format("Failed to subscribe to mqtt topic %s: ", topic), e);
     }
   }
 
-  public void publish(String topic, Object payload) {
-    String stringPayload = String.valueOf(payload);
+  /**
+   * Queues the message to be published without waiting for the mqtt server.
+   *
+   * @return completes when the message has been published, or exceptionally if it was dropped or publishing failed
+   */
+  public CompletableFuture<Void> publish(String topic, Object payload) {
+    return publishPayload(topic, String.valueOf(payload).getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Queues the already serialized payload to be published without waiting for the mqtt server. While disconnected,
+   * the message is journaled instead, so it is published only once by the replay.
+   *
+   * @return completes when the message has been published or journaled, or exceptionally if it was dropped or
+   *     publishing failed
+   */
+  public CompletableFuture<Void> publishPayload(String topic, byte[] payload) {
+    MqttJournal currentJournal = journal;
+    if (Objects.nonNull(currentJournal) && !mqttClient.isConnected()) {
+      currentJournal.append(topic, payload, System.currentTimeMillis());
+      return CompletableFuture.completedFuture(null);
+    }
+    return publishQueue.add(topic, payload);
+  }
+
+  private void replayJournal() {
+    if (Objects.isNull(journal) || journal.isEmpty() || !replayingJournal.compareAndSet(false, true)) {
+      return;
+    }
+    Thread replayer = new Thread(this::replayJournaledMessages, "mqtt-journal-replay");
+    replayer.setDaemon(true);
+    replayer.start();
+  }
+
+  /**
+   * Queues the journaled messages in order, but only while connected and while there is room left for current
+   * messages. Stops when the connection is lost, the next connect continues.
+   */
+  private void replayJournaledMessages() {
+    long replayedCount = 0;
     try {
-      this.mqttClient.publish(topic, stringPayload.getBytes(), DEFAULT_QOS, DEFAULT_RETAINED);
-    } catch (MqttException e) {
-      LOGGER.error("Failed to bridge to mqtt, ", e);
+      Optional<JournalEntry> entry;
+      while (awaitRoomForReplay() && (entry = journal.peek()).isPresent()) {
+        JournalEntry journalEntry = entry.get();
+        publishQueue.add(journalEntry.topic + JOURNAL_TOPIC_SUFFIX, toReplayPayload(journalEntry),
+            PublishPolicy.DROP_NEWEST);
+        // the message may have been evicted meanwhile by messages journaled after losing the connection
+        journal.remove(journalEntry);
+        replayedCount++;
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (JsonProcessingException e) {
+      LOGGER.error("Failed to replay journaled message, ", e);
+    } finally {
+      journal.force();
+      replayingJournal.set(false);
+      LOGGER.info("Replayed {} journaled messages, {} bytes left in journal.", replayedCount, journal.usedBytes());
+    }
+  }
+
+  private boolean awaitRoomForReplay() throws InterruptedException {
+    while (mqttClient.isConnected()) {
+      if (publishQueue.size() < mqttConfig.getPublishQueueCapacity() / 2) {
+        return true;
+      }
+      Thread.sleep(PUBLISH_RETRY_DELAY.toMillis());
+    }
+    return false;
+  }
+
+  private static byte[] toReplayPayload(JournalEntry journalEntry) throws JsonProcessingException {
+    return OBJECT_MAPPER.writeValueAsBytes(OBJECT_MAPPER.createObjectNode()
+        .put("timestamp", Instant.ofEpochMilli(journalEntry.timestampMillis).toString())
+        .put("value", new String(journalEntry.payload, StandardCharsets.UTF_8)));
+  }
+
+  private synchronized void startPublisher() {
+    if (Objects.nonNull(publisher)) {
+      return;
+    }
+    publisher = new Thread(this::publishQueuedMessages, "mqtt-publisher");
+    publisher.setDaemon(true);
+    publisher.start();
+  }
+
+  private void publishQueuedMessages() {
+    try {
+      while (!Thread.currentThread().isInterrupted()) {
+        PendingMessage message = publishQueue.take();
+        inflightPermits.acquire();
+        publishUntilAccepted(message);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Retries while the client is not able to accept the message, e.g. while reconnecting. Meanwhile, new messages are
+   * coalesced or dropped by the queue.
+   */
+  private void publishUntilAccepted(PendingMessage message) throws InterruptedException {
+    while (true) {
+      try {
+        mqttClient.publish(message.topic, message.payload, DEFAULT_QOS, DEFAULT_RETAINED, null,
+            new PublishListener(message));
+        return;
+      } catch (MqttException e) {
+        if (!isTemporary(e)) {
+          inflightPermits.release();
+          LOGGER.error("Failed to bridge to mqtt, ", e);
+          message.future.completeExceptionally(e);
+          return;
+        }
+        LOGGER.debug("Mqtt client cannot publish at the moment ({}), retrying.", e.getMessage());
+        Thread.sleep(PUBLISH_RETRY_DELAY.toMillis());
+      }
+    }
+  }
+
+  private static boolean isTemporary(MqttException e) {
+    return e.getReasonCode() == MqttException.REASON_CODE_CLIENT_NOT_CONNECTED
+        || e.getReasonCode() == MqttException.REASON_CODE_CONNECT_IN_PROGRESS
+        || e.getReasonCode() == MqttException.REASON_CODE_MAX_INFLIGHT;
+  }
+
+  public int getPublishQueueDepth() {
+    return publishQueue.size();
+  }
+
+  public long getDroppedMessageCount() {
+    return publishQueue.getDroppedCount();
+  }
+
+  public long getPublishedMessageCount() {
+    return publishQueue.getPublishedCount();
+  }
+
+  /**
+   * @return average time from queueing until publishing a message
+   */
+  public Duration getAveragePublishLatency() {
+    return publishQueue.getAverageLatency();
+  }
+
+  /**
+   * @return longest time from queueing until publishing a message
+   */
+  public Duration getMaxPublishLatency() {
+    return publishQueue.getMaxLatency();
+  }
+
+  private class PublishListener implements IMqttActionListener {
+
+    private final PendingMessage message;
+
+    PublishListener(PendingMessage message) {
+      this.message = message;
+    }
+
+    @Override
+    public void onSuccess(IMqttToken asyncActionToken) {
+      inflightPermits.release();
+      publishQueue.published(message);
+    }
+
+    @Override
+    public void onFailure(IMqttToken asyncActionToken, Throwable exception) {
+      inflightPermits.release();
+      LOGGER.error("Failed to bridge to mqtt, ", exception);
+      message.future.completeExceptionally(exception);
     }
   }
 
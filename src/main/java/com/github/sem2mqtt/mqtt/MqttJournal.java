@@ -0,0 +1,286 @@
+package com.github.sem2mqtt.mqtt;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Append-only journal of mqtt messages in a memory-mapped file of fixed size. The file is used as ring buffer, so the
+ * oldest messages are evicted when it is full. To spare sd cards, the file is written by the page cache and forced to
+ * the disk by a timer once per force interval if it changed, which may lose the messages of the last interval on a
+ * power loss, but not on a crash of the bridge.
+ * <p>
+ * The file starts with a header of the read and write positions, which grow monotonically and wrap around the data
+ * area. Each record consists of its length, a checksum, the timestamp, the topic and the payload.
+ */
+class MqttJournal implements Closeable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(MqttJournal.class);
+  static final Duration DEFAULT_FORCE_INTERVAL = Duration.ofSeconds(30);
+  private static final int MAGIC = 0x53454d4a;
+  private static final int VERSION = 1;
+  private static final int HEAD_OFFSET = 8;
+  private static final int TAIL_OFFSET = 16;
+  private static final int CAPACITY_OFFSET = 24;
+  static final int HEADER_SIZE = 32;
+  /* length and checksum precede the body of each record */
+  private static final int RECORD_PREFIX_SIZE = 8;
+
+  private final FileChannel channel;
+  private final MappedByteBuffer buffer;
+  private final long capacity;
+  private final ScheduledExecutorService forcer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "mqtt-journal-force");
+    thread.setDaemon(true);
+    return thread;
+  });
+  private long head;
+  private long tail;
+  private boolean dirty;
+
+  private MqttJournal(FileChannel channel, MappedByteBuffer buffer) {
+    this.channel = channel;
+    this.buffer = buffer;
+    this.capacity = buffer.capacity() - (long) HEADER_SIZE;
+    readHeader();
+  }
+
+  static MqttJournal open(Path file, long size, Duration forceInterval) throws IOException {
+    if (size <= HEADER_SIZE + RECORD_PREFIX_SIZE || size > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException(String.format("Journal size of %d bytes is not supported.", size));
+    }
+    FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+        StandardOpenOption.WRITE);
+    MqttJournal journal;
+    try {
+      journal = new MqttJournal(channel, channel.map(MapMode.READ_WRITE, 0, size));
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+    journal.startForcing(forceInterval);
+    return journal;
+  }
+
+  /**
+   * Forces changes on a timer, so messages appended right before appending stops are not left in the page cache.
+   */
+  private void startForcing(Duration forceInterval) {
+    forcer.scheduleWithFixedDelay(this::forceQuietly, forceInterval.toNanos(), forceInterval.toNanos(),
+        TimeUnit.NANOSECONDS);
+  }
+
+  private void forceQuietly() {
+    try {
+      force();
+    } catch (RuntimeException e) {
+      // a failing task would not be run again
+      LOGGER.warn("Failed to force journal to the disk.", e);
+    }
+  }
+
+  private void readHeader() {
+    head = buffer.getLong(HEAD_OFFSET);
+    tail = buffer.getLong(TAIL_OFFSET);
+    // positions of a journal of another size do not match the data
+    if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || buffer.getLong(CAPACITY_OFFSET) != capacity
+        || head < 0 || tail < head || tail - head > capacity) {
+      LOGGER.info("Initializing empty journal.");
+      buffer.putInt(0, MAGIC);
+      buffer.putInt(4, VERSION);
+      buffer.putLong(CAPACITY_OFFSET, capacity);
+      head = 0;
+      tail = 0;
+      writeHeader();
+    } else if (tail > head) {
+      LOGGER.info("Found {} bytes of journaled messages.", tail - head);
+    }
+  }
+
+  private void writeHeader() {
+    buffer.putLong(HEAD_OFFSET, head);
+    buffer.putLong(TAIL_OFFSET, tail);
+    dirty = true;
+  }
+
+  synchronized void append(String topic, byte[] payload, long timestampMillis) {
+    byte[] topicBytes = topic.getBytes(StandardCharsets.UTF_8);
+    ByteBuffer body = ByteBuffer.allocate(Long.BYTES + Integer.BYTES + topicBytes.length + payload.length);
+    body.putLong(timestampMillis).putInt(topicBytes.length).put(topicBytes).put(payload);
+    long recordSize = RECORD_PREFIX_SIZE + (long) body.capacity();
+    if (recordSize > capacity) {
+      LOGGER.warn("Message to topic '{}' is too large for the journal.", topic);
+      return;
+    }
+    while (tail - head + recordSize > capacity) {
+      // evict the oldest record
+      int length = readInt(head);
+      if (!isValidRecordLength(length)) {
+        discardCorruptJournal();
+        break;
+      }
+      head += RECORD_PREFIX_SIZE + length;
+    }
+    CRC32 checksum = new CRC32();
+    checksum.update(body.array());
+    write(tail, ByteBuffer.allocate(RECORD_PREFIX_SIZE).putInt(body.capacity()).putInt((int) checksum.getValue())
+        .array());
+    write(tail + RECORD_PREFIX_SIZE, body.array());
+    tail += recordSize;
+    writeHeader();
+  }
+
+  /**
+   * @return the oldest journaled message, empty if the journal is empty
+   */
+  synchronized Optional<JournalEntry> peek() {
+    if (tail == head) {
+      return Optional.empty();
+    }
+    int length = readInt(head);
+    if (!isValidRecordLength(length)) {
+      discardCorruptJournal();
+      return Optional.empty();
+    }
+    byte[] body = read(head + RECORD_PREFIX_SIZE, length);
+    CRC32 checksum = new CRC32();
+    checksum.update(body);
+    if ((int) checksum.getValue() != readInt(head + Integer.BYTES)) {
+      discardCorruptJournal();
+      return Optional.empty();
+    }
+    ByteBuffer bodyBuffer = ByteBuffer.wrap(body);
+    long timestampMillis = bodyBuffer.getLong();
+    byte[] topic = new byte[bodyBuffer.getInt()];
+    bodyBuffer.get(topic);
+    byte[] payload = new byte[bodyBuffer.remaining()];
+    bodyBuffer.get(payload);
+    return Optional.of(
+        new JournalEntry(head, new String(topic, StandardCharsets.UTF_8), payload, timestampMillis));
+  }
+
+  /**
+   * @return whether a record of the length fits between the head and the tail and holds a timestamp and a topic length
+   */
+  private boolean isValidRecordLength(int length) {
+    return length >= Long.BYTES + Integer.BYTES && RECORD_PREFIX_SIZE + (long) length <= tail - head;
+  }
+
+  private void discardCorruptJournal() {
+    LOGGER.warn("Journal is corrupt, discarding {} bytes of journaled messages.", tail - head);
+    head = tail;
+    writeHeader();
+  }
+
+  /**
+   * Removes the peeked message, e.g. after it has been replayed, unless it has been evicted since it was peeked. The
+   * messages after it are kept in any case.
+   *
+   * @return whether the message was removed
+   */
+  synchronized boolean remove(JournalEntry entry) {
+    if (head != entry.position || tail == head) {
+      return false;
+    }
+    int length = readInt(head);
+    if (!isValidRecordLength(length)) {
+      discardCorruptJournal();
+      return false;
+    }
+    head += RECORD_PREFIX_SIZE + length;
+    writeHeader();
+    return true;
+  }
+
+  synchronized boolean isEmpty() {
+    return tail == head;
+  }
+
+  /**
+   * @return count of bytes used by journaled messages
+   */
+  synchronized long usedBytes() {
+    return tail - head;
+  }
+
+  synchronized void force() {
+    if (dirty) {
+      buffer.force();
+      dirty = false;
+    }
+  }
+
+  /**
+   * @return whether changes have not been forced to the disk yet
+   */
+  synchronized boolean isDirty() {
+    return dirty;
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    forcer.shutdownNow();
+    force();
+    channel.close();
+  }
+
+  private int readInt(long position) {
+    return ByteBuffer.wrap(read(position, Integer.BYTES)).getInt();
+  }
+
+  private byte[] read(long position, int length) {
+    byte[] bytes = new byte[length];
+    int offset = physical(position);
+    int firstPart = (int) Math.min(length, HEADER_SIZE + capacity - offset);
+    ByteBuffer view = buffer.duplicate();
+    view.position(offset);
+    view.get(bytes, 0, firstPart);
+    view.position(HEADER_SIZE);
+    view.get(bytes, firstPart, length - firstPart);
+    return bytes;
+  }
+
+  private void write(long position, byte[] bytes) {
+    int offset = physical(position);
+    int firstPart = (int) Math.min(bytes.length, HEADER_SIZE + capacity - offset);
+    ByteBuffer view = buffer.duplicate();
+    view.position(offset);
+    view.put(bytes, 0, firstPart);
+    view.position(HEADER_SIZE);
+    view.put(bytes, firstPart, bytes.length - firstPart);
+  }
+
+  private int physical(long position) {
+    return (int) (HEADER_SIZE + position % capacity);
+  }
+
+  static class JournalEntry {
+
+    /* position of the record in the journal, which is never reused as positions grow monotonically */
+    private final long position;
+    final String topic;
+    final byte[] payload;
+    final long timestampMillis;
+
+    private JournalEntry(long position, String topic, byte[] payload, long timestampMillis) {
+      this.position = position;
+      this.topic = topic;
+      this.payload = payload;
+      this.timestampMillis = timestampMillis;
+    }
+  }
+}
@@ -0,0 +1,160 @@
+package com.github.sem2mqtt.mqtt;
+
+import com.github.sem2mqtt.configuration.MqttConfig;
+import com.github.sem2mqtt.configuration.MqttConfig.PublishPolicy;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import org.eclipse.paho.client.mqttv3.MqttTopic;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounded queue of messages waiting to be published. Adding a message never blocks, so the bridge does not wait for a
+ * slow or reconnecting mqtt server. Depending on the policy of the topic, a queued message of the same topic is replaced
+ * or a message is dropped when the queue is full.
+ */
+class MqttPublishQueue {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(MqttPublishQueue.class);
+
+  private final int capacity;
+  private final Map<String, PublishPolicy> publishPoliciesByFilter = new LinkedHashMap<>();
+  private final Map<String, PublishPolicy> publishPoliciesByTopic = new ConcurrentHashMap<>();
+  /* Coalesced messages are keyed by their topic, others by a unique key. Guarded by this. */
+  private final LinkedHashMap<Object, PendingMessage> pendingMessages = new LinkedHashMap<>();
+  private long droppedCount;
+  private long publishedCount;
+  private long totalLatencyNanos;
+  private long maxLatencyNanos;
+
+  MqttPublishQueue(MqttConfig mqttConfig) {
+    this.capacity = mqttConfig.getPublishQueueCapacity();
+    mqttConfig.getPublishPolicies().forEach(
+        (topicFilter, policy) -> publishPoliciesByFilter.put(mqttConfig.getRootTopic() + "/" + topicFilter, policy));
+  }
+
+  /**
+   * @return completes when the message has been published, or exceptionally if it was dropped or publishing failed
+   */
+  CompletableFuture<Void> add(String topic, byte[] payload) {
+    return add(topic, payload, policyFor(topic));
+  }
+
+  /**
+   * Queues the message with the given policy instead of the policy configured for the topic.
+   */
+  synchronized CompletableFuture<Void> add(String topic, byte[] payload, PublishPolicy policy) {
+    PendingMessage message = new PendingMessage(topic, payload);
+    if (policy == PublishPolicy.COALESCE && pendingMessages.containsKey(topic)) {
+      // replacing keeps the position in the queue, so a frequently updated topic is not starved
+      PendingMessage replacedMessage = pendingMessages.put(topic, message);
+      message.future.whenComplete((ignored, e) -> completeLike(replacedMessage.future, e));
+      return message.future;
+    }
+    if (pendingMessages.size() >= capacity) {
+      if (policy == PublishPolicy.DROP_NEWEST) {
+        drop(message);
+        return message.future;
+      }
+      drop(removeFirst());
+    }
+    pendingMessages.put(policy == PublishPolicy.COALESCE ? topic : new Object(), message);
+    notifyAll();
+    return message.future;
+  }
+
+  /**
+   * Waits until a message is queued.
+   */
+  synchronized PendingMessage take() throws InterruptedException {
+    while (pendingMessages.isEmpty()) {
+      wait();
+    }
+    return removeFirst();
+  }
+
+  synchronized int size() {
+    return pendingMessages.size();
+  }
+
+  synchronized long getDroppedCount() {
+    return droppedCount;
+  }
+
+  synchronized long getPublishedCount() {
+    return publishedCount;
+  }
+
+  /**
+   * @return average time from queueing until publishing a message
+   */
+  synchronized Duration getAverageLatency() {
+    return publishedCount == 0 ? Duration.ZERO : Duration.ofNanos(totalLatencyNanos / publishedCount);
+  }
+
+  /**
+   * @return longest time from queueing until publishing a message
+   */
+  synchronized Duration getMaxLatency() {
+    return Duration.ofNanos(maxLatencyNanos);
+  }
+
+  void published(PendingMessage message) {
+    long latencyNanos = System.nanoTime() - message.queuedAtNanos;
+    synchronized (this) {
+      publishedCount++;
+      totalLatencyNanos += latencyNanos;
+      maxLatencyNanos = Math.max(maxLatencyNanos, latencyNanos);
+    }
+    message.future.complete(null);
+  }
+
+  private PublishPolicy policyFor(String topic) {
+    return publishPoliciesByTopic.computeIfAbsent(topic,
+        t -> publishPoliciesByFilter.entrySet().stream().filter(entry -> MqttTopic.isMatched(entry.getKey(), t))
+            .map(Entry::getValue).findFirst().orElse(MqttConfig.DEFAULT_PUBLISH_POLICY));
+  }
+
+  private PendingMessage removeFirst() {
+    Iterator<PendingMessage> iterator = pendingMessages.values().iterator();
+    PendingMessage message = iterator.next();
+    iterator.remove();
+    return message;
+  }
+
+  private void drop(PendingMessage message) {
+    droppedCount++;
+    if (droppedCount == 1 || droppedCount % 100 == 0) {
+      LOGGER.warn("Publish queue is full, dropped {} messages so far.", droppedCount);
+    }
+    message.future.completeExceptionally(new CancellationException(
+        String.format("Message to topic '%s' was dropped, because the publish queue is full.", message.topic)));
+  }
+
+  private static void completeLike(CompletableFuture<Void> future, Throwable e) {
+    if (e == null) {
+      future.complete(null);
+    } else {
+      future.completeExceptionally(e);
+    }
+  }
+
+  static class PendingMessage {
+
+    final String topic;
+    final byte[] payload;
+    final CompletableFuture<Void> future = new CompletableFuture<>();
+    private final long queuedAtNanos = System.nanoTime();
+
+    PendingMessage(String topic, byte[] payload) {
+      this.topic = topic;
+      this.payload = payload;
+    }
+  }
+}
@@ -1,13 +1,23 @@
 package com.github.sem2mqtt.mqtt;
 
 import java.util.Arrays;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
 
+/**
+ * Setter topic of a sem6000 device, i.e. {@code <root topic>/<plug name>/<type>/set}. The topic is parsed once by
+ * splitting, so handling a burst of messages does not compile patterns. Topics without the {@code /set} suffix are not
+ * setters.
+ */
 public class Sem6000MqttTopic {
 
+  private static final String SETTER_SUFFIX = "/set";
+  private static final Map<String, Type> TYPES_BY_NAME = Map.of("relay", Type.RELAY, "led", Type.LED, "measure",
+      Type.MEASURE);
+
   public enum Type {
-    RELAY, UNKNOWN, LED;
+    RELAY, UNKNOWN, LED, MEASURE;
 
     public static Type safeValueOf(String type) {
       return Arrays.stream(Type.values()).filter(t -> t.name().equalsIgnoreCase(type)).findFirst()
@@ -15,35 +25,78 @@ public class Sem6000MqttTopic {
     }
   }
 
-  private final String rootTopic;
   private final String topic;
-  private final String sem6000PlugName;
+  private final String plugName;
+  private final Type type;
 
   public Sem6000MqttTopic(String rootTopic, String topic, String sem6000PlugName) {
-    this.rootTopic = rootTopic;
+    this(topic, sem6000PlugName, parseType(rootTopic, topic, sem6000PlugName));
+  }
+
+  private Sem6000MqttTopic(String topic, String plugName, Type type) {
     this.topic = topic;
-    this.sem6000PlugName = sem6000PlugName;
+    this.plugName = plugName;
+    this.type = type;
   }
 
-  public Type getType() {
-    Matcher matcher = Pattern.compile(getMatcherForValidTopics()).matcher(topic);
-    if (matcher.matches()) {
-      return Type.safeValueOf(matcher.group("type"));
-    } else {
+  private static Type parseType(String rootTopic, String topic, String sem6000PlugName) {
+    int plugNameStart = rootTopic.length() + 1;
+    int typeStart = plugNameStart + sem6000PlugName.length() + 1;
+    int typeEnd = topic.length() - SETTER_SUFFIX.length();
+    if (typeEnd <= typeStart || !topic.endsWith(SETTER_SUFFIX) || !topic.startsWith(rootTopic)
+        || topic.charAt(plugNameStart - 1) != '/' || !topic.startsWith(sem6000PlugName, plugNameStart)
+        || topic.charAt(typeStart - 1) != '/') {
       return Type.UNKNOWN;
     }
+    return TYPES_BY_NAME.getOrDefault(topic.substring(typeStart, typeEnd), Type.UNKNOWN);
   }
 
-  public boolean isValid() {
-    return topic.matches(getMatcherForValidTopics());
+  /**
+   * Splits the topic into the plug name and the type in a single pass.
+   *
+   * @return the setter of the topic, empty if the topic is not a setter below the root topic
+   */
+  public static Optional<Sem6000MqttTopic> parse(String rootTopic, String topic) {
+    int plugNameStart = rootTopic.length() + 1;
+    if (topic.length() <= plugNameStart || !topic.startsWith(rootTopic) || topic.charAt(plugNameStart - 1) != '/'
+        || !topic.endsWith(SETTER_SUFFIX)) {
+      return Optional.empty();
+    }
+    int plugNameEnd = topic.indexOf('/', plugNameStart);
+    int typeEnd = topic.length() - SETTER_SUFFIX.length();
+    if (plugNameEnd < 0 || plugNameEnd >= typeEnd) {
+      return Optional.empty();
+    }
+    return Optional.of(new Sem6000MqttTopic(topic, topic.substring(plugNameStart, plugNameEnd),
+        TYPES_BY_NAME.getOrDefault(topic.substring(plugNameEnd + 1, typeEnd), Type.UNKNOWN)));
   }
 
-  private String getMatcherForValidTopics() {
-    return String.format("^%s\\/%s\\/(?<type>relay|led)$", rootTopic, sem6000PlugName);
+  /**
+   * @return the setter of the type for the plug
+   */
+  public static Sem6000MqttTopic setterOf(String rootTopic, String sem6000PlugName, Type type) {
+    return new Sem6000MqttTopic(
+        rootTopic + "/" + sem6000PlugName + "/" + type.name().toLowerCase(Locale.ROOT) + SETTER_SUFFIX,
+        sem6000PlugName, type);
+  }
+
+  public String getPlugName() {
+    return plugName;
+  }
+
+  public Type getType() {
+    return type;
+  }
+
+  public boolean isValid() {
+    return type != Type.UNKNOWN;
   }
 
-  public static String createSetterSubscription(String rootTopic, String name) {
-    return String.format("%s/%s/+/set", rootTopic, name);
+  /**
+   * @return a subscription to the setters of all devices
+   */
+  public static String createSetterSubscription(String rootTopic) {
+    return rootTopic + "/+/+" + SETTER_SUFFIX;
   }
 
   @Override
@@ -2,21 +2,38 @@ package org.magcode.sem6000.connector;
 
 public class ByteUtils {
 
-  private static final char[] HEX_ARRAY = "0123456789ABCDEF".toCharArray();
+  private static final char[] HEX_ARRAY = "0123456789abcdef".toCharArray();
 
   private ByteUtils() {
     // no constructor for helper class
   }
 
   public static String byteArrayToHex(byte[] bytes) {
+    return byteArrayToHex(bytes, 0, bytes.length);
+  }
 
-    char[] hexChars = new char[bytes.length * 2];
-    for (int j = 0; j < bytes.length; j++) {
-      int v = bytes[j] & 0xFF;
+  public static String byteArrayToHex(byte[] bytes, int offset, int length) {
+    char[] hexChars = new char[length * 2];
+    for (int j = 0; j < length; j++) {
+      int v = bytes[offset + j] & 0xFF;
       hexChars[j * 2] = HEX_ARRAY[v >>> 4];
       hexChars[j * 2 + 1] = HEX_ARRAY[v & 0x0F];
     }
-    return new String(hexChars).toLowerCase();
+    return new String(hexChars);
+  }
+
+  /**
+   * Reads a signed big endian 16 bit value.
+   */
+  public static int readInt16(byte[] bytes, int offset) {
+    return (bytes[offset] << 8) | (bytes[offset + 1] & 0xFF);
+  }
+
+  /**
+   * Reads a signed big endian 24 bit value.
+   */
+  public static int readInt24(byte[] bytes, int offset) {
+    return (bytes[offset] << 16) | ((bytes[offset + 1] & 0xFF) << 8) | (bytes[offset + 2] & 0xFF);
   }
 
 }
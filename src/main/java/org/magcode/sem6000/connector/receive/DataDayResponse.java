@@ -1,24 +1,30 @@
 package org.magcode.sem6000.connector.receive;
 
-import java.math.BigInteger;
 import java.time.LocalDateTime;
+import org.magcode.sem6000.connector.ByteUtils;
 
 public class DataDayResponse extends SemResponse {
 
+  private static final int HOURS = 24;
   private final int en24h;
   private final int enToday;
 
   public DataDayResponse(byte[] values) {
+    this(values, 0, LocalDateTime.now());
+  }
+
+  /**
+   * Decodes the 24 hourly values starting at the offset. The last value belongs to the current hour, so the values of
+   * today are the last ones up to the hour of the given point in time.
+   */
+  public DataDayResponse(byte[] values, int offset, LocalDateTime now) {
     super(ResponseType.DATADAY);
-    LocalDateTime now = LocalDateTime.now();
+    int firstHourOfToday = HOURS - 1 - now.getHour();
     int total = 0;
     int today = 0;
-    for (int i = 0; i < 24; i = i + 1) {
-      byte[] cv = new byte[]{values[i * 2], values[(i * 2) + 1]};
-      LocalDateTime timeOfValue = LocalDateTime.now().plusHours(-23 + (long) i).withMinute(0).withSecond(0).withNano(0);
-
-      int hourVal = new BigInteger(cv).intValue();
-      if (now.getDayOfMonth() == timeOfValue.getDayOfMonth()) {
+    for (int i = 0; i < HOURS; i = i + 1) {
+      int hourVal = ByteUtils.readInt16(values, offset + i * 2);
+      if (i >= firstHourOfToday) {
         today = today + hourVal;
       }
       total = total + hourVal;
@@ -39,4 +45,4 @@ public class DataDayResponse extends SemResponse {
     return enToday;
   }
 
-}
\ No newline at end of file
+}
@@ -1,21 +1,25 @@
 package org.magcode.sem6000.connector.receive;
 
-import java.math.BigInteger;
+import org.magcode.sem6000.connector.ByteUtils;
 
 public class MeasurementResponse extends SemResponse {
 
   private final int voltage;
   private final float power;
-  private boolean powerOn = false;
+  private final boolean powerOn;
 
   public MeasurementResponse(byte[] data) {
+    this(data, 0);
+  }
+
+  /**
+   * Decodes the measurement payload starting at the offset: relay state, power in mW (24 bit) and voltage.
+   */
+  public MeasurementResponse(byte[] data, int offset) {
     super(ResponseType.MEASURE);
-    if (data[0] == (byte) 0x01) {
-      powerOn = true;
-    }
-    byte[] cv = new byte[]{data[1], data[2], data[3]};
-    this.power = (float) new BigInteger(cv).intValue() / 1000;
-    this.voltage = data[4] & 0xFF;
+    this.powerOn = data[offset] == (byte) 0x01;
+    this.power = (float) ByteUtils.readInt24(data, offset + 1) / 1000;
+    this.voltage = data[offset + 4] & 0xFF;
   }
 
   public int getVoltage() {
@@ -34,4 +38,4 @@ public class MeasurementResponse extends SemResponse {
   public boolean isPowerOn() {
     return powerOn;
   }
-}
\ No newline at end of file
+}
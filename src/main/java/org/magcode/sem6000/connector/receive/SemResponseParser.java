@@ -1,5 +1,8 @@
 package org.magcode.sem6000.connector.receive;
 
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.Arrays;
 import org.magcode.sem6000.connector.ByteUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -11,36 +14,57 @@ public class SemResponseParser {
   }
 
   private static final Logger LOGGER = LoggerFactory.getLogger(SemResponseParser.class);
+  private static final int DATA_DAY_LENGTH = 0x33;
 
   public static SemResponse parseMessage(byte[] message) {
-    LOGGER.atDebug().log(() -> String.format("Parsing sem6000 message '%s'", ByteUtils.byteArrayToHex(message)));
-    if (message[3] != (byte) 0x00) {
+    return parseMessage(message, 0, message.length);
+  }
+
+  public static SemResponse parseMessage(byte[] message, Clock clock) {
+    return parseMessage(message, 0, message.length, clock);
+  }
+
+  public static SemResponse parseMessage(byte[] message, int offset, int length) {
+    return parseMessage(message, offset, length, Clock.systemDefaultZone());
+  }
+
+  /**
+   * Parses the frame at the given offset of the message without copying it. Values are read directly from the frame.
+   * Time dependent values are related to a single instant of the clock.
+   */
+  public static SemResponse parseMessage(byte[] message, int offset, int length, Clock clock) {
+    LOGGER.atDebug()
+        .log(() -> String.format("Parsing sem6000 message '%s'", ByteUtils.byteArrayToHex(message, offset, length)));
+    if (length < 4) {
+      return new IncompleteResponse(Arrays.copyOfRange(message, offset, offset + length));
+    }
+
+    if (message[offset + 3] != (byte) 0x00) {
       LOGGER.debug("Message is unknown.");
       return new UnknownResponse();
     }
 
-    if (message[0] != (byte) 0x0f) {
-      return new IncompleteResponse(message);
+    if (message[offset] != (byte) 0x0f) {
+      return new IncompleteResponse(Arrays.copyOfRange(message, offset, offset + length));
     }
 
-    int expectedLen = message[1] & 0xFF;
-    int actualLen = message.length;
-    if (!(actualLen - expectedLen - 4 == 0 || actualLen - expectedLen - 2 == 0)) {
-      LOGGER.debug("Message is not complete. Expected length: {}, actual length: {}.", expectedLen, actualLen);
-      return new IncompleteResponse(message);
+    int expectedLen = message[offset + 1] & 0xFF;
+    if (!(length - expectedLen - 4 == 0 || length - expectedLen - 2 == 0)) {
+      LOGGER.debug("Message is not complete. Expected length: {}, actual length: {}.", expectedLen, length);
+      return new IncompleteResponse(Arrays.copyOfRange(message, offset, offset + length));
     }
 
-    switch (message[2]) {
+    switch (message[offset + 2]) {
       case (byte) 0x17:
-        return new LoginResponse(message[4]);
+        return new LoginResponse(message[offset + 4]);
       case (byte) 0x04:
-        return handleMeasurementResponse(message);
+        return new MeasurementResponse(message, offset + 4);
       case (byte) 0x0a:
-        return handleDataDayResponse(message, actualLen);
+        return handleDataDayResponse(message, offset, length, clock);
       case (byte) 0x01:
-        return new SyncTimeResponse(message[4]);
+        return new SyncTimeResponse(message[offset + 4]);
       case (byte) 0x03:
-        return new SwitchResponse(message[4]);
+        return new SwitchResponse(message[offset + 4]);
       case (byte) 0x0f:
         return new LedResponse();
       default:
@@ -48,17 +72,12 @@ public class SemResponseParser {
     }
   }
 
-  private static MeasurementResponse handleMeasurementResponse(byte[] message) {
-    byte[] measurement = new byte[48];
-    System.arraycopy(message, 4, measurement, 0, 14);
-    return new MeasurementResponse(measurement);
-  }
-
-  private static SemResponse handleDataDayResponse(byte[] message, int actualLen) {
-    if (actualLen == 55 && message[actualLen - 1] == (byte) 0xff) {
-      byte[] dataday = new byte[48];
-      System.arraycopy(message, 4, dataday, 0, 48);
-      return new DataDayResponse(dataday);
+  private static SemResponse handleDataDayResponse(byte[] message, int offset, int length, Clock clock) {
+    int expectedLen = message[offset + 1] & 0xFF;
+    // the trailer is optional, as it may be cut off when the response is split into multiple notifications
+    boolean hasValidEnd = length == expectedLen + 2 || message[offset + length - 1] == (byte) 0xff;
+    if (expectedLen == DATA_DAY_LENGTH && hasValidEnd) {
+      return new DataDayResponse(message, offset + 4, LocalDateTime.now(clock));
     } else {
       return new UnknownResponse();
     }
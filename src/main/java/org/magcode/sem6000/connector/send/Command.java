@@ -1,9 +1,8 @@
 package org.magcode.sem6000.connector.send;
 
-import com.github.sem2mqtt.bluetooth.sem6000.SendingException;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
+import java.nio.ByteBuffer;
 import org.magcode.sem6000.connector.ByteUtils;
+import org.magcode.sem6000.connector.receive.ResponseType;
 
 public abstract class Command {
 
@@ -17,6 +16,9 @@ public abstract class Command {
     setMessage(message);
   }
 
+  /**
+   * Returns the encoded frame. Constant commands share their frame, therefore, the returned array must not be modified.
+   */
   public byte[] getMessage() {
     return message;
   }
@@ -25,39 +27,16 @@ public abstract class Command {
     this.message = message;
   }
 
+  /**
+   * Type of the response the device answers this command with.
+   */
+  public abstract ResponseType getResponseType();
 
-  public static byte[] buildMessage(String command, byte[] payload) throws SendingException {
-    byte[] bcom = hexStringToByteArray(command);
-    byte[] bstart = hexStringToByteArray("0f");
-    byte[] bend = hexStringToByteArray("ffff");
-    int len = 1 + payload.length + bcom.length;
-    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-    try {
-      outputStream.write(bstart);
-      outputStream.write((byte) len);
-      outputStream.write(bcom);
-      outputStream.write(payload);
-      outputStream.write((byte) 0x00);
-      outputStream.write(bend);
-    } catch (IOException e) {
-      throw new SendingException("Failed to build message, ", e);
-    }
-
-    byte[] checksum = outputStream.toByteArray();
-
-    int currentValue = 1;
-
-    for (int i = 2; i < len + 1; i++) {
-      currentValue = currentValue + checksum[i];
-    }
-    checksum[checksum.length - 3] = (byte) currentValue;
-    return checksum;
-  }
-
-  public static byte[] getMessage(String command, String payload) throws SendingException {
-    byte[] bpay = hexStringToByteArray(payload);
-    return buildMessage(command, bpay);
-
+  /**
+   * Copies the encoded frame into the target buffer at its current position.
+   */
+  public void writeTo(ByteBuffer target) {
+    target.put(message);
   }
 
   public static byte[] hexStringToByteArray(String s) {
@@ -69,6 +48,11 @@ public abstract class Command {
     return data;
   }
 
+  @Override
+  public String toString() {
+    return getClass().getSimpleName();
+  }
+
   public String getReadableMessage() {
     return ByteUtils.byteArrayToHex(this.message);
   }
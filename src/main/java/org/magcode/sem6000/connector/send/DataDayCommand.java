@@ -1,11 +1,18 @@
 package org.magcode.sem6000.connector.send;
 
-import com.github.sem2mqtt.bluetooth.sem6000.SendingException;
+import org.magcode.sem6000.connector.receive.ResponseType;
 
 public class DataDayCommand extends Command {
 
-  public DataDayCommand() throws SendingException {
-    byte[] message = getMessage("0a", "000000");
-    setMessage(message);
+  public static final byte OPCODE = (byte) 0x0a;
+  private static final byte[] FRAME = Sem6000FrameEncoder.encode(OPCODE, new byte[]{0x00, 0x00, 0x00});
+
+  public DataDayCommand() {
+    super(FRAME);
+  }
+
+  @Override
+  public ResponseType getResponseType() {
+    return ResponseType.DATADAY;
   }
-}
\ No newline at end of file
+}
@@ -1,31 +1,31 @@
 package org.magcode.sem6000.connector.send;
 
-import com.github.sem2mqtt.bluetooth.sem6000.SendingException;
+import org.magcode.sem6000.connector.receive.ResponseType;
 
 public class LedCommand extends Command {
 
+  public static final byte OPCODE = (byte) 0x0f;
+
   private final boolean state;
 
-  public LedCommand(boolean state) throws SendingException {
+  public LedCommand(boolean state) {
     this.state = state;
-    byte[] payload = new byte[6];
-    payload[0] = (byte) 0x05;
+    byte[] body = new byte[7];
+    body[1] = (byte) 0x05;
     if (state) {
-      payload[1] = (byte) 0x01;
-    } else {
-      payload[1] = (byte) 0x00;
+      body[2] = (byte) 0x01;
     }
-    payload[2] = (byte) 0x00;
-    payload[3] = (byte) 0x00;
-		payload[4] = (byte) 0x00;
-		payload[5] = (byte) 0x00;
-
-		byte[] message = buildMessage("0f00", payload);
-		setMessage(message);
-	}
-
-	@Override
-	public String toString() {
-		return String.format("led %s", state ? "on" : "off");
-	}
+
+    setMessage(Sem6000FrameEncoder.encode(OPCODE, body));
+  }
+
+  @Override
+  public String toString() {
+    return String.format("led %s", state ? "on" : "off");
+  }
+
+  @Override
+  public ResponseType getResponseType() {
+    return ResponseType.LED;
+  }
 }
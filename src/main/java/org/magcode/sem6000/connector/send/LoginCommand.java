@@ -1,29 +1,41 @@
 package org.magcode.sem6000.connector.send;
 
-import com.github.sem2mqtt.bluetooth.sem6000.SendingException;
+import org.magcode.sem6000.connector.receive.ResponseType;
 
 public class LoginCommand extends Command {
 
-	public LoginCommand(String pin) throws SendingException {
-		char[] pinA = pin.toCharArray();
-		Integer pos1 = Integer.valueOf(pinA[0] + "");
-		Integer pos2 = Integer.valueOf(pinA[1] + "");
-		Integer pos3 = Integer.valueOf(pinA[2] + "");
-		Integer pos4 = Integer.valueOf(pinA[3] + "");
-		byte[] payload = new byte[9];
-		payload[0] = (byte) 0x00;
-		payload[1] = pos1.byteValue();
-		payload[2] = pos2.byteValue();
-		payload[3] = pos3.byteValue();
-		payload[4] = pos4.byteValue();
-		payload[5] = (byte) 0x00;
-		payload[6] = (byte) 0x00;
-		payload[7] = (byte) 0x00;
-		payload[8] = (byte) 0x00;
+	public static final byte OPCODE = (byte) 0x17;
+	private static final int PIN_LENGTH = 4;
 
-		byte[] message = buildMessage("1700", payload);
+	/**
+	 * @throws IllegalArgumentException if the pin does not consist of exactly 4 digits
+	 */
+	public LoginCommand(String pin) {
+		if (!isValidPin(pin)) {
+			throw new IllegalArgumentException("The pin of a sem6000 must consist of exactly " + PIN_LENGTH + " digits.");
+		}
+		byte[] body = new byte[10];
+		for (int i = 0; i < PIN_LENGTH; i++) {
+			body[2 + i] = (byte) Character.digit(pin.charAt(i), 10);
+		}
 
-		setMessage(message);
+		setMessage(Sem6000FrameEncoder.encode(OPCODE, body));
 	}
 
+	private static boolean isValidPin(String pin) {
+		if (pin == null || pin.length() != PIN_LENGTH) {
+			return false;
+		}
+		for (int i = 0; i < PIN_LENGTH; i++) {
+			if (pin.charAt(i) < '0' || pin.charAt(i) > '9') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public ResponseType getResponseType() {
+		return ResponseType.LOGIN;
+	}
 }
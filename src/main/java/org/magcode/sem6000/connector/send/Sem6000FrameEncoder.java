@@ -0,0 +1,82 @@
+package org.magcode.sem6000.connector.send;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Encodes sem6000 frames without intermediate buffers. A frame consists of the start byte, the length, the opcode, the
+ * body, a checksum and the trailer:
+ * <pre>0f | length | opcode | body... | checksum | ff ff</pre>
+ * The length counts opcode, body and checksum. The checksum is the lowest byte of one plus the sum of opcode and body.
+ */
+public final class Sem6000FrameEncoder {
+
+  public static final byte START = (byte) 0x0f;
+  public static final byte TRAILER = (byte) 0xff;
+  /* start, length, opcode, checksum and two trailer bytes */
+  public static final int FRAME_OVERHEAD = 6;
+
+  private Sem6000FrameEncoder() {
+    // no constructor for helper class
+  }
+
+  public static int frameLength(int bodyLength) {
+    return bodyLength + FRAME_OVERHEAD;
+  }
+
+  /**
+   * Allocates a new array holding the frame. Meant for building frames once, e.g. for constant commands.
+   */
+  public static byte[] encode(byte opcode, byte[] body) {
+    byte[] frame = new byte[frameLength(body.length)];
+    encode(opcode, body, 0, body.length, frame, 0);
+    return frame;
+  }
+
+  /**
+   * Writes the frame into the target array starting at the target offset.
+   *
+   * @return the count of bytes written
+   */
+  public static int encode(byte opcode, byte[] body, int bodyOffset, int bodyLength, byte[] target,
+      int targetOffset) {
+    int frameLength = frameLength(bodyLength);
+    if (targetOffset + frameLength > target.length) {
+      throw new BufferOverflowException();
+    }
+    int checksum = 1 + opcode;
+    target[targetOffset] = START;
+    target[targetOffset + 1] = (byte) (bodyLength + 2);
+    target[targetOffset + 2] = opcode;
+    for (int i = 0; i < bodyLength; i++) {
+      byte value = body[bodyOffset + i];
+      target[targetOffset + 3 + i] = value;
+      checksum += value;
+    }
+    target[targetOffset + 3 + bodyLength] = (byte) checksum;
+    target[targetOffset + 4 + bodyLength] = TRAILER;
+    target[targetOffset + 5 + bodyLength] = TRAILER;
+    return frameLength;
+  }
+
+  /**
+   * Writes the frame into the target buffer at its current position and advances the position by the frame length.
+   *
+   * @return the count of bytes written
+   */
+  public static int encode(byte opcode, byte[] body, int bodyOffset, int bodyLength, ByteBuffer target) {
+    int frameLength = frameLength(bodyLength);
+    if (target.remaining() < frameLength) {
+      throw new BufferOverflowException();
+    }
+    int checksum = 1 + opcode;
+    target.put(START).put((byte) (bodyLength + 2)).put(opcode);
+    for (int i = 0; i < bodyLength; i++) {
+      byte value = body[bodyOffset + i];
+      target.put(value);
+      checksum += value;
+    }
+    target.put((byte) checksum).put(TRAILER).put(TRAILER);
+    return frameLength;
+  }
+}
@@ -1,24 +1,30 @@
 package org.magcode.sem6000.connector.send;
 
-import com.github.sem2mqtt.bluetooth.sem6000.SendingException;
+import org.magcode.sem6000.connector.receive.ResponseType;
 
 public class SwitchCommand extends Command {
 
+  public static final byte OPCODE = (byte) 0x03;
+
   private final boolean state;
 
-  public SwitchCommand(boolean state) throws SendingException {
+  public SwitchCommand(boolean state) {
     this.state = state;
-    byte[] payload = new byte[3];
+    byte[] body = new byte[4];
     if (state) {
-      payload[0] = (byte) 0x01;
+      body[1] = (byte) 0x01;
     }
 
-    byte[] message = buildMessage("0300", payload);
-    setMessage(message);
+    setMessage(Sem6000FrameEncoder.encode(OPCODE, body));
   }
 
   @Override
   public String toString() {
-    return String.format("led %s", state ? "on" : "off");
+    return String.format("relay %s", state ? "on" : "off");
+  }
+
+  @Override
+  public ResponseType getResponseType() {
+    return ResponseType.SWITCHRELAY;
   }
 }
@@ -1,33 +1,31 @@
 package org.magcode.sem6000.connector.send;
 
-import com.github.sem2mqtt.bluetooth.sem6000.SendingException;
 import java.time.LocalDateTime;
+import org.magcode.sem6000.connector.receive.ResponseType;
 
 public class SyncTimeCommand extends Command {
 
-	public SyncTimeCommand() throws SendingException {
+	public static final byte OPCODE = (byte) 0x01;
+
+	public SyncTimeCommand() {
 		this(LocalDateTime.now());
 	}
 
-	public SyncTimeCommand(LocalDateTime now) throws SendingException {
-		int month = now.getMonthValue();
-		int day = now.getDayOfMonth();
-		int hour = now.getHour();
-		int minute = now.getMinute();
-		int second = now.getSecond();
+	public SyncTimeCommand(LocalDateTime now) {
+		byte[] body = new byte[10];
+		body[1] = (byte) now.getSecond();
+		body[2] = (byte) now.getMinute();
+		body[3] = (byte) now.getHour();
+		body[4] = (byte) now.getDayOfMonth();
+		body[5] = (byte) now.getMonthValue();
+		body[6] = (byte) ((now.getYear() >> 8) & 0xff);
+		body[7] = (byte) (now.getYear() & 0xFF);
 
-		byte[] payload = new byte[9];
-		payload[0] = (byte) second;
-		payload[1] = (byte) minute;
-		payload[2] = (byte) hour;
-		payload[3] = (byte) day;
-		payload[4] = (byte) month;
-		payload[5] = (byte) ((now.getYear() >> 8) & 0xff);
-		payload[6] = (byte) (now.getYear() & 0xFF);
-		payload[7] = (byte) 0x00;
-		payload[8] = (byte) 0x00;
+		setMessage(Sem6000FrameEncoder.encode(OPCODE, body));
+	}
 
-		byte[] message = buildMessage("0100", payload);
-		setMessage(message);
+	@Override
+	public ResponseType getResponseType() {
+		return ResponseType.SYNCTIME;
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,73 @@
+package com.github.sem2mqtt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.magcode.sem6000.connector.receive.SemResponseTestHelper.createMeasureResponse;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.magcode.sem6000.connector.receive.AvailabilityResponse.Availability;
+import org.magcode.sem6000.connector.receive.MeasurementResponse;
+
+class DeviceStateRegistryTest {
+
+  @Test
+  void keeps_latest_values_of_device_when_updating() {
+    //given
+    DeviceStateRegistry deviceStateRegistry = new DeviceStateRegistry();
+    MeasurementResponse measurement = (MeasurementResponse) createMeasureResponse();
+    Instant measuredAt = Instant.ofEpochSecond(1000);
+    //when
+    deviceStateRegistry.updateMeasurement("plug1", measurement, measuredAt);
+    deviceStateRegistry.updateEnergyToday("plug1", 120, Instant.ofEpochSecond(1001));
+    deviceStateRegistry.updateAvailability("plug1", Availability.AVAILABLE, Instant.ofEpochSecond(1002));
+    //then
+    DeviceState deviceState = deviceStateRegistry.get("plug1").get();
+    assertThat(deviceState.getMeasurement()).contains(measurement);
+    assertThat(deviceState.getMeasuredAt()).contains(measuredAt);
+    assertThat(deviceState.getEnergyToday()).contains(120);
+    assertThat(deviceState.getAvailability()).contains(Availability.AVAILABLE);
+    assertThat(deviceState.getUpdatedAt()).contains(Instant.ofEpochSecond(1002));
+  }
+
+  @Test
+  void does_not_change_snapshot_when_updating() {
+    //given
+    DeviceStateRegistry deviceStateRegistry = new DeviceStateRegistry();
+    deviceStateRegistry.register("plug1");
+    Map<String, DeviceState> snapshot = deviceStateRegistry.snapshot();
+    //when
+    deviceStateRegistry.updateEnergyToday("plug1", 120, Instant.now());
+    deviceStateRegistry.register("plug2");
+    //then
+    assertThat(snapshot).containsOnlyKeys("plug1");
+    assertThat(snapshot.get("plug1").getEnergyToday()).isEmpty();
+    assertThat(deviceStateRegistry.snapshot()).containsOnlyKeys("plug1", "plug2");
+  }
+
+  @Test
+  void keeps_each_update_when_updating_concurrently() throws InterruptedException {
+    //given
+    DeviceStateRegistry deviceStateRegistry = new DeviceStateRegistry();
+    List<Thread> threads = new ArrayList<>();
+    //when
+    for (int i = 0; i < 8; i++) {
+      String name = "plug" + i;
+      Thread thread = new Thread(() -> {
+        for (int energy = 1; energy <= 1000; energy++) {
+          deviceStateRegistry.updateEnergyToday(name, energy, Instant.now());
+        }
+      });
+      threads.add(thread);
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    //then
+    assertThat(deviceStateRegistry.snapshot()).hasSize(8)
+        .allSatisfy((name, deviceState) -> assertThat(deviceState.getEnergyToday()).contains(1000));
+  }
+}
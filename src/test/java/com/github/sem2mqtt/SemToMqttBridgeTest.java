@@ -7,23 +7,31 @@ import static com.github.sem2mqtt.configuration.Sem6000ConfigTestHelper.generate
 import static com.github.sem2mqtt.configuration.Sem6000ConfigTestHelper.randomSemConfigForPlug;
 import static com.github.sem2mqtt.mqtt.Sem6000MqttTopic.Type.UNKNOWN;
 import static java.util.Collections.singleton;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
 import static org.magcode.sem6000.connector.receive.AvailabilityResponse.Availability.AVAILABLE;
+import static org.magcode.sem6000.connector.receive.AvailabilityResponse.Availability.LOST;
 import static org.magcode.sem6000.connector.receive.SemResponseTestHelper.createMeasureResponse;
 import static org.magcode.sem6000.connector.receive.SemResponseTestHelper.createSemDayDataResponse;
 import static org.magcode.sem6000.connector.receive.SemResponseTestHelper.createUnknownSemResponse;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.argThat;
-import static org.mockito.ArgumentMatchers.matches;
-import static org.mockito.ArgumentMatchers.refEq;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.spi.ILoggingEvent;
 import ch.qos.logback.core.Appender;
 import com.coreoz.wisp.Scheduler;
@@ -31,12 +39,25 @@ import com.github.sem2mqtt.bluetooth.BluetoothConnectionManager;
 import com.github.sem2mqtt.bluetooth.sem6000.Sem6000Connection;
 import com.github.sem2mqtt.bluetooth.sem6000.Sem6000DbusHandlerProxy.Sem6000ResponseHandler;
 import com.github.sem2mqtt.bluetooth.sem6000.SendingException;
+import com.github.sem2mqtt.configuration.BluetoothConfig;
+import com.github.sem2mqtt.configuration.MqttConfig.OutputMode;
+import com.github.sem2mqtt.configuration.PublishFilterConfig;
+import com.github.sem2mqtt.configuration.PublishFilterConfig.Deadband;
 import com.github.sem2mqtt.configuration.Sem6000Config;
 import com.github.sem2mqtt.mqtt.MqttConnection;
 import com.github.sem2mqtt.mqtt.MqttConnection.MessageCallback;
 import com.github.sem2mqtt.mqtt.Sem6000MqttTopic;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 import org.eclipse.paho.client.mqttv3.MqttMessage;
 import org.junit.jupiter.api.AfterEach;
@@ -46,13 +67,16 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.magcode.sem6000.connector.receive.AvailabilityResponse;
+import org.magcode.sem6000.connector.receive.DataDayResponse;
+import org.magcode.sem6000.connector.receive.LedResponse;
+import org.magcode.sem6000.connector.receive.MeasurementResponse;
 import org.magcode.sem6000.connector.receive.SemResponse;
-import org.magcode.sem6000.connector.send.Command;
-import org.magcode.sem6000.connector.send.LedCommand;
-import org.magcode.sem6000.connector.send.SwitchCommand;
+import org.magcode.sem6000.connector.receive.SwitchResponse;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
+import org.mockito.InOrder;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
@@ -94,7 +118,7 @@ class SemToMqttBridgeTest {
   }
 
   @Test
-  void subscribes_to_mqtt_setter_of_each_sem6000_when_running() {
+  void subscribes_once_to_mqtt_setters_of_all_sem6000_when_running() {
     //given
     Set<Sem6000Config> sem6000Configs = generateSemConfigs(4);
     SemToMqttBridge semToMqttBridge = new SemToMqttBridge(ROOT_TOPIC, sem6000Configs, mqttConnectionMock,
@@ -102,37 +126,86 @@ class SemToMqttBridgeTest {
     //when
     semToMqttBridge.run();
     //then
-    for (Sem6000Config sem6000Config : sem6000Configs) {
-      verify(mqttConnectionMock).subscribe(
-          matches(String.format("^%s\\/%s\\/\\+\\/set$", ROOT_TOPIC, sem6000Config.getName())),
-          any(MessageCallback.class));
-    }
+    verify(mqttConnectionMock).subscribe(eq(ROOT_TOPIC + "/+/+/set"), any(MessageCallback.class));
+  }
+
+  @Test
+  void routes_mqtt_setter_messages_to_sem6000_of_topic_when_running() {
+    //given
+    Sem6000Connection plug1ConnectionMock = mock(Sem6000Connection.class);
+    Sem6000Connection plug2ConnectionMock = mock(Sem6000Connection.class);
+    when(bluetoothConnectionManager.setupConnection(any())).thenReturn(plug1ConnectionMock, plug2ConnectionMock);
+    when(plug2ConnectionMock.switchLed(true)).thenReturn(completedFuture(new LedResponse()));
+    SemToMqttBridge semToMqttBridge = new SemToMqttBridge(ROOT_TOPIC,
+        new LinkedHashSet<>(List.of(randomSemConfigForPlug("plug1"), randomSemConfigForPlug("plug2"))),
+        mqttConnectionMock, bluetoothConnectionManager, scheduler, new BluetoothConfig(1));
+    semToMqttBridge.run();
+    verify(mqttConnectionMock).subscribe(eq(ROOT_TOPIC + "/+/+/set"), messageCallbackCaptor.capture());
+    //when
+    messageCallbackCaptor.getValue().handleMqttMessage(ROOT_TOPIC + "/plug2/led/set",
+        new MqttMessage("true".getBytes(StandardCharsets.UTF_8)));
+    //then
+    verify(plug2ConnectionMock).switchLed(true);
+    verify(plug1ConnectionMock, never()).switchLed(anyBoolean());
+  }
+
+  @Test
+  void ignores_mqtt_messages_to_topics_without_setter_suffix() {
+    //given
+    SemToMqttBridge semToMqttBridge = new SemToMqttBridge(ROOT_TOPIC, singleton(randomSemConfigForPlug("plug1")),
+        mqttConnectionMock, bluetoothConnectionManager, scheduler);
+    semToMqttBridge.run();
+    verify(mqttConnectionMock).subscribe(eq(ROOT_TOPIC + "/+/+/set"), messageCallbackCaptor.capture());
+    //when
+    messageCallbackCaptor.getValue().handleMqttMessage(ROOT_TOPIC + "/plug1/led",
+        new MqttMessage("true".getBytes(StandardCharsets.UTF_8)));
+    //then
+    verify(defaultSem6000ConnectionMock, never()).switchLed(anyBoolean());
   }
 
   @ParameterizedTest
-  @MethodSource("mqttMessages")
-  void forwards_mqtt_messages_to_sem6000_device_when_running(String message, String type, Command expectedCommand)
-      throws SendingException, BridgeMessageHandlingException {
+  @ValueSource(booleans = {true, false})
+  void forwards_led_mqtt_messages_to_sem6000_device_when_running(boolean on) throws BridgeMessageHandlingException {
     //given
     String plugName = "plug1";
     Sem6000Config plug = randomSemConfigForPlug(plugName);
     SemToMqttBridge semToMqttBridge = new SemToMqttBridge(ROOT_TOPIC, singleton(plug),
         mqttConnectionMock, bluetoothConnectionManager, scheduler);
     semToMqttBridge.run();
-    //when
     Sem6000Connection sem6000ConnectionMock = mock(Sem6000Connection.class);
-    semToMqttBridge.handleMqttMessage(
-        new Sem6000MqttTopic(ROOT_TOPIC, String.format("%s/%s/%s", ROOT_TOPIC, plugName, type), plugName),
-        new MqttMessage(message.getBytes(StandardCharsets.UTF_8)), plug, sem6000ConnectionMock);
+    when(sem6000ConnectionMock.switchLed(on)).thenReturn(completedFuture(new LedResponse()));
+    //when
+    CompletableFuture<Void> forward = semToMqttBridge.handleMqttMessage(
+        new Sem6000MqttTopic(ROOT_TOPIC, String.format("%s/%s/%s/set", ROOT_TOPIC, plugName, "led"), plugName),
+        new MqttMessage(String.valueOf(on).getBytes(StandardCharsets.UTF_8)), plug, sem6000ConnectionMock);
     //then
-    verify(sem6000ConnectionMock).safeSend(refEq(expectedCommand));
+    assertThat(forward).isCompleted();
+    verify(sem6000ConnectionMock).switchLed(on);
   }
 
-  static Stream<Arguments> mqttMessages() throws SendingException {
-    return Stream.of(Arguments.of("true", "led", new LedCommand(true)),
-        Arguments.of("false", "led", new LedCommand(false)),
-        Arguments.of("true", "relay", new SwitchCommand(true)),
-        Arguments.of("false", "relay", new SwitchCommand(false)));
+  @ParameterizedTest
+  @ValueSource(booleans = {true, false})
+  void forwards_relay_mqtt_messages_to_sem6000_device_and_measures_when_running(boolean on)
+      throws BridgeMessageHandlingException {
+    //given
+    String plugName = "plug1";
+    Sem6000Config plug = randomSemConfigForPlug(plugName);
+    SemToMqttBridge semToMqttBridge = new SemToMqttBridge(ROOT_TOPIC, singleton(plug),
+        mqttConnectionMock, bluetoothConnectionManager, scheduler);
+    semToMqttBridge.run();
+    Sem6000Connection sem6000ConnectionMock = mock(Sem6000Connection.class);
+    when(sem6000ConnectionMock.switchRelay(on)).thenReturn(completedFuture(new SwitchResponse((byte) 0x00)));
+    when(sem6000ConnectionMock.measure()).thenReturn(
+        completedFuture((MeasurementResponse) createMeasureResponse()));
+    //when
+    CompletableFuture<Void> forward = semToMqttBridge.handleMqttMessage(
+        new Sem6000MqttTopic(ROOT_TOPIC, String.format("%s/%s/%s/set", ROOT_TOPIC, plugName, "relay"), plugName),
+        new MqttMessage(String.valueOf(on).getBytes(StandardCharsets.UTF_8)), plug, sem6000ConnectionMock);
+    //then
+    assertThat(forward).isCompleted();
+    InOrder inOrder = inOrder(sem6000ConnectionMock);
+    inOrder.verify(sem6000ConnectionMock).switchRelay(on);
+    inOrder.verify(sem6000ConnectionMock).measure();
   }
 
   @Test
@@ -173,6 +246,43 @@ class SemToMqttBridgeTest {
     verify(defaultSem6000ConnectionMock, times(countOfSem6000)).establish();
   }
 
+  @Test
+  void connects_to_sem6000_devices_concurrently_with_limited_parallelism_when_running() {
+    //given
+    int parallelism = 2;
+    SemToMqttBridge semToMqttBridge = new SemToMqttBridge(ROOT_TOPIC, generateSemConfigs(6), mqttConnectionMock,
+        bluetoothConnectionManager, scheduler, new BluetoothConfig(parallelism));
+    AtomicInteger concurrentConnects = new AtomicInteger();
+    AtomicInteger maxConcurrentConnects = new AtomicInteger();
+    doAnswer(invocation -> {
+      maxConcurrentConnects.accumulateAndGet(concurrentConnects.incrementAndGet(), Math::max);
+      Thread.sleep(100);
+      concurrentConnects.decrementAndGet();
+      return null;
+    }).when(defaultSem6000ConnectionMock).establish();
+    //when
+    semToMqttBridge.run();
+    //then
+    verify(defaultSem6000ConnectionMock, times(6)).establish();
+    assertThat(maxConcurrentConnects).hasValue(parallelism);
+  }
+
+  @Test
+  void measures_time_until_all_sem6000_devices_are_connected() {
+    //given
+    SemToMqttBridge semToMqttBridge = new SemToMqttBridge(ROOT_TOPIC, generateSemConfigs(2), mqttConnectionMock,
+        bluetoothConnectionManager, scheduler);
+    semToMqttBridge.run();
+    verify(defaultSem6000ConnectionMock, times(2)).subscribe(semResponseHandlerCaptor.capture());
+    //when
+    semResponseHandlerCaptor.getAllValues().get(0).handleSem6000Response(new AvailabilityResponse(AVAILABLE));
+    assertThat(semToMqttBridge.getTimeToAllConnected()).isEmpty();
+    semResponseHandlerCaptor.getAllValues().get(1).handleSem6000Response(new AvailabilityResponse(AVAILABLE));
+    //then
+    assertThat(semToMqttBridge.getTimeToAllConnected()).hasValueSatisfying(
+        duration -> assertThat(duration).isPositive());
+  }
+
   @Test
   @MockitoSettings(strictness = Strictness.LENIENT)
   void fails_on_mqtt_problems_when_running() {
@@ -219,6 +329,267 @@ class SemToMqttBridgeTest {
         startsWith(String.format("%s/%s/", ROOT_TOPIC, plugName)), any());
   }
 
+  @Test
+  void throttles_online_notifications_per_device_when_retrieving_availability() {
+    //given
+    SemToMqttBridge semToMqttBridge = new SemToMqttBridge(ROOT_TOPIC,
+        Set.of(randomSemConfigForPlug("plug1", Duration.ofHours(1)), randomSemConfigForPlug("plug2",
+            Duration.ofHours(1))), mqttConnectionMock, bluetoothConnectionManager, scheduler);
+    semToMqttBridge.run();
+    verify(defaultSem6000ConnectionMock, times(2)).subscribe(semResponseHandlerCaptor.capture());
+    //when
+    for (Sem6000ResponseHandler responseHandler : semResponseHandlerCaptor.getAllValues()) {
+      responseHandler.handleSem6000Response(new AvailabilityResponse(AVAILABLE));
+      responseHandler.handleSem6000Response(new AvailabilityResponse(AVAILABLE));
+    }
+    //then
+    verify(mqttConnectionMock).publish(ROOT_TOPIC + "/plug1/state", "online");
+    verify(mqttConnectionMock).publish(ROOT_TOPIC + "/plug2/state", "online");
+  }
+
+  @Test
+  @MockitoSettings(strictness = Strictness.LENIENT)
+  void forwards_sem6000_messages_of_other_devices_while_a_device_is_busy() throws InterruptedException {
+    //given
+    SemToMqttBridge semToMqttBridge = new SemToMqttBridge(ROOT_TOPIC,
+        Set.of(randomSemConfigForPlug("plug1"), randomSemConfigForPlug("plug2")), mqttConnectionMock,
+        bluetoothConnectionManager, scheduler);
+    semToMqttBridge.run();
+    verify(defaultSem6000ConnectionMock, times(2)).subscribe(semResponseHandlerCaptor.capture());
+    CountDownLatch busyPublishing = new CountDownLatch(1);
+    CountDownLatch releasePublishing = new CountDownLatch(1);
+    doAnswer(invocation -> {
+      busyPublishing.countDown();
+      return releasePublishing.await(5, TimeUnit.SECONDS);
+    }).when(mqttConnectionMock).publish(startsWith(ROOT_TOPIC + "/plug1/"), any());
+    List<Thread> handlingThreads = new ArrayList<>();
+    handlingThreads.add(handleInThread(createSemDayDataResponse(), semResponseHandlerCaptor.getAllValues()));
+    try {
+      busyPublishing.await(1, TimeUnit.SECONDS);
+      //when
+      for (Sem6000ResponseHandler responseHandler : semResponseHandlerCaptor.getAllValues()) {
+        handlingThreads.add(handleInThread(createMeasureResponse(), List.of(responseHandler)));
+      }
+      //then
+      verify(mqttConnectionMock, timeout(1000)).publish(eq(ROOT_TOPIC + "/plug2/voltage"), any());
+    } finally {
+      releasePublishing.countDown();
+      for (Thread handlingThread : handlingThreads) {
+        handlingThread.join();
+      }
+    }
+  }
+
+  @Test
+  void publishes_measurements_only_when_changed_beyond_deadband() {
+    //given
+    PublishFilterConfig publishFilterConfig = new PublishFilterConfig(Duration.ofHours(1), new Deadband(1d, null),
+        new Deadband(2d, null));
+    SemToMqttBridge semToMqttBridge = new SemToMqttBridge(ROOT_TOPIC, singleton(randomSemConfigForPlug("plug1")),
+        mqttConnectionMock, bluetoothConnectionManager, scheduler, BluetoothConfig.defaults(), publishFilterConfig,
+        OutputMode.TOPICS);
+    semToMqttBridge.run();
+    verify(defaultSem6000ConnectionMock).subscribe(semResponseHandlerCaptor.capture());
+    Sem6000ResponseHandler responseHandler = semResponseHandlerCaptor.getValue();
+    responseHandler.handleSem6000Response(createMeasurement(true, 10_000, 230));
+    //when
+    responseHandler.handleSem6000Response(createMeasurement(true, 10_500, 231));
+    responseHandler.handleSem6000Response(createMeasurement(false, 12_000, 230));
+    //then
+    verify(mqttConnectionMock, times(2)).publish(eq(ROOT_TOPIC + "/plug1/power"), any());
+    verify(mqttConnectionMock, times(1)).publish(eq(ROOT_TOPIC + "/plug1/voltage"), any());
+    verify(mqttConnectionMock, times(2)).publish(eq(ROOT_TOPIC + "/plug1/relay"), any());
+  }
+
+  @Test
+  void republishes_unchanged_measurements_when_max_age_is_exceeded() {
+    //given
+    PublishFilterConfig publishFilterConfig = new PublishFilterConfig(Duration.ZERO, null, null);
+    SemToMqttBridge semToMqttBridge = new SemToMqttBridge(ROOT_TOPIC, singleton(randomSemConfigForPlug("plug1")),
+        mqttConnectionMock, bluetoothConnectionManager, scheduler, BluetoothConfig.defaults(), publishFilterConfig,
+        OutputMode.TOPICS);
+    semToMqttBridge.run();
+    verify(defaultSem6000ConnectionMock).subscribe(semResponseHandlerCaptor.capture());
+    Sem6000ResponseHandler responseHandler = semResponseHandlerCaptor.getValue();
+    responseHandler.handleSem6000Response(createMeasurement(true, 10_000, 230));
+    //when
+    responseHandler.handleSem6000Response(createMeasurement(true, 10_000, 230));
+    //then
+    verify(mqttConnectionMock, times(2)).publish(eq(ROOT_TOPIC + "/plug1/power"), any());
+  }
+
+  @Test
+  void publishes_unchanged_measurements_without_publish_filter() {
+    //given
+    SemToMqttBridge semToMqttBridge = new SemToMqttBridge(ROOT_TOPIC, singleton(randomSemConfigForPlug("plug1")),
+        mqttConnectionMock, bluetoothConnectionManager, scheduler);
+    semToMqttBridge.run();
+    verify(defaultSem6000ConnectionMock).subscribe(semResponseHandlerCaptor.capture());
+    Sem6000ResponseHandler responseHandler = semResponseHandlerCaptor.getValue();
+    responseHandler.handleSem6000Response(createMeasurement(true, 10_000, 230));
+    //when
+    responseHandler.handleSem6000Response(createMeasurement(true, 10_000, 230));
+    //then
+    verify(mqttConnectionMock, times(2)).publish(eq(ROOT_TOPIC + "/plug1/power"), any());
+    verify(mqttConnectionMock, times(2)).publish(eq(ROOT_TOPIC + "/plug1/voltage"), any());
+  }
+
+  @Test
+  void filters_measurements_by_publish_filter_of_device() {
+    //given
+    Sem6000Config sem6000Config = new Sem6000Config("00:00:00:00:00:01", "0000", "plug1", Duration.ofSeconds(60),
+        null, null, new PublishFilterConfig(null, new Deadband(1d, null), null));
+    SemToMqttBridge semToMqttBridge = new SemToMqttBridge(ROOT_TOPIC, singleton(sem6000Config),
+        mqttConnectionMock, bluetoothConnectionManager, scheduler);
+    semToMqttBridge.run();
+    verify(defaultSem6000ConnectionMock).subscribe(semResponseHandlerCaptor.capture());
+    Sem6000ResponseHandler responseHandler = semResponseHandlerCaptor.getValue();
+    responseHandler.handleSem6000Response(createMeasurement(true, 10_000, 230));
+    //when
+    responseHandler.handleSem6000Response(createMeasurement(true, 10_500, 230));
+    //then
+    verify(mqttConnectionMock, times(1)).publish(eq(ROOT_TOPIC + "/plug1/power"), any());
+  }
+
+  @Test
+  void republishes_unchanged_measurements_when_device_was_lost() {
+    //given
+    SemToMqttBridge semToMqttBridge = new SemToMqttBridge(ROOT_TOPIC, singleton(randomSemConfigForPlug("plug1")),
+        mqttConnectionMock, bluetoothConnectionManager, scheduler);
+    semToMqttBridge.run();
+    verify(defaultSem6000ConnectionMock).subscribe(semResponseHandlerCaptor.capture());
+    Sem6000ResponseHandler responseHandler = semResponseHandlerCaptor.getValue();
+    responseHandler.handleSem6000Response(createMeasurement(true, 10_000, 230));
+    //when
+    responseHandler.handleSem6000Response(new AvailabilityResponse(LOST));
+    responseHandler.handleSem6000Response(createMeasurement(true, 10_000, 230));
+    //then
+    verify(mqttConnectionMock, times(2)).publish(eq(ROOT_TOPIC + "/plug1/power"), any());
+  }
+
+  @Test
+  void publishes_measurement_as_one_json_document_when_configured() {
+    //given
+    SemToMqttBridge semToMqttBridge = new SemToMqttBridge(ROOT_TOPIC, singleton(randomSemConfigForPlug("plug1")),
+        mqttConnectionMock, bluetoothConnectionManager, scheduler, BluetoothConfig.defaults(),
+        PublishFilterConfig.disabled(), OutputMode.JSON);
+    semToMqttBridge.run();
+    verify(defaultSem6000ConnectionMock).subscribe(semResponseHandlerCaptor.capture());
+    Sem6000ResponseHandler responseHandler = semResponseHandlerCaptor.getValue();
+    responseHandler.handleSem6000Response(createSemDayDataResponse());
+    //when
+    responseHandler.handleSem6000Response(createMeasurement(true, 12_500, 230));
+    //then
+    verify(mqttConnectionMock).publishPayload(eq(ROOT_TOPIC + "/plug1/json"),
+        argThat(payload -> new String(payload, StandardCharsets.UTF_8).matches(
+            "\\{\"power\":12\\.5,\"voltage\":230,\"relay\":true,\"energyToday\":\\d+,\"ts\":\\d+}")));
+    verify(mqttConnectionMock, never()).publish(startsWith(ROOT_TOPIC + "/plug1/"), any());
+  }
+
+  @Test
+  void remembers_latest_state_of_each_sem6000_when_retrieving_messages() {
+    //given
+    SemToMqttBridge semToMqttBridge = new SemToMqttBridge(ROOT_TOPIC, singleton(randomSemConfigForPlug("plug1")),
+        mqttConnectionMock, bluetoothConnectionManager, scheduler);
+    semToMqttBridge.run();
+    verify(defaultSem6000ConnectionMock).subscribe(semResponseHandlerCaptor.capture());
+    Sem6000ResponseHandler responseHandler = semResponseHandlerCaptor.getValue();
+    MeasurementResponse measurement = createMeasurement(true, 12_500, 230);
+    //when
+    responseHandler.handleSem6000Response(new AvailabilityResponse(AVAILABLE));
+    responseHandler.handleSem6000Response(measurement);
+    //then
+    DeviceState deviceState = semToMqttBridge.getDeviceStateRegistry().snapshot().get("plug1");
+    assertThat(deviceState.getMeasurement()).contains(measurement);
+    assertThat(deviceState.getAvailability()).contains(AVAILABLE);
+    assertThat(deviceState.getEnergyToday()).isEmpty();
+  }
+
+  @Test
+  void answers_state_requests_from_latest_known_states_when_running() {
+    //given
+    SemToMqttBridge semToMqttBridge = new SemToMqttBridge(ROOT_TOPIC,
+        new LinkedHashSet<>(List.of(randomSemConfigForPlug("plug1"), randomSemConfigForPlug("plug2"))),
+        mqttConnectionMock, bluetoothConnectionManager, scheduler);
+    semToMqttBridge.run();
+    verify(defaultSem6000ConnectionMock, times(2)).subscribe(semResponseHandlerCaptor.capture());
+    semResponseHandlerCaptor.getAllValues().get(0).handleSem6000Response(new AvailabilityResponse(AVAILABLE));
+    semResponseHandlerCaptor.getAllValues().get(0).handleSem6000Response(createMeasurement(true, 12_500, 230));
+    verify(mqttConnectionMock).subscribe(eq(ROOT_TOPIC + "/bridge/get"), messageCallbackCaptor.capture());
+    //when
+    messageCallbackCaptor.getValue().handleMqttMessage(ROOT_TOPIC + "/bridge/get", new MqttMessage());
+    //then
+    verify(mqttConnectionMock).publishPayload(eq(ROOT_TOPIC + "/bridge/state"),
+        argThat(payload -> new String(payload, StandardCharsets.UTF_8).matches(
+            "\\{\"plug[12]\":\\{.*},\"plug[12]\":\\{.*}}")
+            && new String(payload, StandardCharsets.UTF_8).contains(
+            "{\"state\":\"online\",\"power\":12.5,\"voltage\":230,\"relay\":true,\"ts\":")));
+  }
+
+  @Test
+  void requests_measurement_from_sem6000_and_publishes_it_when_measure_is_set() throws BridgeMessageHandlingException {
+    //given
+    String plugName = "plug1";
+    Sem6000Config plug = randomSemConfigForPlug(plugName);
+    SemToMqttBridge semToMqttBridge = new SemToMqttBridge(ROOT_TOPIC, singleton(plug),
+        mqttConnectionMock, bluetoothConnectionManager, scheduler);
+    semToMqttBridge.run();
+    verify(defaultSem6000ConnectionMock).subscribe(semResponseHandlerCaptor.capture());
+    semResponseHandlerCaptor.getValue().handleSem6000Response(createMeasurement(true, 12_500, 230));
+    when(defaultSem6000ConnectionMock.requestMeasurement()).thenReturn(
+        completedFuture(createMeasurement(true, 12_500, 230)));
+    when(defaultSem6000ConnectionMock.requestDataDay()).thenReturn(completedFuture(createDataDay(42)));
+    //when
+    CompletableFuture<Void> forward = semToMqttBridge.handleMqttMessage(
+        new Sem6000MqttTopic(ROOT_TOPIC, String.format("%s/%s/measure/set", ROOT_TOPIC, plugName), plugName),
+        new MqttMessage(), plug, defaultSem6000ConnectionMock);
+    semResponseHandlerCaptor.getValue().handleSem6000Response(createMeasurement(true, 12_500, 230));
+    //then
+    assertThat(forward).isCompleted();
+    verify(defaultSem6000ConnectionMock).requestMeasurement();
+    verify(defaultSem6000ConnectionMock).requestDataDay();
+    verify(mqttConnectionMock, times(2)).publish(eq(ROOT_TOPIC + "/plug1/power"), any());
+  }
+
+  @Test
+  void republishes_energy_of_today_from_memory_when_measurement_arrives() {
+    //given
+    PublishFilterConfig publishFilterConfig = new PublishFilterConfig(Duration.ZERO, null, null);
+    SemToMqttBridge semToMqttBridge = new SemToMqttBridge(ROOT_TOPIC, singleton(randomSemConfigForPlug("plug1")),
+        mqttConnectionMock, bluetoothConnectionManager, scheduler, BluetoothConfig.defaults(), publishFilterConfig,
+        OutputMode.TOPICS);
+    semToMqttBridge.run();
+    verify(defaultSem6000ConnectionMock).subscribe(semResponseHandlerCaptor.capture());
+    Sem6000ResponseHandler responseHandler = semResponseHandlerCaptor.getValue();
+    responseHandler.handleSem6000Response(createDataDay(42));
+    //when
+    responseHandler.handleSem6000Response(createMeasurement(true, 10_000, 230));
+    //then
+    verify(mqttConnectionMock, times(2)).publish(ROOT_TOPIC + "/plug1/energytoday", 42);
+  }
+
+  private static MeasurementResponse createMeasurement(boolean powerOn, int milliWatts, int voltage) {
+    return new MeasurementResponse(new byte[]{(byte) (powerOn ? 0x01 : 0x00), (byte) (milliWatts >> 16),
+        (byte) (milliWatts >> 8), (byte) milliWatts, (byte) voltage});
+  }
+
+  /**
+   * @return data of a day with the energy consumed in the current hour only
+   */
+  private static DataDayResponse createDataDay(int energyOfCurrentHour) {
+    byte[] values = new byte[48];
+    values[46] = (byte) (energyOfCurrentHour >> 8);
+    values[47] = (byte) energyOfCurrentHour;
+    return new DataDayResponse(values);
+  }
+
+  private static Thread handleInThread(SemResponse semResponse, List<Sem6000ResponseHandler> responseHandlers) {
+    Thread thread = new Thread(
+        () -> responseHandlers.forEach(responseHandler -> responseHandler.handleSem6000Response(semResponse)));
+    thread.start();
+    return thread;
+  }
+
   static Stream<Arguments> sem6000Messages() {
     return Stream.of(Arguments.of(createMeasureResponse(), 3), Arguments.of(createSemDayDataResponse(), 1),
         Arguments.of(new AvailabilityResponse(AVAILABLE), 1), Arguments.of(createUnknownSemResponse(), 0));
@@ -234,7 +605,7 @@ class SemToMqttBridgeTest {
     SemToMqttBridge semToMqttBridge = new SemToMqttBridge(ROOT_TOPIC, singleton(randomSemConfigForPlug(plugName)),
         mqttConnectionMock, bluetoothConnectionManager, scheduler);
     semToMqttBridge.run();
-    verify(mqttConnectionMock).subscribe(anyString(), messageCallbackCaptor.capture());
+    verify(mqttConnectionMock).subscribe(eq(ROOT_TOPIC + "/+/+/set"), messageCallbackCaptor.capture());
     String invalidTopic = String.format("%s/%s/%s", ROOT_TOPIC, "wrong_plug_name", "led");
     Appender<ILoggingEvent> logObserver = observeLogsOf(SemToMqttBridge.class);
     //when
@@ -245,7 +616,30 @@ class SemToMqttBridgeTest {
   }
 
   @Test
-  void fails_forward_when_led_command_fails() throws SendingException {
+  void logs_warning_with_message_and_topic_when_relay_command_fails() {
+    //given
+    String plugName = "plug1";
+    when(defaultSem6000ConnectionMock.switchRelay(anyBoolean())).thenReturn(
+        CompletableFuture.failedFuture(new SendingException("not connected")));
+    SemToMqttBridge semToMqttBridge = new SemToMqttBridge(ROOT_TOPIC, singleton(randomSemConfigForPlug(plugName)),
+        mqttConnectionMock, bluetoothConnectionManager, scheduler);
+    semToMqttBridge.run();
+    verify(mqttConnectionMock).subscribe(eq(ROOT_TOPIC + "/+/+/set"), messageCallbackCaptor.capture());
+    String relayTopic = String.format("%s/%s/%s", ROOT_TOPIC, plugName, "relay/set");
+    Appender<ILoggingEvent> logObserver = observeLogsOf(SemToMqttBridge.class);
+    //when
+    messageCallbackCaptor.getValue().handleMqttMessage(relayTopic,
+        new MqttMessage("on".getBytes(StandardCharsets.UTF_8)));
+    //then
+    verify(logObserver, atLeastOneMatches()).doAppend(argThat(event -> {
+      assertThat(event.getLevel()).isEqualTo(Level.WARN);
+      assertThat(event.getFormattedMessage()).contains("message 'on' to topic '" + relayTopic + "'");
+      return true;
+    }));
+  }
+
+  @Test
+  void fails_forward_when_led_command_fails() throws BridgeMessageHandlingException {
     //given
     String plugName = "plug1";
     Sem6000Config sem6000Config = randomSemConfigForPlug(plugName);
@@ -254,16 +648,19 @@ class SemToMqttBridgeTest {
     semToMqttBridge.run();
     //when
     Sem6000Connection sem6000ConnectionMock = mock(Sem6000Connection.class);
-    doThrow(SendingException.class).when(sem6000ConnectionMock).safeSend(any(LedCommand.class));
+    when(sem6000ConnectionMock.switchLed(anyBoolean())).thenReturn(
+        CompletableFuture.failedFuture(new SendingException("not connected")));
+    CompletableFuture<Void> forward = semToMqttBridge.handleMqttMessage(
+        new Sem6000MqttTopic(ROOT_TOPIC, String.format("%s/%s/%s/set", ROOT_TOPIC, plugName, "led"), plugName),
+        new MqttMessage("on".getBytes(StandardCharsets.UTF_8)), sem6000Config, sem6000ConnectionMock);
     //then
-    assertThatCode(() -> semToMqttBridge.handleMqttMessage(
-        new Sem6000MqttTopic(ROOT_TOPIC, String.format("%s/%s/%s", ROOT_TOPIC, plugName, "led"), plugName),
-        new MqttMessage("on".getBytes(StandardCharsets.UTF_8)), sem6000Config, sem6000ConnectionMock)).isInstanceOf(
-        BridgeMessageHandlingException.class).hasMessageContainingAll("Failed", "forward", plugName);
+    assertThat(forward).failsWithin(Duration.ZERO).withThrowableOfType(ExecutionException.class)
+        .withCauseInstanceOf(BridgeMessageHandlingException.class)
+        .withMessageContainingAll("Failed", "forward", plugName);
   }
 
   @Test
-  void fails_forward_when_relay_command_fails() throws SendingException {
+  void fails_forward_when_relay_command_fails() throws BridgeMessageHandlingException {
     //given
     String plugName = "plug1";
     Sem6000Config sem6000Config = randomSemConfigForPlug(plugName);
@@ -272,11 +669,14 @@ class SemToMqttBridgeTest {
     semToMqttBridge.run();
     //when
     Sem6000Connection sem6000ConnectionMock = mock(Sem6000Connection.class);
-    doThrow(SendingException.class).when(sem6000ConnectionMock).safeSend(any(SwitchCommand.class));
+    when(sem6000ConnectionMock.switchRelay(anyBoolean())).thenReturn(
+        CompletableFuture.failedFuture(new SendingException("not connected")));
+    CompletableFuture<Void> forward = semToMqttBridge.handleMqttMessage(
+        new Sem6000MqttTopic(ROOT_TOPIC, String.format("%s/%s/%s/set", ROOT_TOPIC, plugName, "relay"), plugName),
+        new MqttMessage("on".getBytes(StandardCharsets.UTF_8)), sem6000Config, sem6000ConnectionMock);
     //then
-    assertThatCode(() -> semToMqttBridge.handleMqttMessage(
-        new Sem6000MqttTopic(ROOT_TOPIC, String.format("%s/%s/%s", ROOT_TOPIC, plugName, "relay"), plugName),
-        new MqttMessage("on".getBytes(StandardCharsets.UTF_8)), sem6000Config, sem6000ConnectionMock)).isInstanceOf(
-        BridgeMessageHandlingException.class).hasMessageContainingAll("Failed", "forward", plugName);
+    assertThat(forward).failsWithin(Duration.ZERO).withThrowableOfType(ExecutionException.class)
+        .withCauseInstanceOf(BridgeMessageHandlingException.class)
+        .withMessageContainingAll("Failed", "forward", plugName);
   }
 }
\ No newline at end of file
@@ -0,0 +1,134 @@
+package com.github.sem2mqtt.bluetooth;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class AdapterBalancerTest {
+
+  private static final String HCI0 = "/org/bluez/hci0";
+  private static final String HCI1 = "/org/bluez/hci1";
+
+  @Test
+  void assigns_device_to_adapter_with_fewest_devices() {
+    //given
+    AdapterBalancer adapterBalancer = new AdapterBalancer(7);
+    adapterBalancer.assign("AA:BB:CC:DD:EE:01", Map.of(HCI0, (short) -50));
+    //when
+    String adapter = adapterBalancer.assign("AA:BB:CC:DD:EE:02", Map.of(HCI0, (short) -40, HCI1, (short) -80));
+    //then
+    assertThat(adapter).isEqualTo(HCI1);
+  }
+
+  @Test
+  void assigns_device_to_adapter_with_better_signal_when_equally_loaded() {
+    //given
+    AdapterBalancer adapterBalancer = new AdapterBalancer(7);
+    Map<String, Short> rssiByAdapter = new HashMap<>();
+    rssiByAdapter.put(HCI0, null);
+    rssiByAdapter.put(HCI1, (short) -80);
+    //when
+    String adapter = adapterBalancer.assign("AA:BB:CC:DD:EE:01", rssiByAdapter);
+    //then
+    assertThat(adapter).isEqualTo(HCI1);
+  }
+
+  @Test
+  void keeps_device_on_its_adapter_while_not_saturated() {
+    //given
+    AdapterBalancer adapterBalancer = new AdapterBalancer(2);
+    adapterBalancer.assign("AA:BB:CC:DD:EE:01", Map.of(HCI0, (short) -50));
+    adapterBalancer.assign("AA:BB:CC:DD:EE:02", Map.of(HCI0, (short) -50));
+    //when
+    String adapter = adapterBalancer.assign("AA:BB:CC:DD:EE:01", Map.of(HCI0, (short) -90, HCI1, (short) -40));
+    //then
+    assertThat(adapter).isEqualTo(HCI0);
+  }
+
+  @Test
+  void moves_device_away_from_saturated_adapter() {
+    //given
+    AdapterBalancer adapterBalancer = new AdapterBalancer(1);
+    adapterBalancer.assign("AA:BB:CC:DD:EE:01", Map.of(HCI0, (short) -50));
+    adapterBalancer.assign("AA:BB:CC:DD:EE:02", Map.of(HCI0, (short) -50));
+    //when
+    String adapter = adapterBalancer.assign("AA:BB:CC:DD:EE:02", Map.of(HCI0, (short) -50, HCI1, (short) -50));
+    //then
+    assertThat(adapter).isEqualTo(HCI1);
+    assertThat(adapterBalancer.assignments()).containsEntry("AA:BB:CC:DD:EE:01", HCI0)
+        .containsEntry("AA:BB:CC:DD:EE:02", HCI1);
+  }
+
+  @Test
+  void moves_devices_away_from_failing_adapter() {
+    //given
+    AdapterBalancer adapterBalancer = new AdapterBalancer(7);
+    Map<String, Short> rssiByAdapter = Map.of(HCI0, (short) -40, HCI1, (short) -80);
+    for (int device = 5; device <= 8; device++) {
+      adapterBalancer.assign("AA:BB:CC:DD:EE:0" + device, Map.of(HCI1, (short) -80));
+    }
+    for (int device = 1; device <= AdapterBalancer.FAILURES_UNTIL_FAILING; device++) {
+      adapterBalancer.assign("AA:BB:CC:DD:EE:0" + device, Map.of(HCI0, (short) -40));
+      adapterBalancer.handleConnectFailed("AA:BB:CC:DD:EE:0" + device);
+    }
+    //when
+    String adapter = adapterBalancer.assign("AA:BB:CC:DD:EE:09", rssiByAdapter);
+    //then
+    assertThat(adapter).isEqualTo(HCI1);
+  }
+
+  @Test
+  void assigns_devices_to_failed_adapter_again_after_cooldown() throws InterruptedException {
+    //given
+    AdapterBalancer adapterBalancer = new AdapterBalancer(7, Duration.ofMillis(50));
+    Map<String, Short> rssiByAdapter = Map.of(HCI0, (short) -40, HCI1, (short) -80);
+    for (int device = 1; device <= AdapterBalancer.FAILURES_UNTIL_FAILING; device++) {
+      adapterBalancer.assign("AA:BB:CC:DD:EE:0" + device, rssiByAdapter);
+      adapterBalancer.handleConnectFailed("AA:BB:CC:DD:EE:0" + device);
+      adapterBalancer.assign("AA:BB:CC:DD:EE:0" + device, rssiByAdapter);
+    }
+    String adapterWhileFailing = adapterBalancer.assign("AA:BB:CC:DD:EE:08", rssiByAdapter);
+    //when
+    Thread.sleep(100);
+    String adapterAfterCooldown = adapterBalancer.assign("AA:BB:CC:DD:EE:09", rssiByAdapter);
+    //then
+    assertThat(adapterWhileFailing).isEqualTo(HCI1);
+    assertThat(adapterAfterCooldown).isEqualTo(HCI0);
+  }
+
+  @Test
+  void moves_devices_away_again_when_probe_of_failed_adapter_fails() throws InterruptedException {
+    //given
+    AdapterBalancer adapterBalancer = new AdapterBalancer(7, Duration.ofMillis(50));
+    Map<String, Short> rssiByAdapter = Map.of(HCI0, (short) -40, HCI1, (short) -80);
+    for (int device = 1; device <= AdapterBalancer.FAILURES_UNTIL_FAILING; device++) {
+      adapterBalancer.assign("AA:BB:CC:DD:EE:0" + device, rssiByAdapter);
+      adapterBalancer.handleConnectFailed("AA:BB:CC:DD:EE:0" + device);
+      adapterBalancer.assign("AA:BB:CC:DD:EE:0" + device, rssiByAdapter);
+    }
+    Thread.sleep(100);
+    adapterBalancer.assign("AA:BB:CC:DD:EE:08", rssiByAdapter);
+    //when
+    adapterBalancer.handleConnectFailed("AA:BB:CC:DD:EE:08");
+    //then
+    assertThat(adapterBalancer.assign("AA:BB:CC:DD:EE:09", rssiByAdapter)).isEqualTo(HCI1);
+  }
+
+  @Test
+  void keeps_device_on_adapter_after_successful_connect() {
+    //given
+    AdapterBalancer adapterBalancer = new AdapterBalancer(7);
+    Map<String, Short> rssiByAdapter = Map.of(HCI0, (short) -40, HCI1, (short) -80);
+    adapterBalancer.assign("AA:BB:CC:DD:EE:01", rssiByAdapter);
+    adapterBalancer.handleConnectFailed("AA:BB:CC:DD:EE:01");
+    String adapterAfterFailure = adapterBalancer.assign("AA:BB:CC:DD:EE:01", rssiByAdapter);
+    //when
+    adapterBalancer.handleConnected("AA:BB:CC:DD:EE:01");
+    //then
+    assertThat(adapterAfterFailure).isEqualTo(HCI1);
+    assertThat(adapterBalancer.assign("AA:BB:CC:DD:EE:01", rssiByAdapter)).isEqualTo(HCI1);
+  }
+}
@@ -4,27 +4,38 @@ import static com.github.sem2mqtt.ObservingLogTestHelper.logs;
 import static com.github.sem2mqtt.ObservingLogTestHelper.observeLogsOf;
 import static com.github.sem2mqtt.bluetooth.sem6000.Sem6000DbusMessageTestHelper.DBUS_PATH_01;
 import static com.github.sem2mqtt.bluetooth.sem6000.Sem6000DbusMessageTestHelper.createMeasurementPropertyChange;
+import static com.github.sem2mqtt.configuration.BluetoothConfig.SignalOverflowPolicy.DROP_OLDEST;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.RETURNS_MOCKS;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import ch.qos.logback.classic.spi.ILoggingEvent;
 import ch.qos.logback.core.Appender;
+import com.coreoz.wisp.Scheduler;
 import com.github.hypfvieh.bluetooth.DeviceManager;
+import com.github.hypfvieh.bluetooth.wrapper.BluetoothAdapter;
 import com.github.hypfvieh.bluetooth.wrapper.BluetoothDevice;
 import com.github.sem2mqtt.SemToMqttAppException;
 import com.github.sem2mqtt.bluetooth.DevicePropertiesChangedHandler.DbusListener;
 import java.util.List;
+import java.util.Map;
+import org.freedesktop.dbus.DBusPath;
 import org.freedesktop.dbus.exceptions.DBusException;
+import org.freedesktop.dbus.handlers.AbstractInterfacesAddedHandler;
+import org.freedesktop.dbus.handlers.AbstractInterfacesRemovedHandler;
+import org.freedesktop.dbus.interfaces.ObjectManager.InterfacesAdded;
 import org.freedesktop.dbus.interfaces.Properties.PropertiesChanged;
+import org.freedesktop.dbus.types.Variant;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
@@ -34,36 +45,84 @@ import org.mockito.junit.jupiter.MockitoExtension;
 @ExtendWith(MockitoExtension.class)
 class BluetoothConnectionManagerTest {
 
+  private static final String ADAPTER_ADDRESS = "00:00:00:00:00:A0";
+
   @Captor
   ArgumentCaptor<DevicePropertiesChangedHandler> deviceChangeHandlerCaptor;
+  @Captor
+  ArgumentCaptor<AbstractInterfacesAddedHandler> interfacesAddedHandlerCaptor;
 
   @Test
-  void scans_for_devices_when_initializing() {
+  void discovers_devices_in_background_instead_of_scanning_when_initializing() {
     //given
     DeviceManager deviceManagerMock = mock(DeviceManager.class);
-    BluetoothConnectionManager bluetoothConnectionManager = new BluetoothConnectionManager(deviceManagerMock);
+    BluetoothAdapter adapterMock = mockAdapter();
+    when(deviceManagerMock.getAdapters()).thenReturn(List.of(adapterMock));
+    Scheduler schedulerMock = mock(Scheduler.class);
+    BluetoothConnectionManager bluetoothConnectionManager = new BluetoothConnectionManager(deviceManagerMock,
+        schedulerMock);
+    BluetoothConnection bluetoothConnectionMock = mock(BluetoothConnection.class);
+    when(bluetoothConnectionMock.getMacAddress()).thenReturn("00:11:22:33:44:55");
+    bluetoothConnectionManager.setupConnection(bluetoothConnectionMock);
     //when
     bluetoothConnectionManager.init();
     //then
-    verify(deviceManagerMock).scanForBluetoothDevices(anyInt());
+    verify(deviceManagerMock, never()).scanForBluetoothDevices(anyInt());
+    verify(deviceManagerMock).getDevices(ADAPTER_ADDRESS, true);
+    verify(adapterMock).startDiscovery();
+    verify(schedulerMock).schedule(eq("bluetooth-discovery"), any(Runnable.class), any());
+  }
+
+  @Test
+  void notifies_connection_when_its_device_appears() throws DBusException {
+    //given
+    DeviceManager deviceManagerMock = mock(DeviceManager.class);
+    BluetoothConnectionManager bluetoothConnectionManager = new BluetoothConnectionManager(deviceManagerMock,
+        mock(Scheduler.class));
+    BluetoothConnection bluetoothConnectionMock = mock(BluetoothConnection.class);
+    when(bluetoothConnectionMock.getMacAddress()).thenReturn("aa:bb:cc:dd:ee:01");
+    bluetoothConnectionManager.setupConnection(bluetoothConnectionMock);
+    bluetoothConnectionManager.init();
+    verify(deviceManagerMock).registerSignalHandler(interfacesAddedHandlerCaptor.capture());
+    //when
+    interfacesAddedHandlerCaptor.getValue().handle(new InterfacesAdded("/",
+        new DBusPath("/org/bluez/hci0/dev_AA_BB_CC_DD_EE_01"), Map.of(BluetoothDeviceIndex.DEVICE_INTERFACE,
+        Map.of("Address", new Variant<>("AA:BB:CC:DD:EE:01")))));
+    //then
+    verify(bluetoothConnectionMock).handleDeviceAppeared();
   }
 
   @Test
   void subscribes_handler_when_initializing() throws DBusException {
     //given
     DeviceManager deviceManagerMock = mock(DeviceManager.class);
-    BluetoothConnectionManager bluetoothConnectionManager = new BluetoothConnectionManager(deviceManagerMock);
+    BluetoothConnectionManager bluetoothConnectionManager = new BluetoothConnectionManager(deviceManagerMock,
+        mock(Scheduler.class));
     //when
     bluetoothConnectionManager.init();
     //then
     verify(deviceManagerMock).registerPropertyHandler(any(DevicePropertiesChangedHandler.class));
   }
 
+  @Test
+  void subscribes_to_added_and_removed_devices_when_initializing() throws DBusException {
+    //given
+    DeviceManager deviceManagerMock = mock(DeviceManager.class);
+    BluetoothConnectionManager bluetoothConnectionManager = new BluetoothConnectionManager(deviceManagerMock,
+        mock(Scheduler.class));
+    //when
+    bluetoothConnectionManager.init();
+    //then
+    verify(deviceManagerMock).registerSignalHandler(any(AbstractInterfacesAddedHandler.class));
+    verify(deviceManagerMock).registerSignalHandler(any(AbstractInterfacesRemovedHandler.class));
+  }
+
   @Test
   void crashes_app_when_bluetooth_lib_fails() throws DBusException {
     //given
     DeviceManager deviceManagerMock = mock(DeviceManager.class);
-    BluetoothConnectionManager bluetoothConnectionManager = new BluetoothConnectionManager(deviceManagerMock);
+    BluetoothConnectionManager bluetoothConnectionManager = new BluetoothConnectionManager(deviceManagerMock,
+        mock(Scheduler.class));
     //when
     doThrow(DBusException.class).when(deviceManagerMock).registerPropertyHandler(any());
     //then
@@ -75,7 +134,8 @@ class BluetoothConnectionManagerTest {
   @Test
   void logs_macaddress_when_setting_up_connection() {
     //given
-    BluetoothConnectionManager bluetoothConnectionManager = new BluetoothConnectionManager(mock(DeviceManager.class));
+    BluetoothConnectionManager bluetoothConnectionManager = new BluetoothConnectionManager(mock(DeviceManager.class),
+        mock(Scheduler.class));
     BluetoothConnection bluetoothConnectionMock = mock(BluetoothConnection.class);
     String macAddress = "12:34:12:34:56:78:00";
     when(bluetoothConnectionMock.getMacAddress()).thenReturn(macAddress);
@@ -90,24 +150,55 @@ class BluetoothConnectionManagerTest {
   void returns_matching_device_when_device_manager_has_it() throws Exception {
     //given
     DeviceManager deviceManagerMock = mock(DeviceManager.class);
-    BluetoothConnectionManager bluetoothConnectionManager = new BluetoothConnectionManager(deviceManagerMock);
+    BluetoothConnectionManager bluetoothConnectionManager = new BluetoothConnectionManager(deviceManagerMock,
+        mock(Scheduler.class));
     String macAddress = "00:11:22:33:44:55:66";
     //when
+    BluetoothAdapter adapterMock = mockAdapter();
+    when(deviceManagerMock.getAdapters()).thenReturn(List.of(adapterMock));
     BluetoothDevice bluetoothDeviceMock = mock(BluetoothDevice.class);
-    when(deviceManagerMock.getDevices()).thenReturn(List.of(bluetoothDeviceMock));
+    when(deviceManagerMock.getDevices(ADAPTER_ADDRESS, true)).thenReturn(List.of(bluetoothDeviceMock));
     when(bluetoothDeviceMock.getAddress()).thenReturn(macAddress);
     //then
     assertThat(bluetoothConnectionManager.findDeviceOrFail(macAddress, mock())).isEqualTo(bluetoothDeviceMock);
   }
 
+  @Test
+  void returns_device_of_other_adapter_when_connect_failed() throws Exception {
+    //given
+    DeviceManager deviceManagerMock = mock(DeviceManager.class);
+    BluetoothConnectionManager bluetoothConnectionManager = new BluetoothConnectionManager(deviceManagerMock,
+        mock(Scheduler.class));
+    String macAddress = "AA:BB:CC:DD:EE:01";
+    BluetoothDevice bluetoothDeviceMock = mockDevice(macAddress, "/org/bluez/hci0/dev_AA_BB_CC_DD_EE_01", -50);
+    BluetoothDevice secondBluetoothDeviceMock = mockDevice(macAddress, "/org/bluez/hci1/dev_AA_BB_CC_DD_EE_01", -80);
+    BluetoothAdapter adapterMock = mockAdapter();
+    BluetoothAdapter secondAdapterMock = mock(BluetoothAdapter.class);
+    when(secondAdapterMock.getAddress()).thenReturn("00:00:00:00:00:A1");
+    when(deviceManagerMock.getAdapters()).thenReturn(List.of(adapterMock, secondAdapterMock));
+    when(deviceManagerMock.getDevices(ADAPTER_ADDRESS, true)).thenReturn(List.of(bluetoothDeviceMock));
+    when(deviceManagerMock.getDevices("00:00:00:00:00:A1", true)).thenReturn(List.of(secondBluetoothDeviceMock));
+    BluetoothDevice deviceOfFailedConnect = bluetoothConnectionManager.findDeviceOrFail(macAddress, mock());
+    //when
+    bluetoothConnectionManager.handleConnectFailed(macAddress);
+    //then
+    assertThat(deviceOfFailedConnect).isEqualTo(bluetoothDeviceMock);
+    assertThat(bluetoothConnectionManager.findDeviceOrFail(macAddress, mock())).isEqualTo(secondBluetoothDeviceMock);
+    assertThat(bluetoothConnectionManager.getAdapterAssignments()).containsEntry(macAddress, "/org/bluez/hci1");
+  }
+
   @Test
   void fails_with_exception_when_device_manager_has_no_matching_device() throws Exception {
     //given
     DeviceManager deviceManagerMock = mock(DeviceManager.class);
-    BluetoothConnectionManager bluetoothConnectionManager = new BluetoothConnectionManager(deviceManagerMock);
+    BluetoothConnectionManager bluetoothConnectionManager = new BluetoothConnectionManager(deviceManagerMock,
+        mock(Scheduler.class));
     String unknownMacAddress = "00:11:22:33:44:55:66";
     //when
-    when(deviceManagerMock.getDevices()).thenReturn(List.of(mock(BluetoothDevice.class, RETURNS_MOCKS)));
+    BluetoothAdapter adapterMock = mockAdapter();
+    when(deviceManagerMock.getAdapters()).thenReturn(List.of(adapterMock));
+    when(deviceManagerMock.getDevices(ADAPTER_ADDRESS, true))
+        .thenReturn(List.of(mock(BluetoothDevice.class, RETURNS_MOCKS)));
     //then
     RuntimeException wantedException = mock();
     assertThatCode(() -> bluetoothConnectionManager.findDeviceOrFail(unknownMacAddress, wantedException))
@@ -118,7 +209,9 @@ class BluetoothConnectionManagerTest {
   void forwards_property_change_when_subscribing_for_dbuspath() throws DBusException {
     //given
     DeviceManager deviceManagerMock = mock(DeviceManager.class);
-    BluetoothConnectionManager bluetoothConnectionManager = new BluetoothConnectionManager(deviceManagerMock);
+    BluetoothConnectionManager bluetoothConnectionManager = new BluetoothConnectionManager(deviceManagerMock,
+        mock(Scheduler.class),
+        new DeviceSignalDispatcher(Runnable::run, 1, DROP_OLDEST));
     bluetoothConnectionManager.init();
     verify(deviceManagerMock).registerPropertyHandler(deviceChangeHandlerCaptor.capture());
     PropertiesChanged measurementPropertyChange = createMeasurementPropertyChange(DBUS_PATH_01);
@@ -134,7 +227,9 @@ class BluetoothConnectionManagerTest {
   void does_not_forward_property_change_when_ignoring_dbuspath() throws DBusException {
     //given
     DeviceManager deviceManagerMock = mock(DeviceManager.class);
-    BluetoothConnectionManager bluetoothConnectionManager = new BluetoothConnectionManager(deviceManagerMock);
+    BluetoothConnectionManager bluetoothConnectionManager = new BluetoothConnectionManager(deviceManagerMock,
+        mock(Scheduler.class),
+        new DeviceSignalDispatcher(Runnable::run, 1, DROP_OLDEST));
     bluetoothConnectionManager.init();
     verify(deviceManagerMock).registerPropertyHandler(deviceChangeHandlerCaptor.capture());
     PropertiesChanged measurementPropertyChange = createMeasurementPropertyChange(DBUS_PATH_01);
@@ -146,4 +241,18 @@ class BluetoothConnectionManagerTest {
     //then
     verifyNoInteractions(listenerMock);
   }
+
+  private static BluetoothAdapter mockAdapter() {
+    BluetoothAdapter adapterMock = mock(BluetoothAdapter.class);
+    when(adapterMock.getAddress()).thenReturn(ADAPTER_ADDRESS);
+    return adapterMock;
+  }
+
+  private static BluetoothDevice mockDevice(String macAddress, String dbusPath, int rssi) {
+    BluetoothDevice bluetoothDeviceMock = mock(BluetoothDevice.class);
+    when(bluetoothDeviceMock.getAddress()).thenReturn(macAddress);
+    when(bluetoothDeviceMock.getDbusPath()).thenReturn(dbusPath);
+    when(bluetoothDeviceMock.getRssi()).thenReturn((short) rssi);
+    return bluetoothDeviceMock;
+  }
 }
@@ -0,0 +1,179 @@
+package com.github.sem2mqtt.bluetooth;
+
+import static java.util.Collections.emptyList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.github.hypfvieh.bluetooth.DeviceManager;
+import com.github.hypfvieh.bluetooth.wrapper.BluetoothAdapter;
+import com.github.hypfvieh.bluetooth.wrapper.BluetoothDevice;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import org.bluez.Device1;
+import org.freedesktop.dbus.DBusPath;
+import org.freedesktop.dbus.connections.impl.DBusConnection;
+import org.freedesktop.dbus.exceptions.DBusException;
+import org.freedesktop.dbus.interfaces.ObjectManager.InterfacesAdded;
+import org.freedesktop.dbus.interfaces.ObjectManager.InterfacesRemoved;
+import org.freedesktop.dbus.types.Variant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class BluetoothDeviceIndexTest {
+
+  private static final String MAC = "AA:BB:CC:DD:EE:01";
+  private static final String ADAPTER_PATH = "/org/bluez/hci0";
+  private static final String DEVICE_PATH = ADAPTER_PATH + "/dev_AA_BB_CC_DD_EE_01";
+  private static final String SECOND_ADAPTER_PATH = "/org/bluez/hci1";
+  private static final String SECOND_DEVICE_PATH = SECOND_ADAPTER_PATH + "/dev_AA_BB_CC_DD_EE_01";
+
+  private DeviceManager deviceManagerMock;
+  private BluetoothDeviceIndex deviceIndex;
+
+  @BeforeEach
+  void setUp() {
+    deviceManagerMock = mock(DeviceManager.class);
+    deviceIndex = new BluetoothDeviceIndex(deviceManagerMock, Duration.ofHours(1));
+  }
+
+  @Test
+  void finds_device_without_enumerating_devices_again() {
+    //given
+    BluetoothDevice bluetoothDeviceMock = mockDevice(DEVICE_PATH);
+    BluetoothAdapter adapterMock = mockAdapter("00:00:00:00:00:A0");
+    when(deviceManagerMock.getAdapters()).thenReturn(List.of(adapterMock));
+    when(deviceManagerMock.getDevices("00:00:00:00:00:A0", true)).thenReturn(List.of(bluetoothDeviceMock));
+    //when
+    deviceIndex.find(MAC);
+    //then
+    assertThat(deviceIndex.find(MAC.toLowerCase())).containsEntry(ADAPTER_PATH, bluetoothDeviceMock);
+    verify(deviceManagerMock, times(1)).getDevices("00:00:00:00:00:A0", true);
+  }
+
+  @Test
+  void finds_device_on_each_adapter_that_has_seen_it() {
+    //given
+    BluetoothDevice bluetoothDeviceMock = mockDevice(DEVICE_PATH);
+    BluetoothDevice secondBluetoothDeviceMock = mockDevice(SECOND_DEVICE_PATH);
+    BluetoothAdapter adapterMock = mockAdapter("00:00:00:00:00:A0");
+    BluetoothAdapter secondAdapterMock = mockAdapter("00:00:00:00:00:A1");
+    when(deviceManagerMock.getAdapters()).thenReturn(List.of(adapterMock, secondAdapterMock));
+    when(deviceManagerMock.getDevices("00:00:00:00:00:A0", true)).thenReturn(List.of(bluetoothDeviceMock));
+    when(deviceManagerMock.getDevices("00:00:00:00:00:A1", true)).thenReturn(List.of(secondBluetoothDeviceMock));
+    //when
+    Map<String, BluetoothDevice> devicesByAdapter = deviceIndex.find(MAC);
+    //then
+    assertThat(devicesByAdapter).containsOnly(entry(ADAPTER_PATH, bluetoothDeviceMock),
+        entry(SECOND_ADAPTER_PATH, secondBluetoothDeviceMock));
+  }
+
+  @Test
+  void enumerates_devices_at_most_once_per_refresh_interval_when_device_is_missing() {
+    //given
+    when(deviceManagerMock.getAdapters()).thenReturn(emptyList());
+    //when
+    deviceIndex.find(MAC);
+    deviceIndex.find(MAC);
+    //then
+    assertThat(deviceIndex.find(MAC)).isEmpty();
+    verify(deviceManagerMock, times(1)).getAdapters();
+  }
+
+  @Test
+  void removes_device_when_bluez_removes_it() throws DBusException {
+    //given
+    deviceIndex.replaceAll(List.of(mockDevice(DEVICE_PATH)));
+    //when
+    deviceIndex.handleInterfacesRemoved(new InterfacesRemoved("/", new DBusPath(DEVICE_PATH),
+        List.of(BluetoothDeviceIndex.DEVICE_INTERFACE)));
+    //then
+    assertThat(deviceIndex.find(MAC)).isEmpty();
+  }
+
+  @Test
+  void keeps_device_of_other_adapter_when_bluez_removes_it_from_one_adapter() throws DBusException {
+    //given
+    BluetoothDevice secondBluetoothDeviceMock = mockDevice(SECOND_DEVICE_PATH);
+    deviceIndex.replaceAll(List.of(mockDevice(DEVICE_PATH), secondBluetoothDeviceMock));
+    //when
+    deviceIndex.handleInterfacesRemoved(new InterfacesRemoved("/", new DBusPath(DEVICE_PATH),
+        List.of(BluetoothDeviceIndex.DEVICE_INTERFACE)));
+    //then
+    assertThat(deviceIndex.find(MAC)).containsOnly(entry(SECOND_ADAPTER_PATH, secondBluetoothDeviceMock));
+  }
+
+  @Test
+  void indexes_wanted_device_when_bluez_adds_it() throws DBusException {
+    //given
+    DBusConnection dbusConnectionMock = mock(DBusConnection.class);
+    when(deviceManagerMock.getDbusConnection()).thenReturn(dbusConnectionMock);
+    when(dbusConnectionMock.getRemoteObject("org.bluez", DEVICE_PATH, Device1.class)).thenReturn(mock(Device1.class));
+    BluetoothAdapter adapterMock = mock(BluetoothAdapter.class);
+    when(adapterMock.getDbusPath()).thenReturn(ADAPTER_PATH);
+    when(deviceManagerMock.getAdapters()).thenReturn(List.of(adapterMock));
+    deviceIndex.replaceAll(emptyList());
+    deviceIndex.want(MAC);
+    //when
+    deviceIndex.handleInterfacesAdded(createInterfacesAdded());
+    //then
+    assertThat(deviceIndex.find(MAC)).hasEntrySatisfying(ADAPTER_PATH,
+        bluetoothDevice -> assertThat(bluetoothDevice.getDbusPath()).isEqualTo(DEVICE_PATH));
+    verify(deviceManagerMock, never()).getDevices(anyString(), anyBoolean());
+  }
+
+  @Test
+  void ignores_unwanted_device_when_bluez_adds_it() throws DBusException {
+    //given
+    deviceIndex.replaceAll(emptyList());
+    //when
+    deviceIndex.handleInterfacesAdded(createInterfacesAdded());
+    //then
+    assertThat(deviceIndex.size()).isZero();
+    verify(deviceManagerMock, never()).getDbusConnection();
+  }
+
+  @Test
+  void enumerates_devices_at_next_lookup_when_added_device_cannot_be_indexed() throws DBusException {
+    //given
+    when(deviceManagerMock.getDbusConnection()).thenReturn(mock(DBusConnection.class));
+    BluetoothAdapter adapterMock = mockAdapter("00:00:00:00:00:A0");
+    when(deviceManagerMock.getAdapters()).thenReturn(List.of(adapterMock));
+    deviceIndex.replaceAll(emptyList());
+    deviceIndex.want(MAC);
+    //when
+    deviceIndex.handleInterfacesAdded(createInterfacesAdded());
+    deviceIndex.find(MAC);
+    //then
+    verify(deviceManagerMock).getDevices("00:00:00:00:00:A0", true);
+  }
+
+  private static InterfacesAdded createInterfacesAdded() throws DBusException {
+    return new InterfacesAdded("/", new DBusPath(DEVICE_PATH), Map.of(BluetoothDeviceIndex.DEVICE_INTERFACE,
+        Map.of("Address", new Variant<>(MAC), "Adapter", new Variant<>(new DBusPath(ADAPTER_PATH)))));
+  }
+
+  private static BluetoothDevice mockDevice(String dbusPath) {
+    BluetoothDevice bluetoothDeviceMock = mock(BluetoothDevice.class);
+    when(bluetoothDeviceMock.getAddress()).thenReturn(MAC);
+    when(bluetoothDeviceMock.getDbusPath()).thenReturn(dbusPath);
+    return bluetoothDeviceMock;
+  }
+
+  private static BluetoothAdapter mockAdapter(String address) {
+    BluetoothAdapter adapterMock = mock(BluetoothAdapter.class);
+    when(adapterMock.getAddress()).thenReturn(address);
+    return adapterMock;
+  }
+}
@@ -0,0 +1,89 @@
+package com.github.sem2mqtt.bluetooth;
+
+import static java.util.Collections.emptyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.github.hypfvieh.bluetooth.DeviceManager;
+import com.github.hypfvieh.bluetooth.wrapper.BluetoothAdapter;
+import com.github.hypfvieh.bluetooth.wrapper.BluetoothDevice;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class BluetoothDiscoveryTest {
+
+  private static final String MAC = "AA:BB:CC:DD:EE:01";
+
+  private DeviceManager deviceManagerMock;
+  private BluetoothAdapter adapterMock;
+  private BluetoothDeviceIndex deviceIndex;
+  private BluetoothDiscovery discovery;
+
+  @BeforeEach
+  void setUp() {
+    deviceManagerMock = mock(DeviceManager.class);
+    adapterMock = mock(BluetoothAdapter.class);
+    when(deviceManagerMock.getAdapters()).thenReturn(List.of(adapterMock));
+    deviceIndex = new BluetoothDeviceIndex(deviceManagerMock, Duration.ofHours(1));
+    discovery = new BluetoothDiscovery(deviceManagerMock, deviceIndex);
+  }
+
+  @Test
+  void starts_discovery_when_wanted_device_is_missing() {
+    //given
+    deviceIndex.replaceAll(emptyList());
+    deviceIndex.want(MAC);
+    when(adapterMock.isDiscovering()).thenReturn(false);
+    //when
+    discovery.check();
+    //then
+    verify(adapterMock).startDiscovery();
+  }
+
+  @Test
+  void does_not_start_discovery_again_when_already_discovering() {
+    //given
+    deviceIndex.replaceAll(emptyList());
+    deviceIndex.want(MAC);
+    when(adapterMock.isDiscovering()).thenReturn(true);
+    //when
+    discovery.check();
+    //then
+    verify(adapterMock, never()).startDiscovery();
+  }
+
+  @Test
+  void stops_discovery_when_all_wanted_devices_are_present() {
+    //given
+    BluetoothDevice bluetoothDeviceMock = mock(BluetoothDevice.class);
+    when(bluetoothDeviceMock.getAddress()).thenReturn(MAC);
+    deviceIndex.replaceAll(List.of(bluetoothDeviceMock));
+    deviceIndex.want(MAC);
+    when(adapterMock.isDiscovering()).thenReturn(true);
+    //when
+    discovery.check();
+    //then
+    verify(adapterMock).stopDiscovery();
+  }
+
+  @Test
+  void discovers_with_each_adapter_when_wanted_device_is_missing() {
+    //given
+    BluetoothAdapter secondAdapterMock = mock(BluetoothAdapter.class);
+    when(deviceManagerMock.getAdapters()).thenReturn(List.of(adapterMock, secondAdapterMock));
+    deviceIndex.replaceAll(emptyList());
+    deviceIndex.want(MAC);
+    //when
+    discovery.check();
+    //then
+    verify(adapterMock).startDiscovery();
+    verify(secondAdapterMock).startDiscovery();
+  }
+}
@@ -3,13 +3,20 @@ package com.github.sem2mqtt.bluetooth;
 import static com.github.sem2mqtt.bluetooth.sem6000.Sem6000DbusMessageTestHelper.DBUS_PATH_01;
 import static com.github.sem2mqtt.bluetooth.sem6000.Sem6000DbusMessageTestHelper.DBUS_PATH_02;
 import static com.github.sem2mqtt.bluetooth.sem6000.Sem6000DbusMessageTestHelper.createMeasurementPropertyChange;
+import static com.github.sem2mqtt.configuration.BluetoothConfig.SignalOverflowPolicy.DROP_NEWEST;
+import static com.github.sem2mqtt.configuration.BluetoothConfig.SignalOverflowPolicy.DROP_OLDEST;
+import static java.util.Collections.emptyList;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 
 import com.github.sem2mqtt.bluetooth.DevicePropertiesChangedHandler.DbusListener;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import org.freedesktop.dbus.exceptions.DBusException;
 import org.freedesktop.dbus.interfaces.Properties.PropertiesChanged;
+import org.freedesktop.dbus.types.Variant;
 import org.junit.jupiter.api.Test;
 
 class DevicePropertiesChangedHandlerTest {
@@ -17,7 +24,8 @@ class DevicePropertiesChangedHandlerTest {
   @Test
   void forwards_property_change_on_event_for_dbuspatch() throws DBusException {
     //given
-    DevicePropertiesChangedHandler handler = new DevicePropertiesChangedHandler();
+    DevicePropertiesChangedHandler handler = new DevicePropertiesChangedHandler(
+        new DeviceSignalDispatcher(Runnable::run, 1, DROP_OLDEST));
     DbusListener listenerMock = mock(DbusListener.class);
     PropertiesChanged propertiesChangedEvent = createMeasurementPropertyChange(DBUS_PATH_01);
     //when
@@ -30,7 +38,8 @@ class DevicePropertiesChangedHandlerTest {
   @Test
   void does_not_forward_property_change_when_events_dbuspath_does_not_match() throws DBusException {
     //given
-    DevicePropertiesChangedHandler handler = new DevicePropertiesChangedHandler();
+    DevicePropertiesChangedHandler handler = new DevicePropertiesChangedHandler(
+        new DeviceSignalDispatcher(Runnable::run, 1, DROP_OLDEST));
     DbusListener listenerMock = mock(DbusListener.class);
     PropertiesChanged propertiesChangedEvent = createMeasurementPropertyChange(DBUS_PATH_01);
     //when
@@ -43,7 +52,8 @@ class DevicePropertiesChangedHandlerTest {
   @Test
   void ignoring_dbuspath_prevents_forwarding_even_when_matching_message_arrives() throws DBusException {
     //given
-    DevicePropertiesChangedHandler handler = new DevicePropertiesChangedHandler();
+    DevicePropertiesChangedHandler handler = new DevicePropertiesChangedHandler(
+        new DeviceSignalDispatcher(Runnable::run, 1, DROP_OLDEST));
     DbusListener listenerMock = mock(DbusListener.class);
     PropertiesChanged propertiesChangedEvent = createMeasurementPropertyChange(DBUS_PATH_01);
     //when
@@ -53,4 +63,22 @@ class DevicePropertiesChangedHandlerTest {
     //then
     verifyNoInteractions(listenerMock);
   }
-}
\ No newline at end of file
+
+  @Test
+  void forwards_connected_property_change_even_when_queue_is_full() throws DBusException {
+    //given
+    List<Runnable> pendingDrains = new ArrayList<>();
+    DevicePropertiesChangedHandler handler = new DevicePropertiesChangedHandler(
+        new DeviceSignalDispatcher(pendingDrains::add, 1, DROP_NEWEST));
+    DbusListener listenerMock = mock(DbusListener.class);
+    PropertiesChanged disconnectedEvent = new PropertiesChanged(DBUS_PATH_01, "org.bluez.Device1",
+        Map.of("Connected", new Variant<>(false)), emptyList());
+    handler.subscribe(DBUS_PATH_01, listenerMock);
+    handler.handle(createMeasurementPropertyChange(DBUS_PATH_01));
+    //when
+    handler.handle(disconnectedEvent);
+    pendingDrains.forEach(Runnable::run);
+    //then
+    verify(listenerMock).handle(disconnectedEvent);
+  }
+}
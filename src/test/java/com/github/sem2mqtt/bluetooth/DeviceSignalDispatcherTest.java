@@ -0,0 +1,161 @@
+package com.github.sem2mqtt.bluetooth;
+
+import static com.github.sem2mqtt.configuration.BluetoothConfig.SignalOverflowPolicy.DROP_NEWEST;
+import static com.github.sem2mqtt.configuration.BluetoothConfig.SignalOverflowPolicy.DROP_OLDEST;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import com.github.sem2mqtt.configuration.BluetoothConfig;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class DeviceSignalDispatcherTest {
+
+  private static final String DEVICE_PATH_01 = "/org/bluez/hci0/dev_00_00_00_00_00_01";
+  private static final String DEVICE_PATH_02 = "/org/bluez/hci0/dev_00_00_00_00_00_02";
+  private static final String CHARACTERISTIC_PATH_01 = DEVICE_PATH_01 + "/service000e/char000f";
+
+  private final List<Runnable> pendingDrains = new ArrayList<>();
+
+  @Test
+  void handles_signals_of_a_device_in_order_on_worker_thread() {
+    //given
+    DeviceSignalDispatcher dispatcher = DeviceSignalDispatcher.withDaemonWorkers(BluetoothConfig.defaults());
+    List<Integer> handled = new CopyOnWriteArrayList<>();
+    List<String> threadNames = new CopyOnWriteArrayList<>();
+    //when
+    for (int i = 0; i < 50; i++) {
+      int signal = i;
+      dispatcher.dispatch(i % 2 == 0 ? DEVICE_PATH_01 : CHARACTERISTIC_PATH_01, () -> {
+        threadNames.add(Thread.currentThread().getName());
+        handled.add(signal);
+      });
+    }
+    //then
+    await().atMost(Duration.ofSeconds(1)).untilAsserted(() -> assertThat(handled).hasSize(50).isSorted());
+    assertThat(threadNames).allMatch(threadName -> threadName.startsWith("dbus-signal-"));
+  }
+
+  @Test
+  void handles_signals_of_other_devices_while_a_device_is_busy() throws InterruptedException {
+    //given
+    DeviceSignalDispatcher dispatcher = DeviceSignalDispatcher.withDaemonWorkers(BluetoothConfig.defaults());
+    CountDownLatch releaseBusyDevice = new CountDownLatch(1);
+    CountDownLatch otherDeviceHandled = new CountDownLatch(1);
+    dispatcher.dispatch(DEVICE_PATH_01, () -> {
+      try {
+        releaseBusyDevice.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    //when
+    dispatcher.dispatch(DEVICE_PATH_02, otherDeviceHandled::countDown);
+    //then
+    try {
+      await().atMost(Duration.ofSeconds(1)).until(() -> otherDeviceHandled.getCount() == 0);
+    } finally {
+      releaseBusyDevice.countDown();
+    }
+  }
+
+  @Test
+  void handles_signals_of_other_devices_once_a_worker_is_free() throws InterruptedException {
+    //given
+    DeviceSignalDispatcher dispatcher = DeviceSignalDispatcher.withDaemonWorkers(
+        new BluetoothConfig(null, null, null, null, null, 1));
+    CountDownLatch releaseBusyDevice = new CountDownLatch(1);
+    CountDownLatch otherDeviceHandled = new CountDownLatch(1);
+    dispatcher.dispatch(DEVICE_PATH_01, () -> {
+      try {
+        releaseBusyDevice.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    dispatcher.dispatch(DEVICE_PATH_02, otherDeviceHandled::countDown);
+    assertThat(otherDeviceHandled.await(100, TimeUnit.MILLISECONDS)).isFalse();
+    //when
+    releaseBusyDevice.countDown();
+    //then
+    assertThat(otherDeviceHandled.await(1, TimeUnit.SECONDS)).isTrue();
+  }
+
+  @Test
+  void drops_oldest_signal_and_counts_it_when_queue_is_full() {
+    //given
+    DeviceSignalDispatcher dispatcher = new DeviceSignalDispatcher(pendingDrains::add, 2, DROP_OLDEST);
+    List<Integer> handled = new ArrayList<>();
+    //when
+    for (int i = 0; i < 3; i++) {
+      int signal = i;
+      dispatcher.dispatch(CHARACTERISTIC_PATH_01, () -> handled.add(signal));
+    }
+    //then
+    assertThat(dispatcher.queueDepths()).containsEntry(DEVICE_PATH_01, 2);
+    assertThat(dispatcher.droppedSignals()).containsEntry(DEVICE_PATH_01, 1L);
+    pendingDrains.forEach(Runnable::run);
+    assertThat(handled).containsExactly(1, 2);
+  }
+
+  @Test
+  void never_drops_unbounded_signal_and_handles_it_first_when_queue_is_full() {
+    //given
+    DeviceSignalDispatcher dispatcher = new DeviceSignalDispatcher(pendingDrains::add, 2, DROP_OLDEST);
+    List<Integer> handled = new ArrayList<>();
+    for (int i = 0; i < 2; i++) {
+      int signal = i;
+      dispatcher.dispatch(CHARACTERISTIC_PATH_01, () -> handled.add(signal));
+    }
+    //when
+    dispatcher.dispatchUnbounded(DEVICE_PATH_01, () -> handled.add(-1));
+    dispatcher.dispatch(CHARACTERISTIC_PATH_01, () -> handled.add(2));
+    //then
+    assertThat(dispatcher.queueDepths()).containsEntry(DEVICE_PATH_01, 3);
+    assertThat(dispatcher.droppedSignals()).containsEntry(DEVICE_PATH_01, 1L);
+    pendingDrains.forEach(Runnable::run);
+    assertThat(handled).containsExactly(-1, 1, 2);
+  }
+
+  @Test
+  void drops_newest_signal_when_queue_is_full_and_configured_so() {
+    //given
+    DeviceSignalDispatcher dispatcher = new DeviceSignalDispatcher(pendingDrains::add, 2, DROP_NEWEST);
+    List<Integer> handled = new ArrayList<>();
+    //when
+    for (int i = 0; i < 3; i++) {
+      int signal = i;
+      dispatcher.dispatch(CHARACTERISTIC_PATH_01, () -> handled.add(signal));
+    }
+    //then
+    pendingDrains.forEach(Runnable::run);
+    assertThat(handled).containsExactly(0, 1);
+    assertThat(dispatcher.queueDepths()).containsEntry(DEVICE_PATH_01, 0);
+  }
+
+  @Test
+  void continues_with_next_signal_when_handling_a_signal_fails() {
+    //given
+    DeviceSignalDispatcher dispatcher = new DeviceSignalDispatcher(Runnable::run, 2, DROP_OLDEST);
+    List<Integer> handled = new ArrayList<>();
+    //when
+    dispatcher.dispatch(DEVICE_PATH_01, () -> {
+      throw new IllegalStateException("failing listener");
+    });
+    dispatcher.dispatch(DEVICE_PATH_01, () -> handled.add(1));
+    //then
+    assertThat(handled).containsExactly(1);
+  }
+
+  @Test
+  void groups_gatt_characteristics_with_their_device() {
+    assertThat(DeviceSignalDispatcher.deviceOf(CHARACTERISTIC_PATH_01)).isEqualTo(DEVICE_PATH_01);
+    assertThat(DeviceSignalDispatcher.deviceOf(DEVICE_PATH_01)).isEqualTo(DEVICE_PATH_01);
+    assertThat(DeviceSignalDispatcher.deviceOf("/org/bluez/hci0")).isEqualTo("/org/bluez/hci0");
+  }
+}
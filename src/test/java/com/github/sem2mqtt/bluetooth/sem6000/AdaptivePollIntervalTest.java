@@ -0,0 +1,83 @@
+package com.github.sem2mqtt.bluetooth.sem6000;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.sem2mqtt.configuration.AdaptivePollingConfig;
+import com.github.sem2mqtt.configuration.PublishFilterConfig.Deadband;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+class AdaptivePollIntervalTest {
+
+  private static final Duration UPDATE_INTERVAL = Duration.ofMinutes(1);
+
+  private static AdaptivePollInterval adaptivePollInterval(Duration minInterval, Duration maxInterval) {
+    return new AdaptivePollInterval(new AdaptivePollingConfig(minInterval, maxInterval, new Deadband(2d, null)),
+        UPDATE_INTERVAL);
+  }
+
+  @Test
+  void starts_at_min_interval() {
+    //when
+    AdaptivePollInterval adaptivePollInterval = adaptivePollInterval(Duration.ofSeconds(2), Duration.ofSeconds(30));
+    //then
+    assertThat(adaptivePollInterval.get()).isEqualTo(Duration.ofSeconds(2));
+  }
+
+  @Test
+  void backs_off_exponentially_up_to_max_interval_while_power_is_stable() {
+    //given
+    AdaptivePollInterval adaptivePollInterval = adaptivePollInterval(Duration.ofSeconds(2), Duration.ofSeconds(30));
+    //when
+    adaptivePollInterval.handleMeasuredPower(100);
+    Duration afterOneStableMeasurement = adaptivePollInterval.get();
+    adaptivePollInterval.handleMeasuredPower(101);
+    Duration afterTwoStableMeasurements = adaptivePollInterval.get();
+    for (int i = 0; i < 10; i++) {
+      adaptivePollInterval.handleMeasuredPower(100);
+    }
+    //then
+    assertThat(afterOneStableMeasurement).isEqualTo(Duration.ofSeconds(4));
+    assertThat(afterTwoStableMeasurements).isEqualTo(Duration.ofSeconds(8));
+    assertThat(adaptivePollInterval.get()).isEqualTo(Duration.ofSeconds(30));
+  }
+
+  @Test
+  void drops_to_min_interval_when_power_changes() {
+    //given
+    AdaptivePollInterval adaptivePollInterval = adaptivePollInterval(Duration.ofSeconds(2), Duration.ofSeconds(30));
+    adaptivePollInterval.handleMeasuredPower(100);
+    adaptivePollInterval.handleMeasuredPower(100);
+    //when
+    boolean dropped = adaptivePollInterval.handleMeasuredPower(1500);
+    //then
+    assertThat(dropped).isTrue();
+    assertThat(adaptivePollInterval.get()).isEqualTo(Duration.ofSeconds(2));
+  }
+
+  @Test
+  void drops_to_min_interval_when_reset() {
+    //given
+    AdaptivePollInterval adaptivePollInterval = adaptivePollInterval(Duration.ofSeconds(2), Duration.ofSeconds(30));
+    adaptivePollInterval.handleMeasuredPower(100);
+    //when
+    boolean dropped = adaptivePollInterval.reset();
+    boolean droppedAgain = adaptivePollInterval.reset();
+    //then
+    assertThat(dropped).isTrue();
+    assertThat(droppedAgain).isFalse();
+    assertThat(adaptivePollInterval.get()).isEqualTo(Duration.ofSeconds(2));
+  }
+
+  @Test
+  void backs_off_up_to_update_interval_when_max_interval_is_not_configured() {
+    //given
+    AdaptivePollInterval adaptivePollInterval = adaptivePollInterval(Duration.ofSeconds(2), null);
+    //when
+    for (int i = 0; i < 10; i++) {
+      adaptivePollInterval.handleMeasuredPower(100);
+    }
+    //then
+    assertThat(adaptivePollInterval.get()).isEqualTo(UPDATE_INTERVAL);
+  }
+}
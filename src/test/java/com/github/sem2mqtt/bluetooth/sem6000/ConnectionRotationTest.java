@@ -0,0 +1,93 @@
+package com.github.sem2mqtt.bluetooth.sem6000;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class ConnectionRotationTest {
+
+  private static final Duration LONG_UPDATE_INTERVAL = Duration.ofHours(1);
+
+  @Test
+  void visits_devices_one_after_another_when_sharing_one_slot() {
+    //given
+    ConnectionRotation connectionRotation = new ConnectionRotation(1);
+    AtomicInteger activeVisits = new AtomicInteger();
+    AtomicInteger maxActiveVisits = new AtomicInteger();
+    Sem6000Connection plug1 = visitingConnection(activeVisits, maxActiveVisits);
+    Sem6000Connection plug2 = visitingConnection(activeVisits, maxActiveVisits);
+    Sem6000Connection plug3 = visitingConnection(activeVisits, maxActiveVisits);
+    //when
+    connectionRotation.start();
+    connectionRotation.add(plug1, LONG_UPDATE_INTERVAL);
+    connectionRotation.add(plug2, LONG_UPDATE_INTERVAL);
+    connectionRotation.add(plug3, LONG_UPDATE_INTERVAL);
+    //then
+    verify(plug1, timeout(1000)).visit();
+    verify(plug2, timeout(1000)).visit();
+    verify(plug3, timeout(1000)).visit();
+    assertThat(maxActiveVisits).hasValue(1);
+  }
+
+  @Test
+  void visits_device_again_after_its_update_interval() {
+    //given
+    ConnectionRotation connectionRotation = new ConnectionRotation(1);
+    Sem6000Connection plug1 = mock(Sem6000Connection.class);
+    connectionRotation.start();
+    //when
+    connectionRotation.add(plug1, Duration.ofMillis(20));
+    //then
+    verify(plug1, timeout(1000).atLeast(3)).visit();
+  }
+
+  @Test
+  void visits_prioritized_device_with_next_free_slot() {
+    //given
+    ConnectionRotation connectionRotation = new ConnectionRotation(1);
+    Sem6000Connection plug1 = mock(Sem6000Connection.class);
+    Sem6000Connection plug2 = mock(Sem6000Connection.class);
+    connectionRotation.start();
+    connectionRotation.add(plug1, LONG_UPDATE_INTERVAL);
+    connectionRotation.add(plug2, LONG_UPDATE_INTERVAL);
+    verify(plug1, timeout(1000)).visit();
+    verify(plug2, timeout(1000)).visit();
+    //when
+    connectionRotation.prioritize(plug1);
+    //then
+    verify(plug1, timeout(1000).times(2)).visit();
+    verify(plug2, times(1)).visit();
+  }
+
+  @Test
+  void visits_devices_added_before_start_once_started() {
+    //given
+    ConnectionRotation connectionRotation = new ConnectionRotation(1);
+    Sem6000Connection plug1 = mock(Sem6000Connection.class);
+    connectionRotation.add(plug1, LONG_UPDATE_INTERVAL);
+    verify(plug1, after(100).never()).visit();
+    //when
+    connectionRotation.start();
+    //then
+    verify(plug1, timeout(1000)).visit();
+  }
+
+  private static Sem6000Connection visitingConnection(AtomicInteger activeVisits, AtomicInteger maxActiveVisits) {
+    Sem6000Connection connection = mock(Sem6000Connection.class);
+    when(connection.visit()).thenAnswer(invocation -> {
+      maxActiveVisits.accumulateAndGet(activeVisits.incrementAndGet(), Math::max);
+      Thread.sleep(20);
+      activeVisits.decrementAndGet();
+      return true;
+    });
+    return connection;
+  }
+}
@@ -0,0 +1,63 @@
+package com.github.sem2mqtt.bluetooth.sem6000;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import org.junit.jupiter.api.Test;
+
+class EnergyPollScheduleTest {
+
+  private static final ZoneId ZONE = ZoneOffset.ofHours(2);
+  private static final long DELAY = EnergyPollSchedule.MAX_DELAY_AFTER_BOUNDARY.toMillis();
+
+  private static long millisOf(LocalDateTime localDateTime) {
+    return localDateTime.atZone(ZONE).toInstant().toEpochMilli();
+  }
+
+  @Test
+  void requests_energy_shortly_after_connecting() {
+    //given
+    EnergyPollSchedule schedule = new EnergyPollSchedule(Duration.ofHours(1), ZONE);
+    long now = millisOf(LocalDateTime.of(2022, 5, 1, 10, 15));
+    //when
+    long nextExecution = schedule.nextExecutionInMillis(now, 0, null);
+    //then
+    assertThat(nextExecution).isEqualTo(now + DELAY);
+  }
+
+  @Test
+  void requests_energy_shortly_after_next_full_hour() {
+    //given
+    EnergyPollSchedule schedule = new EnergyPollSchedule(Duration.ofHours(1), ZONE);
+    long now = millisOf(LocalDateTime.of(2022, 5, 1, 10, 15));
+    //when
+    long nextExecution = schedule.nextExecutionInMillis(now, 1, now);
+    //then
+    assertThat(nextExecution).isEqualTo(millisOf(LocalDateTime.of(2022, 5, 1, 11, 0)) + DELAY);
+  }
+
+  @Test
+  void does_not_request_energy_twice_after_same_full_hour() {
+    //given
+    EnergyPollSchedule schedule = new EnergyPollSchedule(Duration.ofHours(1), ZONE);
+    long now = millisOf(LocalDateTime.of(2022, 5, 1, 11, 0)) + DELAY;
+    //when
+    long nextExecution = schedule.nextExecutionInMillis(now, 2, now);
+    //then
+    assertThat(nextExecution).isEqualTo(millisOf(LocalDateTime.of(2022, 5, 1, 12, 0)) + DELAY);
+  }
+
+  @Test
+  void requests_energy_shortly_after_midnight_when_interval_does_not_divide_day() {
+    //given
+    EnergyPollSchedule schedule = new EnergyPollSchedule(Duration.ofHours(5), ZONE);
+    long now = millisOf(LocalDateTime.of(2022, 5, 1, 21, 0));
+    //when
+    long nextExecution = schedule.nextExecutionInMillis(now, 1, now);
+    //then
+    assertThat(nextExecution).isEqualTo(millisOf(LocalDateTime.of(2022, 5, 2, 0, 0)) + DELAY);
+  }
+}
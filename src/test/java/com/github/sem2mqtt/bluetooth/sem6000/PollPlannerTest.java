@@ -0,0 +1,90 @@
+package com.github.sem2mqtt.bluetooth.sem6000;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.coreoz.wisp.schedule.Schedule;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+class PollPlannerTest {
+
+  private static final Duration UPDATE_INTERVAL = Duration.ofSeconds(60);
+
+  @Test
+  void spreads_devices_evenly_over_update_interval() {
+    //given
+    PollPlanner pollPlanner = new PollPlanner(Duration.ZERO);
+    //when
+    pollPlanner.join("plug1", UPDATE_INTERVAL);
+    pollPlanner.join("plug2", UPDATE_INTERVAL);
+    pollPlanner.join("plug3", UPDATE_INTERVAL);
+    pollPlanner.join("plug4", UPDATE_INTERVAL);
+    //then
+    assertThat(pollPlanner.getSlots()).containsEntry("plug1", Duration.ZERO)
+        .containsEntry("plug2", Duration.ofSeconds(15)).containsEntry("plug3", Duration.ofSeconds(30))
+        .containsEntry("plug4", Duration.ofSeconds(45));
+  }
+
+  @Test
+  void rebalances_slots_when_device_leaves() {
+    //given
+    PollPlanner pollPlanner = new PollPlanner(Duration.ZERO);
+    pollPlanner.join("plug1", UPDATE_INTERVAL);
+    pollPlanner.join("plug2", UPDATE_INTERVAL);
+    pollPlanner.join("plug3", UPDATE_INTERVAL);
+    pollPlanner.join("plug4", UPDATE_INTERVAL);
+    //when
+    pollPlanner.leave("plug2");
+    //then
+    assertThat(pollPlanner.getSlots()).hasSize(3).containsEntry("plug1", Duration.ZERO)
+        .containsEntry("plug3", Duration.ofSeconds(20)).containsEntry("plug4", Duration.ofSeconds(40));
+  }
+
+  @Test
+  void schedules_next_poll_at_slot_of_device() {
+    //given
+    PollPlanner pollPlanner = new PollPlanner(Duration.ZERO);
+    pollPlanner.join("plug1", UPDATE_INTERVAL);
+    Schedule schedule = pollPlanner.join("plug2", UPDATE_INTERVAL);
+    //when
+    long nextPollAt = schedule.nextExecutionInMillis(115_000, 0, null);
+    //then
+    assertThat(nextPollAt).isEqualTo(150_000);
+  }
+
+  @Test
+  void does_not_poll_again_shortly_after_last_poll() {
+    //given
+    PollPlanner pollPlanner = new PollPlanner(Duration.ZERO);
+    Schedule schedule = pollPlanner.join("plug2", UPDATE_INTERVAL);
+    // plug2 has been polled at second 120, its slot moves to second 30 as plug1 joins
+    pollPlanner.join("plug1", UPDATE_INTERVAL);
+    //when
+    long nextPollAt = schedule.nextExecutionInMillis(121_000, 1, 121_000L);
+    //then
+    assertThat(nextPollAt).isEqualTo(210_000);
+  }
+
+  @Test
+  void adds_bounded_jitter_to_polls() {
+    //given
+    PollPlanner pollPlanner = new PollPlanner(Duration.ofSeconds(1));
+    Schedule schedule = pollPlanner.join("plug1", UPDATE_INTERVAL);
+    //when
+    long nextPollAt = schedule.nextExecutionInMillis(125_000, 0, null);
+    //then
+    assertThat(nextPollAt).isBetween(180_000L, 181_000L);
+  }
+
+  @Test
+  void stops_polling_device_that_left() {
+    //given
+    PollPlanner pollPlanner = new PollPlanner(Duration.ZERO);
+    Schedule schedule = pollPlanner.join("plug1", UPDATE_INTERVAL);
+    //when
+    pollPlanner.leave("plug1");
+    //then
+    assertThat(schedule.nextExecutionInMillis(125_000, 1, 120_000L)).isEqualTo(Schedule.WILL_NOT_BE_EXECUTED_AGAIN);
+    assertThat(pollPlanner.getSlots()).isEmpty();
+  }
+}
@@ -0,0 +1,184 @@
+package com.github.sem2mqtt.bluetooth.sem6000;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.magcode.sem6000.connector.receive.SemResponse;
+import org.magcode.sem6000.connector.receive.SemResponseTestHelper;
+import org.magcode.sem6000.connector.send.Command;
+import org.magcode.sem6000.connector.send.DataDayCommand;
+import org.magcode.sem6000.connector.send.MeasureCommand;
+
+class Sem6000CommandQueueTest {
+
+  private final List<Command> writtenCommands = new CopyOnWriteArrayList<>();
+  private final ScheduledThreadPoolExecutor timeoutExecutor = new ScheduledThreadPoolExecutor(1);
+  private final ScheduledExecutorService namedTimeoutExecutor = Executors.newSingleThreadScheduledExecutor(
+      runnable -> new Thread(runnable, "command-timeout"));
+  private Sem6000CommandQueue commandQueue;
+
+  @BeforeEach
+  void setUp() {
+    timeoutExecutor.setRemoveOnCancelPolicy(true);
+    commandQueue = new Sem6000CommandQueue("plug1", writtenCommands::add, timeoutExecutor);
+  }
+
+  @AfterEach
+  void tearDown() {
+    timeoutExecutor.shutdownNow();
+    namedTimeoutExecutor.shutdownNow();
+  }
+
+  @Test
+  void writes_next_command_when_previous_one_is_answered() {
+    //given
+    MeasureCommand measureCommand = new MeasureCommand();
+    DataDayCommand dataDayCommand = new DataDayCommand();
+    //when
+    CompletableFuture<SemResponse> measurement = commandQueue.submit(measureCommand);
+    commandQueue.submit(dataDayCommand);
+    //then
+    await().atMost(Duration.ofSeconds(1))
+        .untilAsserted(() -> assertThat(writtenCommands).containsExactly(measureCommand));
+    commandQueue.handleResponse(SemResponseTestHelper.createMeasureResponse());
+    assertThat(measurement).isCompleted();
+    await().atMost(Duration.ofSeconds(1))
+        .untilAsserted(() -> assertThat(writtenCommands).containsExactly(measureCommand, dataDayCommand));
+  }
+
+  @Test
+  void writes_next_command_on_timeout_executor_when_previous_one_is_answered() {
+    //given
+    List<String> writingThreads = new CopyOnWriteArrayList<>();
+    commandQueue = new Sem6000CommandQueue("plug1", command -> writingThreads.add(Thread.currentThread().getName()),
+        namedTimeoutExecutor);
+    commandQueue.submit(new MeasureCommand());
+    commandQueue.submit(new DataDayCommand());
+    await().atMost(Duration.ofSeconds(1)).until(() -> writingThreads.size() == 1);
+    //when
+    commandQueue.handleResponse(SemResponseTestHelper.createMeasureResponse());
+    //then
+    await().atMost(Duration.ofSeconds(1)).untilAsserted(() -> assertThat(writingThreads).hasSize(2));
+    assertThat(writingThreads.get(1)).isEqualTo("command-timeout");
+  }
+
+  @Test
+  void ignores_response_when_it_does_not_match_command_in_flight() {
+    //given
+    CompletableFuture<SemResponse> measurement = commandQueue.submit(new MeasureCommand());
+    await().atMost(Duration.ofSeconds(1)).until(() -> writtenCommands.size() == 1);
+    //when
+    boolean handled = commandQueue.handleResponse(SemResponseTestHelper.createSyncTimeResponse());
+    //then
+    assertThat(handled).isFalse();
+    assertThat(measurement).isNotDone();
+  }
+
+  @Test
+  void retries_command_and_fails_when_it_is_not_answered() {
+    //given
+    commandQueue.setResponseTimeout(Duration.ofMillis(50));
+    commandQueue.setMaxRetries(2);
+    //when
+    CompletableFuture<SemResponse> measurement = commandQueue.submit(new MeasureCommand());
+    //then
+    await().atMost(Duration.ofSeconds(1)).until(measurement::isDone);
+    assertThat(measurement).failsWithin(Duration.ZERO).withThrowableOfType(ExecutionException.class)
+        .withCauseInstanceOf(SendingException.class);
+    assertThat(writtenCommands).hasSize(3);
+    assertThat(commandQueue.size()).isZero();
+  }
+
+  @Test
+  void writes_submitted_command_on_timeout_executor() {
+    //given
+    List<String> writingThreads = new CopyOnWriteArrayList<>();
+    commandQueue = new Sem6000CommandQueue("plug1", command -> writingThreads.add(Thread.currentThread().getName()),
+        namedTimeoutExecutor);
+    //when
+    commandQueue.submit(new MeasureCommand());
+    //then
+    await().atMost(Duration.ofSeconds(1))
+        .untilAsserted(() -> assertThat(writingThreads).containsExactly("command-timeout"));
+  }
+
+  @Test
+  void writes_command_again_on_timeout_executor_when_it_is_not_answered() {
+    //given
+    List<String> writingThreads = new CopyOnWriteArrayList<>();
+    commandQueue = new Sem6000CommandQueue("plug1", command -> writingThreads.add(Thread.currentThread().getName()),
+        namedTimeoutExecutor);
+    commandQueue.setResponseTimeout(Duration.ofMillis(20));
+    commandQueue.setMaxRetries(1);
+    //when
+    CompletableFuture<SemResponse> measurement = commandQueue.submit(new MeasureCommand());
+    //then
+    await().atMost(Duration.ofSeconds(1)).until(measurement::isDone);
+    assertThat(writingThreads).hasSize(2).last().isEqualTo("command-timeout");
+  }
+
+  @Test
+  void fails_command_and_continues_when_it_cannot_be_written() {
+    //given
+    MeasureCommand measureCommand = new MeasureCommand();
+    commandQueue = new Sem6000CommandQueue("plug1", command -> {
+      if (command == measureCommand) {
+        throw new SendingException("not connected");
+      }
+      writtenCommands.add(command);
+    }, timeoutExecutor);
+    //when
+    CompletableFuture<SemResponse> measurement = commandQueue.submit(measureCommand);
+    commandQueue.submit(new DataDayCommand());
+    //then
+    await().atMost(Duration.ofSeconds(1)).untilAsserted(() -> assertThat(writtenCommands).hasSize(1));
+    assertThat(measurement).isCompletedExceptionally();
+  }
+
+  @Test
+  void fails_all_commands_when_connection_is_lost() {
+    //given
+    CompletableFuture<SemResponse> measurement = commandQueue.submit(new MeasureCommand());
+    CompletableFuture<SemResponse> dataDay = commandQueue.submit(new DataDayCommand());
+    //when
+    commandQueue.failAll("connection lost");
+    //then
+    assertThat(measurement).isCompletedExceptionally();
+    assertThat(dataDay).isCompletedExceptionally();
+    assertThat(commandQueue.size()).isZero();
+  }
+
+  @Test
+  void cancels_timeout_when_command_is_answered() {
+    //given
+    commandQueue.submit(new MeasureCommand());
+    await().atMost(Duration.ofSeconds(1)).until(() -> writtenCommands.size() == 1);
+    //when
+    commandQueue.handleResponse(SemResponseTestHelper.createMeasureResponse());
+    //then
+    // the response timeout is two seconds, only the handed off write of the next command may still be queued
+    await().atMost(Duration.ofSeconds(1)).untilAsserted(() -> assertThat(timeoutExecutor.getQueue()).isEmpty());
+  }
+
+  @Test
+  void cancels_timeout_when_connection_is_lost() {
+    //given
+    commandQueue.submit(new MeasureCommand());
+    await().atMost(Duration.ofSeconds(1)).until(() -> writtenCommands.size() == 1);
+    //when
+    commandQueue.failAll("connection lost");
+    //then
+    assertThat(timeoutExecutor.getQueue()).isEmpty();
+  }
+}
@@ -2,7 +2,9 @@ package com.github.sem2mqtt.bluetooth.sem6000;
 
 import static com.github.sem2mqtt.bluetooth.sem6000.Sem6000DbusMessageTestHelper.DBUS_PATH_01;
 import static com.github.sem2mqtt.bluetooth.sem6000.Sem6000DbusMessageTestHelper.createMeasurementPropertyChange;
+import static com.github.sem2mqtt.bluetooth.sem6000.Sem6000DbusMessageTestHelper.createValuePropertyChange;
 import static com.github.sem2mqtt.configuration.Sem6000ConfigTestHelper.randomSemConfigForPlug;
+import static java.util.Collections.emptyList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
 import static org.awaitility.Awaitility.await;
@@ -10,12 +12,19 @@ import static org.mockito.Answers.RETURNS_MOCKS;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
 import static org.mockito.Mockito.atLeast;
 import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -29,8 +38,18 @@ import com.github.hypfvieh.bluetooth.wrapper.BluetoothGattService;
 import com.github.sem2mqtt.bluetooth.BluetoothConnectionManager;
 import com.github.sem2mqtt.bluetooth.DevicePropertiesChangedHandler.DbusListener;
 import com.github.sem2mqtt.bluetooth.sem6000.Sem6000DbusHandlerProxy.Sem6000ResponseHandler;
+import com.github.sem2mqtt.configuration.AdaptivePollingConfig;
 import com.github.sem2mqtt.configuration.Sem6000Config;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 import org.bluez.exceptions.BluezFailedException;
 import org.bluez.exceptions.BluezInProgressException;
@@ -39,6 +58,8 @@ import org.bluez.exceptions.BluezNotAuthorizedException;
 import org.bluez.exceptions.BluezNotPermittedException;
 import org.bluez.exceptions.BluezNotSupportedException;
 import org.freedesktop.dbus.exceptions.DBusException;
+import org.freedesktop.dbus.interfaces.Properties.PropertiesChanged;
+import org.freedesktop.dbus.types.Variant;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -46,7 +67,19 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.magcode.sem6000.connector.receive.AvailabilityResponse;
+import org.magcode.sem6000.connector.receive.AvailabilityResponse.Availability;
+import org.magcode.sem6000.connector.receive.DataDayResponse;
+import org.magcode.sem6000.connector.receive.MeasurementResponse;
+import org.magcode.sem6000.connector.receive.SwitchResponse;
+import org.magcode.sem6000.connector.receive.ResponseType;
+import org.magcode.sem6000.connector.receive.SemResponse;
+import org.magcode.sem6000.connector.send.Command;
+import org.magcode.sem6000.connector.send.DataDayCommand;
+import org.magcode.sem6000.connector.send.LoginCommand;
 import org.magcode.sem6000.connector.send.MeasureCommand;
+import org.magcode.sem6000.connector.send.Sem6000FrameEncoder;
+import org.magcode.sem6000.connector.send.SwitchCommand;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -55,24 +88,33 @@ import org.mockito.junit.jupiter.MockitoSettings;
 @ExtendWith(MockitoExtension.class)
 class Sem6000ConnectionTest {
 
+  private static final String MEASUREMENT_RESPONSE = "0f11040001002cc8ea0059320000000000006f";
+  private static final String DATA_DAY_RESPONSE =
+      "0f330a00000000000000000000000000000000000000000000000000005c04e200c9005f0000000000000000000000000000000075ffff";
   private final Scheduler scheduler = new Scheduler();
+  private final ScheduledExecutorService commandExecutor = Executors.newSingleThreadScheduledExecutor();
   private BluetoothDevice sem6000DeviceMock;
   private BluetoothGattCharacteristic writeService;
   private BluetoothGattCharacteristic notifyService;
   private BluetoothConnectionManager bluetoothConnectionManagerMock;
   @Captor
   ArgumentCaptor<DbusListener> dbusListenerCaptor;
+  private static final String DEVICE_PATH_01 = "/org/bluez/bt1/dev_00_00_00_00_00_01";
+  private final Map<String, DbusListener> dbusListeners = new ConcurrentHashMap<>();
+  private boolean answeringCommands = true;
+  private byte loginResult = 0x00;
 
   /**
    * Set up a connection manager with a device that is connected and returns sem6000 gatt service and its write and
-   * notify services.
+   * notify services. The device answers each command like a real sem6000 device.
    */
   @BeforeEach
   void setUp() throws Exception {
     bluetoothConnectionManagerMock = mock(BluetoothConnectionManager.class);
+    lenient().when(bluetoothConnectionManagerMock.getCommandExecutor()).thenReturn(commandExecutor);
     sem6000DeviceMock = mock(BluetoothDevice.class, RETURNS_MOCKS);
     when(sem6000DeviceMock.connect()).thenReturn(true);
-    when(sem6000DeviceMock.isConnected()).thenReturn(true);
+    lenient().when(sem6000DeviceMock.getDbusPath()).thenReturn(DEVICE_PATH_01);
     when(bluetoothConnectionManagerMock.findDeviceOrFail(anyString(), any())).thenReturn(sem6000DeviceMock);
     BluetoothGattService gattService = mock(BluetoothGattService.class, RETURNS_MOCKS);
     when(sem6000DeviceMock.getGattServiceByUuid(Sem6000GattCharacteristic.SERVICE.uuid)).thenReturn(gattService);
@@ -80,11 +122,45 @@ class Sem6000ConnectionTest {
     when(gattService.getGattCharacteristicByUuid(Sem6000GattCharacteristic.WRITE.uuid)).thenReturn(writeService);
     notifyService = mock(BluetoothGattCharacteristic.class, RETURNS_MOCKS);
     when(gattService.getGattCharacteristicByUuid(Sem6000GattCharacteristic.NOTIFY.uuid)).thenReturn(notifyService);
+    lenient().when(notifyService.getDbusPath()).thenReturn(DBUS_PATH_01);
+    lenient().doAnswer(invocation -> {
+      dbusListeners.put(invocation.getArgument(0), invocation.getArgument(1));
+      return null;
+    }).when(bluetoothConnectionManagerMock).subscribeToDbusPath(any(), any());
+    lenient().doAnswer(invocation -> {
+      answer(invocation.getArgument(0));
+      return null;
+    }).when(writeService).writeValue(any(), anyMap());
+  }
+
+  private void answer(byte[] command) throws DBusException {
+    DbusListener dbusListener = dbusListeners.get(DBUS_PATH_01);
+    if (!answeringCommands || dbusListener == null) {
+      return;
+    }
+    byte opcode = command[2];
+    byte[] response;
+    if (opcode == MeasureCommand.OPCODE) {
+      response = Command.hexStringToByteArray(MEASUREMENT_RESPONSE);
+    } else if (opcode == DataDayCommand.OPCODE) {
+      response = Command.hexStringToByteArray(DATA_DAY_RESPONSE);
+    } else if (opcode == LoginCommand.OPCODE) {
+      response = Sem6000FrameEncoder.encode(opcode, new byte[]{0x00, loginResult});
+    } else {
+      response = Sem6000FrameEncoder.encode(opcode, new byte[]{0x00, 0x00});
+    }
+    dbusListener.handle(createValuePropertyChange(DBUS_PATH_01, response));
+  }
+
+  private void disconnectDevice() throws DBusException {
+    dbusListeners.get(DEVICE_PATH_01).handle(new PropertiesChanged(DEVICE_PATH_01, "org.bluez.Device1",
+        Map.of("Connected", new Variant<>(false)), emptyList()));
   }
 
   @AfterEach
   void tearDown() {
     scheduler.gracefullyShutdown();
+    commandExecutor.shutdownNow();
   }
 
   @Test
@@ -94,7 +170,7 @@ class Sem6000ConnectionTest {
     Sem6000Config sem6000Config = randomSemConfigForPlug("plug1");
     //when
     Sem6000Connection sem6000Connection = new Sem6000Connection(sem6000Config,
-        new BluetoothConnectionManager(mock(DeviceManager.class)), scheduler);
+        new BluetoothConnectionManager(mock(DeviceManager.class), mock(Scheduler.class)), scheduler);
     //then
     assertThat(sem6000Connection.getMacAddress()).isEqualTo(sem6000Connection.getMacAddress());
   }
@@ -160,6 +236,33 @@ class Sem6000ConnectionTest {
     assertThat(sem6000Connection.isEstablished()).isTrue();
   }
 
+  @Test
+  void connection_is_not_established_when_device_rejects_login() {
+    //given
+    Sem6000Connection sem6000Connection = new Sem6000Connection(randomSemConfigForPlug("plug1"),
+        bluetoothConnectionManagerMock, scheduler);
+    loginResult = 0x01;
+    //when
+    sem6000Connection.establish();
+    //then
+    assertThat(sem6000Connection.isEstablished()).isFalse();
+    verify(sem6000DeviceMock).disconnect();
+  }
+
+  @Test
+  void connection_is_not_established_when_device_does_not_answer_login() throws Exception {
+    //given
+    Sem6000Connection sem6000Connection = new Sem6000Connection(randomSemConfigForPlug("plug1"),
+        bluetoothConnectionManagerMock, scheduler);
+    sem6000Connection.setResponseTimeout(Duration.ofMillis(20));
+    answeringCommands = false;
+    //when
+    sem6000Connection.establish();
+    //then
+    assertThat(sem6000Connection.isEstablished()).isFalse();
+    verify(writeService, times(1 + Sem6000CommandQueue.DEFAULT_MAX_RETRIES)).writeValue(any(), anyMap());
+  }
+
   @Test
   void sends_measurement_and_day_requests_when_connection_is_established()
       throws InterruptedException, BluezFailedException, BluezNotAuthorizedException, BluezInvalidValueLengthException, BluezNotSupportedException, BluezInProgressException, BluezNotPermittedException {
@@ -169,7 +272,7 @@ class Sem6000ConnectionTest {
         bluetoothConnectionManagerMock, scheduler);
     //when
     sem6000Connection.establish();
-    reset(writeService); // reset to ignore e.g. the login message
+    clearInvocations(writeService); // ignore e.g. the login message
     // wait longer than update interval, because of the message processing overhead
     final int COUNT_OF_MEASUREMENT_MESSAGES_PER_REQUEST = 2;
     await().atMost(Duration.ofSeconds(1))
@@ -187,7 +290,7 @@ class Sem6000ConnectionTest {
         bluetoothConnectionManagerMock, scheduler);
     //when
     sem6000Connection.establish();
-    reset(writeService); // reset to ignore e.g. the login message
+    clearInvocations(writeService); // ignore e.g. the login message
     // there is an overhead when processing the message, therefore, we wait twice the update interval
     await().atLeast(Duration.ofMillis(updateInterval.toMillis() * 10))
         .pollDelay(Duration.ofMillis(updateInterval.toMillis()))
@@ -218,7 +321,7 @@ class Sem6000ConnectionTest {
 
   @Test
   void resets_state_when_message_cannot_be_sent()
-      throws SendingException, BluezFailedException, BluezNotAuthorizedException, BluezInvalidValueLengthException, BluezNotSupportedException, BluezInProgressException, BluezNotPermittedException {
+      throws DBusException {
     //given
     Sem6000Connection sem6000Connection = new Sem6000Connection(randomSemConfigForPlug("plug1"),
         bluetoothConnectionManagerMock, scheduler);
@@ -226,7 +329,7 @@ class Sem6000ConnectionTest {
     sem6000Connection.establish();
     MeasureCommand command = new MeasureCommand();
     //when
-    when(sem6000DeviceMock.isConnected()).thenReturn(false);
+    disconnectDevice();
     //then
     assertThatCode(() -> sem6000Connection.safeSend(command))
         .isInstanceOf(SendingException.class)
@@ -235,7 +338,84 @@ class Sem6000ConnectionTest {
   }
 
   @Test
-  void reconnects_when_connection_is_lost() throws SendingException {
+  @MockitoSettings(strictness = LENIENT)
+  void disconnects_when_gatt_service_is_not_resolved() {
+    //given
+    Sem6000Connection sem6000Connection = new Sem6000Connection(randomSemConfigForPlug("plug1"),
+        bluetoothConnectionManagerMock, scheduler);
+    when(sem6000DeviceMock.getGattServiceByUuid(Sem6000GattCharacteristic.SERVICE.uuid)).thenReturn(null);
+    //when
+    sem6000Connection.establish();
+    //then
+    assertThat(sem6000Connection.isEstablished()).isFalse();
+    verify(sem6000DeviceMock).disconnect();
+    verify(bluetoothConnectionManagerMock).ignoreDbusPath(DEVICE_PATH_01);
+  }
+
+  @Test
+  void keeps_setting_up_connection_when_command_is_sent_before_characteristics_are_loaded() {
+    //given
+    Sem6000Connection sem6000Connection = new Sem6000Connection(randomSemConfigForPlug("plug1"),
+        bluetoothConnectionManagerMock, scheduler);
+    BluetoothGattService gattService = sem6000DeviceMock.getGattServiceByUuid(Sem6000GattCharacteristic.SERVICE.uuid);
+    List<CompletableFuture<MeasurementResponse>> earlyMeasurements = new ArrayList<>();
+    when(sem6000DeviceMock.getGattServiceByUuid(Sem6000GattCharacteristic.SERVICE.uuid)).thenAnswer(invocation -> {
+      CompletableFuture<MeasurementResponse> earlyMeasurement = sem6000Connection.measure();
+      // the command is written on the command executor, wait for it while the characteristics are not loaded yet
+      await().atMost(Duration.ofSeconds(1)).until(earlyMeasurement::isDone);
+      earlyMeasurements.add(earlyMeasurement);
+      return gattService;
+    });
+    //when
+    sem6000Connection.establish();
+    //then
+    assertThat(earlyMeasurements).singleElement().satisfies(measurement -> assertThat(measurement)
+        .failsWithin(Duration.ZERO).withThrowableOfType(ExecutionException.class)
+        .withCauseInstanceOf(SendingException.class));
+    assertThat(sem6000Connection.isEstablished()).isTrue();
+    verify(bluetoothConnectionManagerMock, never()).ignoreDbusPath(DEVICE_PATH_01);
+  }
+
+  @Test
+  void notices_lost_connection_without_asking_device() throws DBusException {
+    //given
+    Sem6000Connection sem6000Connection = new Sem6000Connection(randomSemConfigForPlug("plug1"),
+        bluetoothConnectionManagerMock, scheduler);
+    sem6000Connection.establish();
+    Sem6000ResponseHandler responseHandler = mock(Sem6000ResponseHandler.class);
+    sem6000Connection.subscribe(responseHandler);
+    //when
+    disconnectDevice();
+    //then
+    assertThat(sem6000Connection.isEstablished()).isFalse();
+    verify(responseHandler).handleSem6000Response(
+        argThat(response -> response.getType() == ResponseType.AVAILABILITY
+            && ((AvailabilityResponse) response).getAvailability() == Availability.LOST));
+    verify(bluetoothConnectionManagerMock).ignoreDbusPath(DEVICE_PATH_01);
+    verify(sem6000DeviceMock, never()).isConnected();
+  }
+
+  @Test
+  void notifies_subscribers_of_lost_connection_without_holding_its_lock() throws DBusException {
+    //given
+    Sem6000Connection sem6000Connection = new Sem6000Connection(randomSemConfigForPlug("plug1"),
+        bluetoothConnectionManagerMock, scheduler);
+    sem6000Connection.establish();
+    CompletableFuture<Boolean> lockHeldWhileNotified = new CompletableFuture<>();
+    sem6000Connection.subscribe(response -> {
+      if (response.getType() == ResponseType.AVAILABILITY
+          && ((AvailabilityResponse) response).getAvailability() == Availability.LOST) {
+        lockHeldWhileNotified.complete(Thread.holdsLock(sem6000Connection));
+      }
+    });
+    //when
+    disconnectDevice();
+    //then
+    assertThat(lockHeldWhileNotified).isCompletedWithValue(false);
+  }
+
+  @Test
+  void reconnects_when_connection_is_lost() throws DBusException {
     //given
     Sem6000Connection sem6000Connection = new Sem6000Connection(randomSemConfigForPlug("plug1"),
         bluetoothConnectionManagerMock, scheduler);
@@ -243,10 +423,10 @@ class Sem6000ConnectionTest {
     sem6000Connection.establish();
     Duration reconnectDelay = Duration.ofMillis(20);
     sem6000Connection.setReconnectDelay(reconnectDelay);
-    when(sem6000DeviceMock.isConnected()).thenReturn(false);
     MeasureCommand command = new MeasureCommand();
     //when
     reset(sem6000DeviceMock);
+    disconnectDevice();
     assertThatCode(() -> sem6000Connection.safeSend(command))
         .isInstanceOf(SendingException.class)
         .hasMessageContaining("not connected");
@@ -254,6 +434,23 @@ class Sem6000ConnectionTest {
     await().untilAsserted(() -> verify(sem6000DeviceMock, atLeastOnce()).connect());
   }
 
+  @Test
+  @MockitoSettings(strictness = LENIENT)
+  void reconnects_without_waiting_for_reconnect_delay_when_device_appears() throws Exception {
+    //given
+    Sem6000Connection sem6000Connection = new Sem6000Connection(randomSemConfigForPlug("plug1"),
+        bluetoothConnectionManagerMock, scheduler);
+    sem6000Connection.setReconnectDelay(Duration.ofHours(1));
+    when(bluetoothConnectionManagerMock.findDeviceOrFail(anyString(), any(Exception.class)))
+        .thenThrow(new ConnectException("Could not find device."))
+        .thenReturn(sem6000DeviceMock);
+    sem6000Connection.establish();
+    //when
+    sem6000Connection.handleDeviceAppeared();
+    //then
+    await().atMost(Duration.ofSeconds(1)).untilAsserted(() -> verify(sem6000DeviceMock).connect());
+  }
+
   @Test
   @MockitoSettings(strictness = LENIENT)
   void keeps_reconnecting_on_runtimeexception_during_reconnect()
@@ -307,4 +504,164 @@ class Sem6000ConnectionTest {
         .isInstanceOf(SendingException.class)
         .hasMessageContainingAll("Failed", "send", "message");
   }
-}
\ No newline at end of file
+
+  @Test
+  void completes_with_response_when_device_answers_command() throws Exception {
+    //given
+    Sem6000Connection sem6000Connection = new Sem6000Connection(randomSemConfigForPlug("plug1"),
+        bluetoothConnectionManagerMock, scheduler);
+    sem6000Connection.establish();
+    //when
+    CompletableFuture<SemResponse> response = sem6000Connection.send(new SwitchCommand(true));
+    //then
+    assertThat(response.get(1, TimeUnit.SECONDS).getType()).isEqualTo(ResponseType.SWITCHRELAY);
+  }
+
+  @Test
+  void sends_one_measure_command_when_measurements_are_requested_concurrently() throws Exception {
+    //given
+    Sem6000Connection sem6000Connection = new Sem6000Connection(randomSemConfigForPlug("plug1"),
+        bluetoothConnectionManagerMock, scheduler);
+    sem6000Connection.establish();
+    answeringCommands = false;
+    clearInvocations(writeService);
+    //when
+    CompletableFuture<MeasurementResponse> first = sem6000Connection.requestMeasurement();
+    CompletableFuture<MeasurementResponse> second = sem6000Connection.requestMeasurement();
+    //then
+    verify(writeService, after(200).times(1)).writeValue(argThat(command -> command[2] == MeasureCommand.OPCODE),
+        anyMap());
+    assertThat(first).isNotDone();
+    assertThat(second).isNotDone();
+  }
+
+  @Test
+  void sends_one_data_day_command_when_energy_of_today_is_requested_concurrently() throws Exception {
+    //given
+    Sem6000Connection sem6000Connection = new Sem6000Connection(randomSemConfigForPlug("plug1"),
+        bluetoothConnectionManagerMock, scheduler);
+    sem6000Connection.establish();
+    answeringCommands = false;
+    clearInvocations(writeService);
+    //when
+    CompletableFuture<DataDayResponse> first = sem6000Connection.requestDataDay();
+    CompletableFuture<DataDayResponse> second = sem6000Connection.requestDataDay();
+    //then
+    verify(writeService, after(200).times(1)).writeValue(argThat(command -> command[2] == DataDayCommand.OPCODE),
+        anyMap());
+    assertThat(first).isNotDone();
+    assertThat(second).isNotDone();
+  }
+
+  @Test
+  void does_not_request_energy_of_today_with_each_measurement() throws Exception {
+    //given
+    Sem6000Connection sem6000Connection = new Sem6000Connection(
+        randomSemConfigForPlug("plug1", Duration.ofMillis(15)), bluetoothConnectionManagerMock, scheduler);
+    //when
+    sem6000Connection.establish();
+    //then
+    await().atMost(Duration.ofSeconds(1)).untilAsserted(() -> verify(writeService, atLeast(10))
+        .writeValue(argThat(command -> command[2] == MeasureCommand.OPCODE), anyMap()));
+    verify(writeService, never()).writeValue(argThat(command -> command[2] == DataDayCommand.OPCODE), anyMap());
+  }
+
+  @Test
+  void polls_at_min_interval_again_when_relay_is_switched() throws Exception {
+    //given
+    Sem6000Connection sem6000Connection = new Sem6000Connection(
+        randomSemConfigForPlug("plug1", new AdaptivePollingConfig(Duration.ofMillis(10), null, null)),
+        bluetoothConnectionManagerMock, scheduler);
+    sem6000Connection.establish();
+    // backs off to more than a second while the power is stable
+    await().atMost(Duration.ofSeconds(5)).untilAsserted(() -> verify(writeService, atLeast(8))
+        .writeValue(argThat(command -> command[2] == MeasureCommand.OPCODE), anyMap()));
+    clearInvocations(writeService);
+    //when
+    sem6000Connection.switchRelay(true);
+    //then
+    verify(writeService, timeout(300).atLeast(3))
+        .writeValue(argThat(command -> command[2] == MeasureCommand.OPCODE), anyMap());
+  }
+
+  @Test
+  void visits_device_to_poll_and_disconnects_afterwards_when_rotating() throws Exception {
+    //given
+    ConnectionRotation connectionRotation = mock(ConnectionRotation.class);
+    Sem6000Config sem6000Config = randomSemConfigForPlug("plug1");
+    Sem6000Connection sem6000Connection = new Sem6000Connection(sem6000Config, bluetoothConnectionManagerMock,
+        scheduler, new PollPlanner(), connectionRotation);
+    sem6000Connection.setVisitLinger(Duration.ofMillis(50));
+    sem6000Connection.establish();
+    //when
+    boolean visited = sem6000Connection.visit();
+    //then
+    assertThat(visited).isTrue();
+    verify(connectionRotation).add(sem6000Connection, sem6000Config.getUpdateInterval());
+    verify(writeService).writeValue(argThat(command -> command[2] == MeasureCommand.OPCODE), anyMap());
+    verify(sem6000DeviceMock).disconnect();
+    assertThat(sem6000Connection.isEstablished()).isFalse();
+  }
+
+  @Test
+  void sends_command_during_next_visit_when_rotating() throws Exception {
+    //given
+    ConnectionRotation connectionRotation = mock(ConnectionRotation.class);
+    Sem6000Connection sem6000Connection = new Sem6000Connection(randomSemConfigForPlug("plug1"),
+        bluetoothConnectionManagerMock, scheduler, new PollPlanner(), connectionRotation);
+    sem6000Connection.setVisitLinger(Duration.ofMillis(50));
+    sem6000Connection.establish();
+    CompletableFuture<SwitchResponse> switchRelay = sem6000Connection.switchRelay(true);
+    //when
+    sem6000Connection.visit();
+    //then
+    verify(connectionRotation).prioritize(sem6000Connection);
+    assertThat(switchRelay).isCompleted();
+    verify(writeService).writeValue(argThat(command -> command[2] == SwitchCommand.OPCODE), anyMap());
+  }
+
+  @Test
+  @MockitoSettings(strictness = LENIENT)
+  void fails_waiting_command_when_visit_fails() {
+    //given
+    ConnectionRotation connectionRotation = mock(ConnectionRotation.class);
+    Sem6000Connection sem6000Connection = new Sem6000Connection(randomSemConfigForPlug("plug1"),
+        bluetoothConnectionManagerMock, scheduler, new PollPlanner(), connectionRotation);
+    when(sem6000DeviceMock.connect()).thenReturn(false);
+    CompletableFuture<SwitchResponse> switchRelay = sem6000Connection.switchRelay(true);
+    //when
+    boolean visited = sem6000Connection.visit();
+    //then
+    assertThat(visited).isFalse();
+    assertThat(switchRelay).isCompletedExceptionally();
+  }
+
+  @Test
+  @MockitoSettings(strictness = LENIENT)
+  void reports_failed_connect_so_that_device_tries_another_adapter() {
+    //given
+    Sem6000Config sem6000Config = randomSemConfigForPlug("plug1");
+    Sem6000Connection sem6000Connection = new Sem6000Connection(sem6000Config, bluetoothConnectionManagerMock,
+        scheduler, new PollPlanner(), mock(ConnectionRotation.class));
+    when(sem6000DeviceMock.connect()).thenReturn(false);
+    //when
+    sem6000Connection.visit();
+    //then
+    verify(bluetoothConnectionManagerMock).handleConnectFailed(sem6000Config.getMac());
+    verify(bluetoothConnectionManagerMock, never()).handleConnected(anyString());
+  }
+
+  @Test
+  void fails_with_sending_exception_when_device_does_not_answer() {
+    //given
+    Sem6000Connection sem6000Connection = new Sem6000Connection(randomSemConfigForPlug("plug1"),
+        bluetoothConnectionManagerMock, scheduler);
+    sem6000Connection.setResponseTimeout(Duration.ofMillis(20));
+    sem6000Connection.establish();
+    answeringCommands = false;
+    //then
+    assertThatCode(() -> sem6000Connection.safeSend(new SwitchCommand(true)))
+        .isInstanceOf(SendingException.class)
+        .hasMessageContaining("No response");
+  }
+}
@@ -0,0 +1,112 @@
+package com.github.sem2mqtt.bluetooth.sem6000;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.magcode.sem6000.connector.ByteUtils;
+import org.magcode.sem6000.connector.receive.ResponseType;
+import org.magcode.sem6000.connector.receive.SemResponseParser;
+import org.magcode.sem6000.connector.send.Command;
+
+class Sem6000FrameReassemblerTest {
+
+  private static final String MEASUREMENT = "0f11040001002cc8ea0059320000000000006f";
+  private static final String SYNC_TIME = "0f0401000002ffff";
+  private static final String DATA_DAY =
+      "0f330a00000000000000000000000000000000000000000000000000005c04e200c9005f0000000000000000000000000000000075ffff";
+
+  private final List<String> frames = new ArrayList<>();
+  private Sem6000FrameReassembler reassembler;
+
+  @BeforeEach
+  void setUp() {
+    reassembler = new Sem6000FrameReassembler(
+        (buffer, offset, length) -> frames.add(ByteUtils.byteArrayToHex(buffer, offset, length)));
+  }
+
+  @Test
+  void hands_out_frame_when_notification_is_complete() {
+    //when
+    reassembler.append(bytes(MEASUREMENT));
+    //then
+    assertThat(frames).containsExactly(MEASUREMENT);
+    assertThat(reassembler.bufferedBytes()).isZero();
+  }
+
+  @Test
+  void joins_frame_when_it_spans_multiple_notifications() {
+    //given
+    byte[] dataDay = bytes(DATA_DAY);
+    //when
+    reassembler.append(Arrays.copyOfRange(dataDay, 0, 20));
+    reassembler.append(Arrays.copyOfRange(dataDay, 20, 40));
+    assertThat(frames).isEmpty();
+    reassembler.append(Arrays.copyOfRange(dataDay, 40, dataDay.length));
+    //then
+    assertThat(frames).containsExactly(DATA_DAY);
+  }
+
+  @Test
+  void splits_frames_when_notification_contains_multiple_frames() {
+    //when
+    reassembler.append(bytes(SYNC_TIME + MEASUREMENT + SYNC_TIME));
+    //then
+    assertThat(frames).containsExactly(SYNC_TIME, MEASUREMENT, SYNC_TIME);
+  }
+
+  @Test
+  void skips_garbage_and_frames_with_invalid_checksum() {
+    //given
+    String corruptedMeasurement = MEASUREMENT.substring(0, MEASUREMENT.length() - 2) + "00";
+    //when
+    reassembler.append(bytes("ffff00" + corruptedMeasurement + "12" + SYNC_TIME));
+    //then
+    assertThat(frames).containsExactly(SYNC_TIME);
+    assertThat(reassembler.discardedBytes()).isEqualTo(3 + corruptedMeasurement.length() / 2 + 1);
+  }
+
+  @Test
+  void hands_out_frames_when_they_wrap_around_the_end_of_the_buffer() {
+    //given
+    int count = 3 * Sem6000FrameReassembler.CAPACITY / (MEASUREMENT.length() / 2);
+    //when
+    for (int i = 0; i < count; i++) {
+      reassembler.append(bytes(MEASUREMENT));
+    }
+    //then
+    assertThat(frames).hasSize(count).containsOnly(MEASUREMENT);
+  }
+
+  @Test
+  void dismisses_incomplete_frame_when_a_new_response_arrives() {
+    //given
+    byte[] dataDay = bytes(DATA_DAY);
+    reassembler.append(Arrays.copyOfRange(dataDay, 0, 20));
+    //when
+    reassembler.append(bytes(MEASUREMENT));
+    //then
+    assertThat(frames).containsExactly(MEASUREMENT);
+    assertThat(reassembler.bufferedBytes()).isZero();
+  }
+
+  @Test
+  void hands_out_frame_before_trailer_arrives() {
+    //given
+    byte[] dataDay = bytes(DATA_DAY);
+    //when
+    reassembler.append(Arrays.copyOfRange(dataDay, 0, 40));
+    reassembler.append(Arrays.copyOfRange(dataDay, 40, dataDay.length - 2));
+    reassembler.append(bytes("ffff" + SYNC_TIME));
+    //then
+    assertThat(frames).containsExactly(DATA_DAY.substring(0, DATA_DAY.length() - 4), SYNC_TIME);
+    assertThat(SemResponseParser.parseMessage(bytes(frames.get(0))).getType()).isEqualTo(ResponseType.DATADAY);
+  }
+
+  private static byte[] bytes(String hex) {
+    return Command.hexStringToByteArray(hex);
+  }
+}
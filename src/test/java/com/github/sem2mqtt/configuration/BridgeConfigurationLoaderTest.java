@@ -1,9 +1,16 @@
 package com.github.sem2mqtt.configuration;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.entry;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.github.sem2mqtt.SemToMqttAppException;
+import com.github.sem2mqtt.configuration.BluetoothConfig.SignalOverflowPolicy;
+import com.github.sem2mqtt.configuration.MqttConfig.OutputMode;
+import com.github.sem2mqtt.configuration.MqttConfig.PublishPolicy;
+import java.nio.file.Paths;
 import java.time.Duration;
 import java.util.Set;
 import org.junit.jupiter.api.BeforeEach;
@@ -30,6 +37,29 @@ class BridgeConfigurationLoaderTest {
     assertThat(mqttConfig.getClientId()).isEqualTo("client-for-sem6000");
     assertThat(mqttConfig.getUsername()).isEqualTo("mqttUsername");
     assertThat(mqttConfig.getPassword()).isEqualTo("mqttSecret");
+    assertThat(mqttConfig.getPublishQueueCapacity()).isEqualTo(500);
+    assertThat(mqttConfig.getPublishPolicies()).containsExactly(entry("+/state", PublishPolicy.DROP_OLDEST));
+    assertThat(mqttConfig.getJournalConfig().getFile()).isEqualTo(Paths.get("/var/lib/sem2mqtt/journal"));
+    assertThat(mqttConfig.getJournalConfig().getMaxSize()).isEqualTo(1048576);
+    assertThat(mqttConfig.getPublishFilterConfig().getMaxAge()).isEqualTo(Duration.ofMinutes(5));
+    assertThat(mqttConfig.getPublishFilterConfig().getPower().getAbsolute()).isEqualTo(1);
+    assertThat(mqttConfig.getPublishFilterConfig().getPower().getRelative()).isEqualTo(0.05);
+    assertThat(mqttConfig.getPublishFilterConfig().getVoltage().getAbsolute()).isEqualTo(2);
+    assertThat(mqttConfig.getPublishFilterConfig().getVoltage().getRelative()).isZero();
+    assertThat(mqttConfig.getOutputMode()).isEqualTo(OutputMode.TOPICS_AND_JSON);
+  }
+
+  @Test
+  void bluetooth_config_matches_yaml_content() {
+    //when
+    BluetoothConfig bluetoothConfig = loader.load("valid_test.yaml").getBluetoothConfig();
+    //then
+    assertThat(bluetoothConfig.getConnectParallelism()).isEqualTo(5);
+    assertThat(bluetoothConfig.getSignalQueueCapacity()).isEqualTo(16);
+    assertThat(bluetoothConfig.getSignalOverflowPolicy()).isEqualTo(SignalOverflowPolicy.DROP_NEWEST);
+    assertThat(bluetoothConfig.getSignalWorkers()).isEqualTo(2);
+    assertThat(bluetoothConfig.getConnectionSlots()).isEqualTo(4);
+    assertThat(bluetoothConfig.getDevicesPerAdapter()).isEqualTo(5);
   }
 
   @Test
@@ -43,11 +73,24 @@ class BridgeConfigurationLoaderTest {
           assertThat(sem6000Config.getPin()).isEqualTo("0000");
           assertThat(sem6000Config.getName()).isEqualTo("sem1");
           assertThat(sem6000Config.getUpdateInterval()).isEqualTo(Duration.ofSeconds(10));
+          assertThat(sem6000Config.getEnergyUpdateInterval()).isEqualTo(Duration.ofHours(1));
+          assertThat(sem6000Config.getAdaptivePolling().isEnabled()).isTrue();
+          assertThat(sem6000Config.getAdaptivePolling().getMinInterval()).isEqualTo(Duration.ofSeconds(2));
+          assertThat(sem6000Config.getAdaptivePolling().getMaxInterval()).contains(Duration.ofMinutes(5));
+          assertThat(sem6000Config.getAdaptivePolling().getPowerChange().getAbsolute()).isEqualTo(5d);
+          assertThat(sem6000Config.getAdaptivePolling().getPowerChange().getRelative()).isEqualTo(0.1d);
+          assertThat(sem6000Config.getPublishFilter()).isEmpty();
         }).anySatisfy(sem6000Config -> {
           assertThat(sem6000Config.getMac()).isEqualTo("00:00:00:00:00:02");
           assertThat(sem6000Config.getPin()).isEqualTo("1234");
           assertThat(sem6000Config.getName()).isEqualTo("sem 2");
           assertThat(sem6000Config.getUpdateInterval()).isEqualTo(Duration.ofMinutes(15));
+          assertThat(sem6000Config.getEnergyUpdateInterval()).isEqualTo(Duration.ofMinutes(30));
+          assertThat(sem6000Config.getAdaptivePolling().isEnabled()).isFalse();
+          assertThat(sem6000Config.getPublishFilter()).hasValueSatisfying(publishFilter -> {
+            assertThat(publishFilter.getMaxAge()).isEqualTo(PublishFilterConfig.DEFAULT_MAX_AGE);
+            assertThat(publishFilter.getPower().getAbsolute()).isEqualTo(10);
+          });
         });
   }
 
@@ -63,6 +106,17 @@ class BridgeConfigurationLoaderTest {
     assertThat(mqttConfig.getClientId()).isEqualTo("semtomqttbridge");
     assertThat(mqttConfig.getUsername()).isNull();
     assertThat(mqttConfig.getPassword()).isNull();
+    assertThat(bridgeConfiguration.getBluetoothConfig().getConnectParallelism())
+        .isEqualTo(BluetoothConfig.DEFAULT_CONNECT_PARALLELISM);
+    assertThat(bridgeConfiguration.getBluetoothConfig().getSignalOverflowPolicy())
+        .isEqualTo(BluetoothConfig.DEFAULT_SIGNAL_OVERFLOW_POLICY);
+    assertThat(bridgeConfiguration.getBluetoothConfig().getSignalWorkers())
+        .isEqualTo(BluetoothConfig.DEFAULT_SIGNAL_WORKERS);
+    assertThat(bridgeConfiguration.getBluetoothConfig().getConnectionSlots())
+        .isEqualTo(BluetoothConfig.NO_CONNECTION_SLOTS);
+    assertThat(bridgeConfiguration.getBluetoothConfig().getDevicesPerAdapter())
+        .isEqualTo(BluetoothConfig.DEFAULT_DEVICES_PER_ADAPTER);
+    assertThat(mqttConfig.getPublishFilterConfig().getMaxAge()).isZero();
 
     assertThat(semConfigs).hasSize(1)
         .anySatisfy(sem6000Config -> {
@@ -81,6 +135,29 @@ class BridgeConfigurationLoaderTest {
     assertThat(mqttConfig.getClientId()).isEqualTo("client-for-sem6000");
     assertThat(mqttConfig.getUsername()).isEqualTo("mqttUsername");
     assertThat(mqttConfig.getPassword()).isEqualTo("mqttSecret");
+    assertThat(mqttConfig.getPublishQueueCapacity()).isEqualTo(500);
+    assertThat(mqttConfig.getPublishPolicies()).containsExactly(entry("+/state", PublishPolicy.DROP_OLDEST));
+    assertThat(mqttConfig.getJournalConfig().getFile()).isEqualTo(Paths.get("/var/lib/sem2mqtt/journal"));
+    assertThat(mqttConfig.getJournalConfig().getMaxSize()).isEqualTo(1048576);
+    assertThat(mqttConfig.getPublishFilterConfig().getMaxAge()).isEqualTo(Duration.ofMinutes(5));
+    assertThat(mqttConfig.getPublishFilterConfig().getPower().getAbsolute()).isEqualTo(1);
+    assertThat(mqttConfig.getPublishFilterConfig().getPower().getRelative()).isEqualTo(0.05);
+    assertThat(mqttConfig.getPublishFilterConfig().getVoltage().getAbsolute()).isEqualTo(2);
+    assertThat(mqttConfig.getPublishFilterConfig().getVoltage().getRelative()).isZero();
+    assertThat(mqttConfig.getOutputMode()).isEqualTo(OutputMode.TOPICS_AND_JSON);
+  }
+
+  @Test
+  void bluetooth_config_matches_properties_content() {
+    //when
+    BluetoothConfig bluetoothConfig = loader.load("valid_test.properties").getBluetoothConfig();
+    //then
+    assertThat(bluetoothConfig.getConnectParallelism()).isEqualTo(5);
+    assertThat(bluetoothConfig.getSignalQueueCapacity()).isEqualTo(16);
+    assertThat(bluetoothConfig.getSignalOverflowPolicy()).isEqualTo(SignalOverflowPolicy.DROP_NEWEST);
+    assertThat(bluetoothConfig.getSignalWorkers()).isEqualTo(2);
+    assertThat(bluetoothConfig.getConnectionSlots()).isEqualTo(4);
+    assertThat(bluetoothConfig.getDevicesPerAdapter()).isEqualTo(5);
   }
 
   @Test
@@ -93,12 +170,25 @@ class BridgeConfigurationLoaderTest {
           assertThat(sem6000Config.getPin()).isEqualTo("0000");
           assertThat(sem6000Config.getName()).isEqualTo("sem1");
           assertThat(sem6000Config.getUpdateInterval()).isEqualTo(Duration.ofSeconds(60));
+          assertThat(sem6000Config.getEnergyUpdateInterval()).isEqualTo(Duration.ofHours(1));
+          assertThat(sem6000Config.getAdaptivePolling().isEnabled()).isTrue();
+          assertThat(sem6000Config.getAdaptivePolling().getMinInterval()).isEqualTo(Duration.ofSeconds(2));
+          assertThat(sem6000Config.getAdaptivePolling().getMaxInterval()).contains(Duration.ofMinutes(5));
+          assertThat(sem6000Config.getAdaptivePolling().getPowerChange().getAbsolute()).isEqualTo(5d);
+          assertThat(sem6000Config.getAdaptivePolling().getPowerChange().getRelative()).isEqualTo(0.1d);
+          assertThat(sem6000Config.getPublishFilter()).isEmpty();
         })
         .anySatisfy(sem6000Config -> {
           assertThat(sem6000Config.getMac()).isEqualTo("00:00:00:00:00:02");
           assertThat(sem6000Config.getPin()).isEqualTo("1234");
           assertThat(sem6000Config.getName()).isEqualTo("sem 2");
           assertThat(sem6000Config.getUpdateInterval()).isEqualTo(Duration.ofMinutes(15));
+          assertThat(sem6000Config.getEnergyUpdateInterval()).isEqualTo(Duration.ofMinutes(30));
+          assertThat(sem6000Config.getAdaptivePolling().isEnabled()).isFalse();
+          assertThat(sem6000Config.getPublishFilter()).hasValueSatisfying(publishFilter -> {
+            assertThat(publishFilter.getMaxAge()).isEqualTo(PublishFilterConfig.DEFAULT_MAX_AGE);
+            assertThat(publishFilter.getPower().getAbsolute()).isEqualTo(10);
+          });
         });
   }
 
@@ -114,6 +204,17 @@ class BridgeConfigurationLoaderTest {
     assertThat(mqttConfig.getClientId()).isEqualTo("semtomqttbridge");
     assertThat(mqttConfig.getUsername()).isNull();
     assertThat(mqttConfig.getPassword()).isNull();
+    assertThat(bridgeConfiguration.getBluetoothConfig().getConnectParallelism())
+        .isEqualTo(BluetoothConfig.DEFAULT_CONNECT_PARALLELISM);
+    assertThat(bridgeConfiguration.getBluetoothConfig().getSignalOverflowPolicy())
+        .isEqualTo(BluetoothConfig.DEFAULT_SIGNAL_OVERFLOW_POLICY);
+    assertThat(bridgeConfiguration.getBluetoothConfig().getSignalWorkers())
+        .isEqualTo(BluetoothConfig.DEFAULT_SIGNAL_WORKERS);
+    assertThat(bridgeConfiguration.getBluetoothConfig().getConnectionSlots())
+        .isEqualTo(BluetoothConfig.NO_CONNECTION_SLOTS);
+    assertThat(bridgeConfiguration.getBluetoothConfig().getDevicesPerAdapter())
+        .isEqualTo(BluetoothConfig.DEFAULT_DEVICES_PER_ADAPTER);
+    assertThat(mqttConfig.getPublishFilterConfig().getMaxAge()).isZero();
 
     assertThat(semConfigs).hasSize(1)
         .anySatisfy(sem6000Config -> {
@@ -121,4 +222,22 @@ class BridgeConfigurationLoaderTest {
           assertThat(sem6000Config.getUpdateInterval()).isEqualTo(Duration.ofSeconds(60));
         });
   }
-}
\ No newline at end of file
+
+  @Test
+  void fails_when_yaml_contains_invalid_pin() {
+    //when
+    assertThatCode(() -> loader.load("invalid_pin.yaml"))
+        //then
+        .isInstanceOf(SemToMqttAppException.class)
+        .hasRootCauseInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void fails_when_properties_contain_invalid_pin() {
+    //when
+    assertThatCode(() -> loader.load("invalid_pin.properties"))
+        //then
+        .isInstanceOf(SemToMqttAppException.class)
+        .hasRootCauseInstanceOf(IllegalArgumentException.class);
+  }
+}
@@ -25,8 +25,12 @@ public class Sem6000ConfigTestHelper {
     return new Sem6000Config(randomMac(), randomPin(), plugName, updateInterval);
   }
 
+  public static Sem6000Config randomSemConfigForPlug(String plugName, AdaptivePollingConfig adaptivePolling) {
+    return new Sem6000Config(randomMac(), randomPin(), plugName, Duration.ofSeconds(60), null, adaptivePolling, null);
+  }
+
   static String randomPin() {
-    return String.valueOf(ThreadLocalRandom.current().nextInt(100000));
+    return String.format("%04d", ThreadLocalRandom.current().nextInt(10000));
   }
 
   static String randomMac() {
@@ -5,16 +5,19 @@ import static com.github.sem2mqtt.ObservingLogTestHelper.observeLogsOf;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
 import static org.mockito.Answers.RETURNS_MOCKS;
+import static org.mockito.AdditionalMatchers.aryEq;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.ArgumentMatchers.refEq;
+import static org.mockito.Mockito.after;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.Logger;
@@ -22,19 +25,27 @@ import ch.qos.logback.classic.LoggerContext;
 import ch.qos.logback.classic.spi.ILoggingEvent;
 import ch.qos.logback.core.Appender;
 import com.github.sem2mqtt.SemToMqttAppException;
+import com.github.sem2mqtt.configuration.JournalConfig;
 import com.github.sem2mqtt.configuration.MqttConfig;
 import com.github.sem2mqtt.mqtt.MqttConnection.MessageCallback;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.eclipse.paho.client.mqttv3.IMqttActionListener;
+import org.eclipse.paho.client.mqttv3.IMqttAsyncClient;
 import org.eclipse.paho.client.mqttv3.IMqttDeliveryToken;
 import org.eclipse.paho.client.mqttv3.IMqttMessageListener;
-import org.eclipse.paho.client.mqttv3.MqttClient;
+import org.eclipse.paho.client.mqttv3.IMqttToken;
 import org.eclipse.paho.client.mqttv3.MqttConnectOptions;
 import org.eclipse.paho.client.mqttv3.MqttException;
 import org.eclipse.paho.client.mqttv3.MqttMessage;
 import org.eclipse.paho.client.mqttv3.MqttSecurityException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.ArgumentMatcher;
 import org.mockito.Mockito;
 import org.slf4j.LoggerFactory;
@@ -44,7 +55,7 @@ class MqttConnectionTest {
   public static final String MQTT_PASSWORD = "password";
   public static final String MQTT_USERNAME = "user";
   public static final String MQTT_CLIENT_ID = "mqtt-client-id";
-  private final MqttClient mqttClientMock = Mockito.mock(MqttClient.class);
+  private final IMqttAsyncClient mqttClientMock = Mockito.mock(IMqttAsyncClient.class, RETURNS_MOCKS);
   private MqttConnection mqttConnection;
 
   @BeforeEach
@@ -102,13 +113,14 @@ class MqttConnectionTest {
     //when
     mqttConnection.subscribe(topic, mock(MessageCallback.class));
     //then
-    verify(mqttClientMock).subscribe(eq(topic), any(IMqttMessageListener.class));
+    verify(mqttClientMock).subscribe(eq(topic), anyInt(), any(IMqttMessageListener.class));
   }
 
   @Test
   void crashes_app_when_cannot_subscribe_to_topics() throws MqttException {
     //when
-    doThrow(MqttException.class).when(mqttClientMock).subscribe(anyString(), any(IMqttMessageListener.class));
+    doThrow(MqttException.class).when(mqttClientMock)
+        .subscribe(anyString(), anyInt(), any(IMqttMessageListener.class));
     //then
     assertThatCode(() -> mqttConnection.subscribe("some/event", mock(MessageCallback.class)))
         .isInstanceOf(SemToMqttAppException.class)
@@ -125,20 +137,98 @@ class MqttConnectionTest {
     //when
     mqttConnection.publish("some/topic", "Any kind of payload");
     //then
-    verify(mqttClientMock).publish(eq("some/topic"), refEq("Any kind of object".getBytes(StandardCharsets.UTF_8)),
-        anyInt(), anyBoolean());
+    verify(mqttClientMock, timeout(1000)).publish(eq("some/topic"),
+        aryEq("Any kind of payload".getBytes(StandardCharsets.UTF_8)), anyInt(), anyBoolean(), any(), any());
   }
 
   @Test
-  void fails_safely_when_publishing_fails() throws MqttException {
+  void completes_publishing_when_mqttclient_published_message() throws MqttException {
     //given
     mqttConnection.establish();
-    doThrow(MqttException.class).when(mqttClientMock).publish(eq("some/topic"), any(), anyInt(), anyBoolean());
+    when(mqttClientMock.publish(anyString(), any(), anyInt(), anyBoolean(), any(), any())).thenAnswer(invocation -> {
+      invocation.<IMqttActionListener>getArgument(5).onSuccess(mock(IMqttToken.class));
+      return mock(IMqttDeliveryToken.class);
+    });
+    //when
+    CompletableFuture<Void> published = mqttConnection.publish("some/topic", "Any kind of payload");
+    //then
+    assertThat(published).succeedsWithin(Duration.ofSeconds(1));
+    assertThat(mqttConnection.getPublishedMessageCount()).isOne();
+    assertThat(mqttConnection.getPublishQueueDepth()).isZero();
+  }
+
+  @Test
+  void does_not_wait_for_mqtt_server_when_publishing_message() {
+    //when
+    CompletableFuture<Void> published = mqttConnection.publish("some/topic", "Any kind of payload");
+    //then
+    assertThat(published).isNotDone();
+    assertThat(mqttConnection.getPublishQueueDepth()).isOne();
+  }
+
+  @Test
+  void retries_publishing_when_mqttclient_is_not_connected() throws MqttException {
+    //given
+    mqttConnection.establish();
+    when(mqttClientMock.publish(anyString(), any(), anyInt(), anyBoolean(), any(), any()))
+        .thenThrow(new MqttException(MqttException.REASON_CODE_CLIENT_NOT_CONNECTED))
+        .thenReturn(mock(IMqttDeliveryToken.class));
     //when
     mqttConnection.publish("some/topic", "Any kind of payload");
     //then
-    verify(mqttClientMock).publish(eq("some/topic"), refEq("Any kind of object".getBytes(StandardCharsets.UTF_8)),
-        anyInt(), anyBoolean());
+    verify(mqttClientMock, timeout(2000).times(2)).publish(eq("some/topic"), any(), anyInt(), anyBoolean(), any(),
+        any());
+  }
+
+  @Test
+  void fails_safely_when_publishing_fails() throws MqttException {
+    //given
+    mqttConnection.establish();
+    doThrow(MqttException.class).when(mqttClientMock)
+        .publish(eq("some/topic"), any(), anyInt(), anyBoolean(), any(), any());
+    //when
+    CompletableFuture<Void> published = mqttConnection.publish("some/topic", "Any kind of payload");
+    //then
+    assertThat(published).failsWithin(Duration.ofSeconds(1));
+  }
+
+  @Test
+  void replays_messages_published_while_disconnected_when_reconnected(@TempDir Path tempDir) throws MqttException {
+    //given
+    MqttConnection journalingConnection = new MqttConnection(mqttClientMock,
+        new MqttConfig("rootTopic", "tcp://some-url", MQTT_CLIENT_ID, MQTT_USERNAME, MQTT_PASSWORD, null, null,
+            new JournalConfig(tempDir.resolve("journal").toString(), null), null, null));
+    AtomicBoolean connected = new AtomicBoolean(false);
+    when(mqttClientMock.isConnected()).thenAnswer(invocation -> connected.get());
+    journalingConnection.establish();
+    journalingConnection.publish("rootTopic/plug1/power", 42);
+    //when
+    connected.set(true);
+    journalingConnection.connectComplete(true, "tcp://some-url");
+    //then
+    verify(mqttClientMock, timeout(1000)).publish(eq("rootTopic/plug1/power/journal"),
+        argThat(payload -> new String(payload, StandardCharsets.UTF_8).matches(
+            "\\{\"timestamp\":\"[^\"]+Z\",\"value\":\"42\"}")), anyInt(), anyBoolean(), any(), any());
+  }
+
+  @Test
+  void publishes_message_published_while_disconnected_only_once_when_reconnected(@TempDir Path tempDir)
+      throws MqttException {
+    //given
+    MqttConnection journalingConnection = new MqttConnection(mqttClientMock,
+        new MqttConfig("rootTopic", "tcp://some-url", MQTT_CLIENT_ID, MQTT_USERNAME, MQTT_PASSWORD, null, null,
+            new JournalConfig(tempDir.resolve("journal").toString(), null), null, null));
+    AtomicBoolean connected = new AtomicBoolean(false);
+    when(mqttClientMock.isConnected()).thenAnswer(invocation -> connected.get());
+    journalingConnection.establish();
+    journalingConnection.publish("rootTopic/plug1/power", 42);
+    //when
+    connected.set(true);
+    journalingConnection.connectComplete(true, "tcp://some-url");
+    //then
+    verify(mqttClientMock, timeout(1000)).publish(eq("rootTopic/plug1/power/journal"), any(), anyInt(),
+        anyBoolean(), any(), any());
+    verify(mqttClientMock, after(200).times(1)).publish(anyString(), any(), anyInt(), anyBoolean(), any(), any());
   }
 
   @Test
@@ -149,7 +239,7 @@ class MqttConnectionTest {
     //when
     mqttConnection.subscribe(topic, callback);
     //then
-    verify(mqttClientMock).subscribe(eq(topic), argThat(whenCalledForwardsToCallback(callback)));
+    verify(mqttClientMock).subscribe(eq(topic), anyInt(), argThat(whenCalledForwardsToCallback(callback)));
   }
 
   @Test
@@ -0,0 +1,157 @@
+package com.github.sem2mqtt.mqtt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import com.github.sem2mqtt.mqtt.MqttJournal.JournalEntry;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MqttJournalTest {
+
+  private static final long JOURNAL_SIZE = 256;
+
+  @TempDir
+  Path tempDir;
+
+  private MqttJournal openJournal() throws IOException {
+    return MqttJournal.open(tempDir.resolve("journal"), JOURNAL_SIZE, Duration.ofHours(1));
+  }
+
+  private static byte[] payload(String payload) {
+    return payload.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static String payloadOf(JournalEntry entry) {
+    return new String(entry.payload, StandardCharsets.UTF_8);
+  }
+
+  @Test
+  void returns_messages_in_order_of_appending() throws IOException {
+    //given
+    try (MqttJournal journal = openJournal()) {
+      journal.append("root/plug1/power", payload("10"), 1000);
+      journal.append("root/plug1/voltage", payload("230"), 2000);
+      //when
+      JournalEntry first = journal.peek().get();
+      journal.remove(first);
+      JournalEntry second = journal.peek().get();
+      journal.remove(second);
+      //then
+      assertThat(first.topic).isEqualTo("root/plug1/power");
+      assertThat(payloadOf(first)).isEqualTo("10");
+      assertThat(first.timestampMillis).isEqualTo(1000);
+      assertThat(second.topic).isEqualTo("root/plug1/voltage");
+      assertThat(second.timestampMillis).isEqualTo(2000);
+      assertThat(journal.isEmpty()).isTrue();
+      assertThat(journal.peek()).isEmpty();
+    }
+  }
+
+  @Test
+  void evicts_oldest_messages_when_journal_is_full() throws IOException {
+    //given
+    try (MqttJournal journal = openJournal()) {
+      //when
+      for (int i = 0; i < 20; i++) {
+        journal.append("root/plug1/power", payload(String.valueOf(i)), i);
+      }
+      //then
+      assertThat(journal.usedBytes()).isLessThanOrEqualTo(JOURNAL_SIZE - MqttJournal.HEADER_SIZE);
+      int expected = (int) journal.peek().get().timestampMillis;
+      assertThat(expected).isPositive();
+      while (!journal.isEmpty()) {
+        JournalEntry entry = journal.peek().get();
+        assertThat(payloadOf(entry)).isEqualTo(String.valueOf(expected++));
+        journal.remove(entry);
+      }
+      assertThat(expected).isEqualTo(20);
+    }
+  }
+
+  @Test
+  void keeps_next_message_when_peeked_message_was_evicted_before_removing_it() throws IOException {
+    //given
+    try (MqttJournal journal = openJournal()) {
+      journal.append("root/plug1/power", payload("0"), 0);
+      JournalEntry peeked = journal.peek().get();
+      int appended = 1;
+      while (journal.peek().get().timestampMillis == 0) {
+        journal.append("root/plug1/power", payload(String.valueOf(appended)), appended++);
+      }
+      JournalEntry oldestLeft = journal.peek().get();
+      //when
+      boolean removed = journal.remove(peeked);
+      //then
+      assertThat(removed).isFalse();
+      assertThat(journal.peek().get().timestampMillis).isEqualTo(oldestLeft.timestampMillis);
+    }
+  }
+
+  @Test
+  void keeps_messages_when_reopening_journal() throws IOException {
+    //given
+    try (MqttJournal journal = openJournal()) {
+      for (int i = 0; i < 15; i++) {
+        journal.append("root/plug1/power", payload(String.valueOf(i)), i);
+        journal.remove(journal.peek().get());
+      }
+      // wraps around the end of the file
+      journal.append("root/plug1/power", payload("wrapped"), 42);
+    }
+    //when
+    try (MqttJournal journal = openJournal()) {
+      //then
+      JournalEntry entry = journal.peek().get();
+      assertThat(payloadOf(entry)).isEqualTo("wrapped");
+      assertThat(entry.timestampMillis).isEqualTo(42);
+    }
+  }
+
+  @Test
+  void discards_messages_when_journal_is_corrupt() throws IOException {
+    //given
+    try (MqttJournal journal = openJournal()) {
+      journal.append("root/plug1/power", payload("10"), 1000);
+    }
+    try (RandomAccessFile file = new RandomAccessFile(tempDir.resolve("journal").toFile(), "rw")) {
+      file.seek(MqttJournal.HEADER_SIZE + 12);
+      file.write(0xff);
+    }
+    //when
+    try (MqttJournal journal = openJournal()) {
+      //then
+      assertThat(journal.peek()).isEmpty();
+      assertThat(journal.isEmpty()).isTrue();
+    }
+  }
+
+  @Test
+  void starts_empty_when_journal_size_changed() throws IOException {
+    //given
+    try (MqttJournal journal = openJournal()) {
+      journal.append("root/plug1/power", payload("10"), 1000);
+    }
+    //when
+    try (MqttJournal journal = MqttJournal.open(tempDir.resolve("journal"), JOURNAL_SIZE * 2, Duration.ofHours(1))) {
+      //then
+      assertThat(journal.isEmpty()).isTrue();
+    }
+  }
+
+  @Test
+  void forces_appended_messages_to_disk_without_further_appends() throws IOException {
+    //given
+    try (MqttJournal journal = MqttJournal.open(tempDir.resolve("journal"), JOURNAL_SIZE, Duration.ofMillis(20))) {
+      //when
+      journal.append("root/plug1/power", payload("10"), 1000);
+      //then
+      await().atMost(Duration.ofSeconds(1)).until(() -> !journal.isDirty());
+    }
+  }
+}
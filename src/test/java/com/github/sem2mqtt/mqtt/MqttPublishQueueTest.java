@@ -0,0 +1,81 @@
+package com.github.sem2mqtt.mqtt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.sem2mqtt.configuration.MqttConfig;
+import com.github.sem2mqtt.configuration.MqttConfig.PublishPolicy;
+import com.github.sem2mqtt.mqtt.MqttPublishQueue.PendingMessage;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.Test;
+
+class MqttPublishQueueTest {
+
+  private static MqttPublishQueue createQueue(int capacity, Map<String, PublishPolicy> publishPolicies) {
+    return new MqttPublishQueue(new MqttConfig("root", null, null, null, null, capacity, publishPolicies,
+        null, null, null));
+  }
+
+  private static byte[] payload(String payload) {
+    return payload.getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Test
+  void replaces_queued_message_of_same_topic_when_coalescing() throws InterruptedException {
+    //given
+    MqttPublishQueue publishQueue = createQueue(10, Map.of());
+    CompletableFuture<Void> replaced = publishQueue.add("root/plug1/power", payload("10"));
+    publishQueue.add("root/plug2/power", payload("20"));
+    //when
+    publishQueue.add("root/plug1/power", payload("11"));
+    //then
+    assertThat(publishQueue.size()).isEqualTo(2);
+    PendingMessage message = publishQueue.take();
+    assertThat(message.topic).isEqualTo("root/plug1/power");
+    assertThat(message.payload).isEqualTo(payload("11"));
+    publishQueue.published(message);
+    assertThat(replaced).isCompleted();
+  }
+
+  @Test
+  void drops_oldest_message_when_queue_is_full() throws InterruptedException {
+    //given
+    MqttPublishQueue publishQueue = createQueue(2, Map.of("+/state", PublishPolicy.DROP_OLDEST));
+    CompletableFuture<Void> oldest = publishQueue.add("root/plug1/state", payload("lost"));
+    publishQueue.add("root/plug1/state", payload("online"));
+    //when
+    publishQueue.add("root/plug1/state", payload("lost"));
+    //then
+    assertThat(oldest).failsWithin(Duration.ZERO).withThrowableOfType(CancellationException.class);
+    assertThat(publishQueue.getDroppedCount()).isOne();
+    assertThat(publishQueue.take().payload).isEqualTo(payload("online"));
+  }
+
+  @Test
+  void drops_new_message_when_queue_is_full_and_configured_so() throws InterruptedException {
+    //given
+    MqttPublishQueue publishQueue = createQueue(1, Map.of("#", PublishPolicy.DROP_NEWEST));
+    publishQueue.add("root/plug1/state", payload("online"));
+    //when
+    CompletableFuture<Void> newest = publishQueue.add("root/plug1/state", payload("lost"));
+    //then
+    assertThat(newest).failsWithin(Duration.ZERO).withThrowableOfType(CancellationException.class);
+    assertThat(publishQueue.take().payload).isEqualTo(payload("online"));
+  }
+
+  @Test
+  void measures_latency_when_message_is_published() throws InterruptedException {
+    //given
+    MqttPublishQueue publishQueue = createQueue(10, Map.of());
+    publishQueue.add("root/plug1/power", payload("10"));
+    //when
+    publishQueue.published(publishQueue.take());
+    //then
+    assertThat(publishQueue.getPublishedCount()).isOne();
+    assertThat(publishQueue.getMaxLatency()).isPositive();
+    assertThat(publishQueue.getAverageLatency()).isPositive();
+  }
+}
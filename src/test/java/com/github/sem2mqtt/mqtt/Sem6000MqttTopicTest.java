@@ -0,0 +1,62 @@
+package com.github.sem2mqtt.mqtt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.sem2mqtt.mqtt.Sem6000MqttTopic.Type;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class Sem6000MqttTopicTest {
+
+  private static final String ROOT_TOPIC = "home/sem";
+
+  @Test
+  void parses_type_of_setter_topic() {
+    //when
+    Sem6000MqttTopic topic = new Sem6000MqttTopic(ROOT_TOPIC, "home/sem/plug1/relay/set", "plug1");
+    //then
+    assertThat(topic.isValid()).isTrue();
+    assertThat(topic.getType()).isEqualTo(Type.RELAY);
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"home/sem/plug2/led/set", "home/sem/plug1/unknown/set", "home/sem/plug1/set",
+      "home/semplug1/led/set", "other/sem/plug1/led/set", "home/sem/plug1", "home/sem/plug1/led"})
+  void is_invalid_when_topic_is_not_a_setter_of_the_plug(String topic) {
+    //when
+    Sem6000MqttTopic sem6000MqttTopic = new Sem6000MqttTopic(ROOT_TOPIC, topic, "plug1");
+    //then
+    assertThat(sem6000MqttTopic.isValid()).isFalse();
+    assertThat(sem6000MqttTopic.getType()).isEqualTo(Type.UNKNOWN);
+  }
+
+  @Test
+  void parses_plug_name_and_type_of_setter_topic() {
+    //when
+    Optional<Sem6000MqttTopic> topic = Sem6000MqttTopic.parse(ROOT_TOPIC, "home/sem/plug 1/led/set");
+    //then
+    assertThat(topic).hasValueSatisfying(setter -> {
+      assertThat(setter.getPlugName()).isEqualTo("plug 1");
+      assertThat(setter.getType()).isEqualTo(Type.LED);
+    });
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"home/semi/plug1/led/set", "home/sem/plug1", "home/sem/plug1/set", "home/sem/plug1/led"})
+  void parses_no_setter_when_topic_is_not_a_setter_below_root_topic(String topic) {
+    //then
+    assertThat(Sem6000MqttTopic.parse(ROOT_TOPIC, topic)).isEmpty();
+  }
+
+  @Test
+  void creates_setter_topic_of_plug() {
+    //when
+    Sem6000MqttTopic topic = Sem6000MqttTopic.setterOf(ROOT_TOPIC, "plug1", Type.MEASURE);
+    //then
+    assertThat(topic).hasToString("home/sem/plug1/measure/set");
+    assertThat(topic.getPlugName()).isEqualTo("plug1");
+    assertThat(topic.getType()).isEqualTo(Type.MEASURE);
+  }
+}
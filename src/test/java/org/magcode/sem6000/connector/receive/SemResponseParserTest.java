@@ -2,6 +2,7 @@ package org.magcode.sem6000.connector.receive;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.magcode.sem6000.connector.receive.SemResponseTestHelper.clockAt;
 import static org.magcode.sem6000.connector.receive.SemResponseTestHelper.createIncompleteResponse;
 import static org.magcode.sem6000.connector.receive.SemResponseTestHelper.createMeasureResponse;
 import static org.magcode.sem6000.connector.receive.SemResponseTestHelper.createSemDayDataResponse;
@@ -10,6 +11,7 @@ import static org.magcode.sem6000.connector.receive.SemResponseTestHelper.create
 import static org.magcode.sem6000.connector.receive.SemResponseTestHelper.createUnknownSemResponse;
 
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import org.junit.jupiter.api.Test;
 import org.magcode.sem6000.connector.send.Command;
 
@@ -63,6 +65,33 @@ class SemResponseParserTest {
     assertEquals(1638, dataResp.getToday());
   }
 
+  @Test
+  void energy_today_only_contains_hours_since_midnight() {
+    DataDayResponse dataResp = (DataDayResponse) createSemDayDataResponse(
+        clockAt(LocalDateTime.of(2023, 3, 1, 10, 30)));
+    assertEquals(1638, dataResp.getLast24h());
+    assertEquals(1546, dataResp.getToday());
+  }
+
+  @Test
+  void energy_today_is_current_hour_only_right_after_midnight() {
+    DataDayResponse dataResp = (DataDayResponse) createSemDayDataResponse(
+        clockAt(LocalDateTime.of(2023, 3, 1, 0, 0, 1)));
+    assertEquals(1638, dataResp.getLast24h());
+    assertEquals(0, dataResp.getToday());
+  }
+
+  @Test
+  void parses_frame_at_offset_of_buffer() {
+    byte[] buffer = Command.hexStringToByteArray("ffff0f11040001002cc8ea0059320000000000006fffff");
+    SemResponse semResponse = SemResponseParser.parseMessage(buffer, 2, 19);
+    assertThat(semResponse).isInstanceOf(MeasurementResponse.class);
+    MeasurementResponse mRes = (MeasurementResponse) semResponse;
+    assertThat(mRes.isPowerOn()).isTrue();
+    assertEquals(234, mRes.getVoltage());
+    assertEquals(11.464, mRes.getPower(), 0.001f);
+  }
+
   @Test
   void testMeasure() {
     SemResponse semResponse = createMeasureResponse();
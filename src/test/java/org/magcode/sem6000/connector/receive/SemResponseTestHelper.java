@@ -1,5 +1,8 @@
 package org.magcode.sem6000.connector.receive;
 
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import org.magcode.sem6000.connector.send.Command;
 
 public class SemResponseTestHelper {
@@ -23,8 +26,19 @@ public class SemResponseTestHelper {
   }
 
   public static SemResponse createSemDayDataResponse() {
-    return createSemResponseFor(
-        "0f330a00000000000000000000000000000000000000000000000000005c04e200c9005f0000000000000000000000000000000075ffff");
+    // shortly before midnight all hourly values belong to today
+    return createSemDayDataResponse(clockAt(LocalDateTime.of(2023, 3, 1, 23, 30)));
+  }
+
+  public static SemResponse createSemDayDataResponse(Clock clock) {
+    return SemResponseParser.parseMessage(Command.hexStringToByteArray(
+            "0f330a00000000000000000000000000000000000000000000000000005c04e200c9005f0000000000000000000000000000000075ffff"),
+        clock);
+  }
+
+  public static Clock clockAt(LocalDateTime localDateTime) {
+    ZoneId zone = ZoneId.systemDefault();
+    return Clock.fixed(localDateTime.atZone(zone).toInstant(), zone);
   }
 
   public static SemResponse createSemResponseFor(String resp) {
@@ -0,0 +1,107 @@
+package org.magcode.sem6000.connector.send;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+
+import java.lang.management.ManagementFactory;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.magcode.sem6000.connector.ByteUtils;
+
+class Sem6000FrameEncoderTest {
+
+  @Test
+  void encodes_start_length_opcode_body_checksum_and_trailer() {
+    //when
+    byte[] frame = Sem6000FrameEncoder.encode(LoginCommand.OPCODE,
+        new byte[]{0x00, 0x00, 0x01, 0x02, 0x03, 0x04, 0x00, 0x00, 0x00, 0x00});
+    //then
+    assertThat(ByteUtils.byteArrayToHex(frame)).isEqualTo("0f0c170000010203040000000022ffff");
+  }
+
+  @Test
+  void encodes_digits_of_pin_into_login_command() {
+    //then
+    assertThat(ByteUtils.byteArrayToHex(new LoginCommand("1234").getMessage()))
+        .isEqualTo("0f0c170000010203040000000022ffff");
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"", "123", "12345", "12a4", "12 4", "\u0661\u0662\u0663\u0664"})
+  void fails_to_create_login_command_when_pin_is_not_four_digits(String pin) {
+    //then
+    assertThatCode(() -> new LoginCommand(pin)).isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("exactly 4 digits");
+  }
+
+  @Test
+  void constant_commands_share_precomputed_frame() {
+    //then
+    assertThat(new MeasureCommand().getMessage()).isSameAs(new MeasureCommand().getMessage());
+    assertThat(ByteUtils.byteArrayToHex(new MeasureCommand().getMessage())).isEqualTo("0f050400000005ffff");
+    assertThat(new DataDayCommand().getMessage()).isSameAs(new DataDayCommand().getMessage());
+    assertThat(ByteUtils.byteArrayToHex(new DataDayCommand().getMessage())).isEqualTo("0f050a0000000bffff");
+  }
+
+  @Test
+  void encodes_switch_and_led_commands() {
+    //then
+    assertThat(ByteUtils.byteArrayToHex(new SwitchCommand(true).getMessage())).isEqualTo("0f06030001000005ffff");
+    assertThat(ByteUtils.byteArrayToHex(new SwitchCommand(false).getMessage())).isEqualTo("0f06030000000004ffff");
+    assertThat(ByteUtils.byteArrayToHex(new LedCommand(true).getMessage())).isEqualTo("0f090f0005010000000016ffff");
+  }
+
+  @Test
+  void writes_frame_at_position_of_buffer() {
+    //given
+    ByteBuffer buffer = ByteBuffer.allocate(32);
+    buffer.put((byte) 0x42);
+    //when
+    int written = Sem6000FrameEncoder.encode(MeasureCommand.OPCODE, new byte[]{0x00, 0x00, 0x00}, 0, 3, buffer);
+    //then
+    assertThat(written).isEqualTo(9);
+    assertThat(buffer.position()).isEqualTo(10);
+    byte[] frame = new byte[written];
+    buffer.position(1);
+    buffer.get(frame);
+    assertThat(frame).isEqualTo(new MeasureCommand().getMessage());
+  }
+
+  @Test
+  void fails_when_target_is_too_small() {
+    //then
+    assertThatCode(() -> Sem6000FrameEncoder.encode(MeasureCommand.OPCODE, new byte[3], 0, 3, ByteBuffer.allocate(8)))
+        .isInstanceOf(BufferOverflowException.class);
+    assertThatCode(() -> Sem6000FrameEncoder.encode(MeasureCommand.OPCODE, new byte[3], 0, 3, new byte[9], 1))
+        .isInstanceOf(BufferOverflowException.class);
+  }
+
+  @Test
+  void does_not_allocate_when_encoding_into_reused_buffer() {
+    //given
+    com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long threadId = Thread.currentThread().getId();
+    byte[] body = new byte[]{0x00, 0x01, 0x00, 0x00};
+    ByteBuffer buffer = ByteBuffer.allocate(Sem6000FrameEncoder.frameLength(body.length));
+    byte[] array = new byte[Sem6000FrameEncoder.frameLength(body.length)];
+    encodeRepeatedly(body, buffer, array, 1_000); // warm up
+    //when
+    long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+    encodeRepeatedly(body, buffer, array, 100_000);
+    long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+    //then
+    // allocating a single object per send would sum up to megabytes, the tolerance covers the measurement itself
+    assertThat(allocated).isLessThan(4 * 1024);
+  }
+
+  private static void encodeRepeatedly(byte[] body, ByteBuffer buffer, byte[] array, int count) {
+    for (int i = 0; i < count; i++) {
+      buffer.clear();
+      Sem6000FrameEncoder.encode(SwitchCommand.OPCODE, body, 0, body.length, buffer);
+      Sem6000FrameEncoder.encode(SwitchCommand.OPCODE, body, 0, body.length, array, 0);
+    }
+  }
+}